@@ -1,7 +1,7 @@
 /*
  * YUI Compressor
  * Author: Julien Lecomte -  http://www.julienlecomte.net/
- * Author: Isaac Schlueter - http://foohack.com/ 
+ * Author: Isaac Schlueter - http://foohack.com/
  * Author: Stoyan Stefanov - http://phpied.com/
  * Copyright (c) 2009 Yahoo! Inc.  All rights reserved.
  * The copyrights embodied in the content of this file are licensed
@@ -19,27 +19,74 @@ import java.util.regex.Pattern;
 
 public class CssCompressor {
 
-	private StringBuffer srcsb = new StringBuffer();
+	// The patterns are compiled once, a Pattern is thread safe
+	private static final Pattern STRINGS = Pattern
+			.compile("(\"([^\\\\\"]|\\\\.|\\\\)*\")|(\'([^\\\\\']|\\\\.|\\\\)*\')");
+	private static final Pattern ALPHA_OPACITY = Pattern
+			.compile("(?i)progid:DXImageTransform.Microsoft.Alpha\\(Opacity=");
+	private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+	private static final Pattern PSEUDO_CLASSES = Pattern
+			.compile("(^|\\})(([^\\{:])+:)+([^\\{]*\\{)");
+	private static final Pattern SPACES_BEFORE = Pattern
+			.compile("\\s+([!{};:>+\\(\\)\\],])");
+	private static final Pattern FIRST_LINE_LETTER = Pattern
+			.compile(":first\\-(line|letter)(\\{|,)");
+	private static final Pattern CHARSET_FIRST = Pattern
+			.compile("^(.*)(@charset \"[^\"]*\";)");
+	private static final Pattern CHARSET_ONCE = Pattern
+			.compile("^(\\s*@charset [^;]+;\\s*)+");
+	private static final Pattern AND_PARENTHESIS = Pattern.compile("\\band\\(");
+	private static final Pattern SPACES_AFTER = Pattern
+			.compile("([!{}:;>+\\(\\[,])\\s+");
+	private static final Pattern SEMICOLONS_BEFORE_BRACE = Pattern.compile(";+}");
+	private static final Pattern ZERO_UNITS = Pattern
+			.compile("([\\s:])(0)(px|em|%|in|cm|mm|pc|pt|ex)");
+	private static final Pattern FOUR_ZEROS = Pattern.compile(":0 0 0 0(;|})");
+	private static final Pattern THREE_ZEROS = Pattern.compile(":0 0 0(;|})");
+	private static final Pattern TWO_ZEROS = Pattern.compile(":0 0(;|})");
+	private static final Pattern ZERO_POSITION = Pattern
+			.compile("(?i)(background-position|transform-origin|webkit-transform-origin|moz-transform-origin|o-transform-origin|ms-transform-origin):0(;|})");
+	private static final Pattern LEADING_ZERO = Pattern
+			.compile("(:|\\s)0+\\.(\\d+)");
+	private static final Pattern RGB = Pattern
+			.compile("rgb\\s*\\(\\s*([0-9,\\s]+)\\s*\\)");
+	private static final Pattern HEX_COLOR = Pattern
+			.compile("([^\"'=\\s])(\\s*)#([0-9a-fA-F])([0-9a-fA-F])([0-9a-fA-F])([0-9a-fA-F])([0-9a-fA-F])([0-9a-fA-F])");
+	private static final Pattern NONE = Pattern
+			.compile("(?i)(border|border-top|border-right|border-bottom|border-right|outline|background):none(;|})");
+	private static final Pattern EMPTY_RULES = Pattern
+			.compile("[^\\}\\{/;]+\\{\\}");
+	private static final Pattern SEMICOLONS = Pattern.compile(";;+");
+
+	private final StringBuilder srcsb = new StringBuilder();
 
 	public CssCompressor(Reader in) throws IOException {
 		// Read the stream...
-		int c;
-		while ((c = in.read()) != -1) {
-			srcsb.append((char) c);
+		char[] buffer = new char[4096];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			srcsb.append(buffer, 0, read);
 		}
 	}
 
 	public void compress(Writer out, int linebreakpos) throws IOException {
+		// Write the output...
+		out.write(compress(srcsb.toString(), linebreakpos));
+	}
+
+	/**
+	 * Compresses the given style sheet. This method is thread safe.
+	 */
+	public static String compress(String css, int linebreakpos) {
 
-		Pattern p;
 		Matcher m;
-		String css = srcsb.toString();
-		StringBuffer sb = new StringBuffer(css);
+		StringBuilder sb = new StringBuilder(css);
 
 		int startIndex = 0;
 		int endIndex = 0;
 		int i = 0;
 		int max = 0;
+		int last = 0;
 		ArrayList<String> preservedTokens = new ArrayList<String>(0);
 		ArrayList<String> comments = new ArrayList<String>(0);
 		String token;
@@ -63,10 +110,9 @@ public class CssCompressor {
 		css = sb.toString();
 
 		// preserve strings so their content doesn't get accidentally minified
-		sb = new StringBuffer();
-		p = Pattern
-				.compile("(\"([^\\\\\"]|\\\\.|\\\\)*\")|(\'([^\\\\\']|\\\\.|\\\\)*\')");
-		m = p.matcher(css);
+		sb = new StringBuilder(css.length());
+		last = 0;
+		m = STRINGS.matcher(css);
 		while (m.find()) {
 			token = m.group();
 			char quote = token.charAt(0);
@@ -76,29 +122,28 @@ public class CssCompressor {
 			// one, maybe more? put'em back then
 			if (token.indexOf("___YUICSSMIN_PRESERVE_CANDIDATE_COMMENT_") >= 0) {
 				for (i = 0, max = comments.size(); i < max; i += 1) {
-					token = token.replace(
+					token = replace(token,
 							"___YUICSSMIN_PRESERVE_CANDIDATE_COMMENT_" + i
-									+ "___", comments.get(i).toString());
+									+ "___", comments.get(i));
 				}
 			}
 
 			// minify alpha opacity in filter strings
-			token = token.replaceAll(
-					"(?i)progid:DXImageTransform.Microsoft.Alpha\\(Opacity=",
-					"alpha(opacity=");
+			token = ALPHA_OPACITY.matcher(token).replaceAll("alpha(opacity=");
 
 			preservedTokens.add(token);
-			String preserver = quote + "___YUICSSMIN_PRESERVED_TOKEN_"
-					+ (preservedTokens.size() - 1) + "___" + quote;
-			m.appendReplacement(sb, preserver);
+			sb.append(css, last, m.start()).append(quote).append(
+					"___YUICSSMIN_PRESERVED_TOKEN_").append(
+					preservedTokens.size() - 1).append("___").append(quote);
+			last = m.end();
 		}
-		m.appendTail(sb);
+		sb.append(css, last, css.length());
 		css = sb.toString();
 
 		// strings are safe, now wrestle the comments
 		for (i = 0, max = comments.size(); i < max; i += 1) {
 
-			token = comments.get(i).toString();
+			token = comments.get(i);
 			placeholder = "___YUICSSMIN_PRESERVE_CANDIDATE_COMMENT_" + i
 					+ "___";
 
@@ -106,7 +151,7 @@ public class CssCompressor {
 			// so push to the preserved tokens while stripping the !
 			if (token.startsWith("!")) {
 				preservedTokens.add(token);
-				css = css.replace(placeholder, "___YUICSSMIN_PRESERVED_TOKEN_"
+				css = replace(css, placeholder, "___YUICSSMIN_PRESERVED_TOKEN_"
 						+ (preservedTokens.size() - 1) + "___");
 				continue;
 			}
@@ -115,11 +160,11 @@ public class CssCompressor {
 			// shorten that to /*\*/ and the next one to /**/
 			if (token.endsWith("\\")) {
 				preservedTokens.add("\\");
-				css = css.replace(placeholder, "___YUICSSMIN_PRESERVED_TOKEN_"
+				css = replace(css, placeholder, "___YUICSSMIN_PRESERVED_TOKEN_"
 						+ (preservedTokens.size() - 1) + "___");
 				i = i + 1; // attn: advancing the loop
 				preservedTokens.add("");
-				css = css.replace("___YUICSSMIN_PRESERVE_CANDIDATE_COMMENT_"
+				css = replace(css, "___YUICSSMIN_PRESERVE_CANDIDATE_COMMENT_"
 						+ i + "___", "___YUICSSMIN_PRESERVED_TOKEN_"
 						+ (preservedTokens.size() - 1) + "___");
 				continue;
@@ -132,7 +177,7 @@ public class CssCompressor {
 				if (startIndex > 2) {
 					if (css.charAt(startIndex - 3) == '>') {
 						preservedTokens.add("");
-						css = css.replace(placeholder,
+						css = replace(css, placeholder,
 								"___YUICSSMIN_PRESERVED_TOKEN_"
 										+ (preservedTokens.size() - 1) + "___");
 					}
@@ -140,99 +185,98 @@ public class CssCompressor {
 			}
 
 			// in all other cases kill the comment
-			css = css.replace("/*" + placeholder + "*/", "");
+			css = replace(css, "/*" + placeholder + "*/", "");
 		}
 
 		// Normalize all whitespace strings to single spaces. Easier to work
 		// with that way.
-		css = css.replaceAll("\\s+", " ");
+		css = WHITESPACES.matcher(css).replaceAll(" ");
 
 		// Remove the spaces before the things that should not have spaces
 		// before them.
 		// But, be careful not to turn "p :link {...}" into "p:link{...}"
 		// Swap out any pseudo-class colons with the token, and then swap back.
-		sb = new StringBuffer();
-		p = Pattern.compile("(^|\\})(([^\\{:])+:)+([^\\{]*\\{)");
-		m = p.matcher(css);
+		sb = new StringBuilder(css.length());
+		last = 0;
+		m = PSEUDO_CLASSES.matcher(css);
 		while (m.find()) {
-			String s = m.group();
-			s = s.replaceAll(":", "___YUICSSMIN_PSEUDOCLASSCOLON___");
-			s = s.replaceAll("\\\\", "\\\\\\\\").replaceAll("\\$", "\\\\\\$");
-			m.appendReplacement(sb, s);
+			sb.append(css, last, m.start()).append(
+					replace(m.group(), ":", "___YUICSSMIN_PSEUDOCLASSCOLON___"));
+			last = m.end();
 		}
-		m.appendTail(sb);
+		sb.append(css, last, css.length());
 		css = sb.toString();
 		// Remove spaces before the things that should not have spaces before
 		// them.
-		css = css.replaceAll("\\s+([!{};:>+\\(\\)\\],])", "$1");
+		css = SPACES_BEFORE.matcher(css).replaceAll("$1");
 		// bring back the colon
-		css = css.replaceAll("___YUICSSMIN_PSEUDOCLASSCOLON___", ":");
+		css = replace(css, "___YUICSSMIN_PSEUDOCLASSCOLON___", ":");
 
 		// retain space for special IE6 cases
-		css = css.replaceAll(":first\\-(line|letter)(\\{|,)", ":first-$1 $2");
+		css = FIRST_LINE_LETTER.matcher(css).replaceAll(":first-$1 $2");
 
 		// no space after the end of a preserved comment
-		css = css.replaceAll("\\*/ ", "*/");
+		css = replace(css, "*/ ", "*/");
 
 		// If there is a @charset, then only allow one, and push to the top of
 		// the file.
-		css = css.replaceAll("^(.*)(@charset \"[^\"]*\";)", "$2$1");
-		css = css.replaceAll("^(\\s*@charset [^;]+;\\s*)+", "$1");
+		css = CHARSET_FIRST.matcher(css).replaceAll("$2$1");
+		css = CHARSET_ONCE.matcher(css).replaceAll("$1");
 
 		// Put the space back in some cases, to support stuff like
 		// @media screen and (-webkit-min-device-pixel-ratio:0){
-		css = css.replaceAll("\\band\\(", "and (");
+		css = AND_PARENTHESIS.matcher(css).replaceAll("and (");
 
 		// Remove the spaces after the things that should not have spaces after
 		// them.
-		css = css.replaceAll("([!{}:;>+\\(\\[,])\\s+", "$1");
+		css = SPACES_AFTER.matcher(css).replaceAll("$1");
 
 		// remove unnecessary semicolons
-		css = css.replaceAll(";+}", "}");
+		css = SEMICOLONS_BEFORE_BRACE.matcher(css).replaceAll("}");
 
 		// Replace 0(px,em,%) with 0.
-		css = css.replaceAll("([\\s:])(0)(px|em|%|in|cm|mm|pc|pt|ex)", "$1$2");
+		css = ZERO_UNITS.matcher(css).replaceAll("$1$2");
 
 		// Replace 0 0 0 0; with 0.
-		css = css.replaceAll(":0 0 0 0(;|})", ":0$1");
-		css = css.replaceAll(":0 0 0(;|})", ":0$1");
-		css = css.replaceAll(":0 0(;|})", ":0$1");
+		css = FOUR_ZEROS.matcher(css).replaceAll(":0$1");
+		css = THREE_ZEROS.matcher(css).replaceAll(":0$1");
+		css = TWO_ZEROS.matcher(css).replaceAll(":0$1");
 
 		// Replace background-position:0; with background-position:0 0;
 		// same for transform-origin
-		sb = new StringBuffer();
-		p = Pattern
-				.compile("(?i)(background-position|transform-origin|webkit-transform-origin|moz-transform-origin|o-transform-origin|ms-transform-origin):0(;|})");
-		m = p.matcher(css);
+		sb = new StringBuilder(css.length());
+		last = 0;
+		m = ZERO_POSITION.matcher(css);
 		while (m.find()) {
-			m.appendReplacement(sb, m.group(1).toLowerCase() + ":0 0"
-					+ m.group(2));
+			sb.append(css, last, m.start()).append(m.group(1).toLowerCase())
+					.append(":0 0").append(m.group(2));
+			last = m.end();
 		}
-		m.appendTail(sb);
+		sb.append(css, last, css.length());
 		css = sb.toString();
 
 		// Replace 0.6 to .6, but only when preceded by : or a white-space
-		css = css.replaceAll("(:|\\s)0+\\.(\\d+)", "$1.$2");
+		css = LEADING_ZERO.matcher(css).replaceAll("$1.$2");
 
 		// Shorten colors from rgb(51,102,153) to #336699
 		// This makes it more likely that it'll get further compressed in the
 		// next step.
-		p = Pattern.compile("rgb\\s*\\(\\s*([0-9,\\s]+)\\s*\\)");
-		m = p.matcher(css);
-		sb = new StringBuffer();
+		sb = new StringBuilder(css.length());
+		last = 0;
+		m = RGB.matcher(css);
 		while (m.find()) {
 			String[] rgbcolors = m.group(1).split(",");
-			StringBuffer hexcolor = new StringBuffer("#");
+			sb.append(css, last, m.start()).append('#');
 			for (i = 0; i < rgbcolors.length; i++) {
 				int val = Integer.parseInt(rgbcolors[i]);
 				if (val < 16) {
-					hexcolor.append("0");
+					sb.append('0');
 				}
-				hexcolor.append(Integer.toHexString(val));
+				sb.append(Integer.toHexString(val));
 			}
-			m.appendReplacement(sb, hexcolor.toString());
+			last = m.end();
 		}
-		m.appendTail(sb);
+		sb.append(css, last, css.length());
 		css = sb.toString();
 
 		// Shorten colors from #AABBCC to #ABC. Note that we want to make sure
@@ -241,43 +285,41 @@ public class CssCompressor {
 		// would become
 		// filter: chroma(color="#FFF");
 		// which makes the filter break in IE.
-		p = Pattern
-				.compile("([^\"'=\\s])(\\s*)#([0-9a-fA-F])([0-9a-fA-F])([0-9a-fA-F])([0-9a-fA-F])([0-9a-fA-F])([0-9a-fA-F])");
-		m = p.matcher(css);
-		sb = new StringBuffer();
+		// (the first group can be a $ or a \, so the replacement is still
+		// interpreted by the matcher)
+		m = HEX_COLOR.matcher(css);
+		StringBuffer hexsb = new StringBuffer(css.length());
 		while (m.find()) {
 			// Test for AABBCC pattern
 			if (m.group(3).equalsIgnoreCase(m.group(4))
 					&& m.group(5).equalsIgnoreCase(m.group(6))
 					&& m.group(7).equalsIgnoreCase(m.group(8))) {
-				m.appendReplacement(sb, (m.group(1) + m.group(2) + "#"
+				m.appendReplacement(hexsb, (m.group(1) + m.group(2) + "#"
 						+ m.group(3) + m.group(5) + m.group(7)).toLowerCase());
 			} else {
-				m.appendReplacement(sb, m.group().toLowerCase());
+				m.appendReplacement(hexsb, m.group().toLowerCase());
 			}
 		}
-		m.appendTail(sb);
-		css = sb.toString();
+		m.appendTail(hexsb);
+		css = hexsb.toString();
 
 		// border: none -> border:0
-		sb = new StringBuffer();
-		p = Pattern
-				.compile("(?i)(border|border-top|border-right|border-bottom|border-right|outline|background):none(;|})");
-		m = p.matcher(css);
+		sb = new StringBuilder(css.length());
+		last = 0;
+		m = NONE.matcher(css);
 		while (m.find()) {
-			m.appendReplacement(sb, m.group(1).toLowerCase() + ":0"
-					+ m.group(2));
+			sb.append(css, last, m.start()).append(m.group(1).toLowerCase())
+					.append(":0").append(m.group(2));
+			last = m.end();
 		}
-		m.appendTail(sb);
+		sb.append(css, last, css.length());
 		css = sb.toString();
 
 		// shorter opacity IE filter
-		css = css.replaceAll(
-				"(?i)progid:DXImageTransform.Microsoft.Alpha\\(Opacity=",
-				"alpha(opacity=");
+		css = ALPHA_OPACITY.matcher(css).replaceAll("alpha(opacity=");
 
 		// Remove empty rules.
-		css = css.replaceAll("[^\\}\\{/;]+\\{\\}", "");
+		css = EMPTY_RULES.matcher(css).replaceAll("");
 
 		if (linebreakpos >= 0) {
 			// Some source control tools don't like it when files containing
@@ -287,7 +329,7 @@ public class CssCompressor {
 			// that case to split long lines after a specific column.
 			i = 0;
 			int linestartpos = 0;
-			sb = new StringBuffer(css);
+			sb = new StringBuilder(css);
 			while (i < sb.length()) {
 				char c = sb.charAt(i++);
 				if (c == '}' && i - linestartpos > linebreakpos) {
@@ -301,18 +343,36 @@ public class CssCompressor {
 
 		// Replace multiple semi-colons in a row by a single one
 		// See SF bug #1980989
-		css = css.replaceAll(";;+", ";");
+		css = SEMICOLONS.matcher(css).replaceAll(";");
 
 		// restore preserved comments and strings
 		for (i = 0, max = preservedTokens.size(); i < max; i++) {
-			css = css.replace("___YUICSSMIN_PRESERVED_TOKEN_" + i + "___",
-					preservedTokens.get(i).toString());
+			css = replace(css, "___YUICSSMIN_PRESERVED_TOKEN_" + i + "___",
+					preservedTokens.get(i));
 		}
 
 		// Trim the final string (for any leading or trailing white spaces)
-		css = css.trim();
+		return css.trim();
+	}
 
-		// Write the output...
-		out.write(css);
+	/**
+	 * Same as {@link String#replace(CharSequence, CharSequence)}, without
+	 * compiling a pattern for each call.
+	 */
+	private static String replace(String s, String target, String replacement) {
+		int index = s.indexOf(target);
+		if (index < 0) {
+			return s;
+		}
+
+		StringBuilder sb = new StringBuilder(s.length());
+		int last = 0;
+		do {
+			sb.append(s, last, index).append(replacement);
+			last = index + target.length();
+			index = s.indexOf(target, last);
+		} while (index >= 0);
+
+		return sb.append(s, last, s.length()).toString();
 	}
 }
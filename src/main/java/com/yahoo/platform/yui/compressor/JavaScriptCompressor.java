@@ -12,11 +12,10 @@ import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Hashtable;
 import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
 import java.util.StringTokenizer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -35,7 +34,10 @@ public class JavaScriptCompressor {
 	static final ArrayList<String> threes;
 
 	static final Set<String> builtin = new HashSet<String>();
-	static final Map<Integer, String> literals = new Hashtable<Integer, String>();
+	/** Printed form of the token types, indexed by type */
+	static final String[] literals = new String[Token1.LAST_TOKEN + 1];
+	/** Shared tokens of the literal types, indexed by type */
+	private static final JavaScriptToken[] literalTokens = new JavaScriptToken[Token1.LAST_TOKEN + 1];
 	static final Set<String> reserved = new HashSet<String>();
 
 	static {
@@ -96,92 +98,92 @@ public class JavaScriptCompressor {
 
 		// The following list comes from
 		// org/mozilla/javascript/Decompiler.java...
-		literals.put(new Integer(Token1.GET), "get ");
-		literals.put(new Integer(Token1.SET), "set ");
-		literals.put(new Integer(Token1.TRUE), "true");
-		literals.put(new Integer(Token1.FALSE), "false");
-		literals.put(new Integer(Token1.NULL), "null");
-		literals.put(new Integer(Token1.THIS), "this");
-		literals.put(new Integer(Token1.FUNCTION), "function");
-		literals.put(new Integer(Token1.COMMA), ",");
-		literals.put(new Integer(Token1.LC), "{");
-		literals.put(new Integer(Token1.RC), "}");
-		literals.put(new Integer(Token1.LP), "(");
-		literals.put(new Integer(Token1.RP), ")");
-		literals.put(new Integer(Token1.LB), "[");
-		literals.put(new Integer(Token1.RB), "]");
-		literals.put(new Integer(Token1.DOT), ".");
-		literals.put(new Integer(Token1.NEW), "new ");
-		literals.put(new Integer(Token1.DELPROP), "delete ");
-		literals.put(new Integer(Token1.IF), "if");
-		literals.put(new Integer(Token1.ELSE), "else");
-		literals.put(new Integer(Token1.FOR), "for");
-		literals.put(new Integer(Token1.IN), " in ");
-		literals.put(new Integer(Token1.WITH), "with");
-		literals.put(new Integer(Token1.WHILE), "while");
-		literals.put(new Integer(Token1.DO), "do");
-		literals.put(new Integer(Token1.TRY), "try");
-		literals.put(new Integer(Token1.CATCH), "catch");
-		literals.put(new Integer(Token1.FINALLY), "finally");
-		literals.put(new Integer(Token1.THROW), "throw");
-		literals.put(new Integer(Token1.SWITCH), "switch");
-		literals.put(new Integer(Token1.BREAK), "break");
-		literals.put(new Integer(Token1.CONTINUE), "continue");
-		literals.put(new Integer(Token1.CASE), "case");
-		literals.put(new Integer(Token1.DEFAULT), "default");
-		literals.put(new Integer(Token1.RETURN), "return");
-		literals.put(new Integer(Token1.VAR), "var ");
-		literals.put(new Integer(Token1.SEMI), ";");
-		literals.put(new Integer(Token1.ASSIGN), "=");
-		literals.put(new Integer(Token1.ASSIGN_ADD), "+=");
-		literals.put(new Integer(Token1.ASSIGN_SUB), "-=");
-		literals.put(new Integer(Token1.ASSIGN_MUL), "*=");
-		literals.put(new Integer(Token1.ASSIGN_DIV), "/=");
-		literals.put(new Integer(Token1.ASSIGN_MOD), "%=");
-		literals.put(new Integer(Token1.ASSIGN_BITOR), "|=");
-		literals.put(new Integer(Token1.ASSIGN_BITXOR), "^=");
-		literals.put(new Integer(Token1.ASSIGN_BITAND), "&=");
-		literals.put(new Integer(Token1.ASSIGN_LSH), "<<=");
-		literals.put(new Integer(Token1.ASSIGN_RSH), ">>=");
-		literals.put(new Integer(Token1.ASSIGN_URSH), ">>>=");
-		literals.put(new Integer(Token1.HOOK), "?");
-		literals.put(new Integer(Token1.OBJECTLIT), ":");
-		literals.put(new Integer(Token1.COLON), ":");
-		literals.put(new Integer(Token1.OR), "||");
-		literals.put(new Integer(Token1.AND), "&&");
-		literals.put(new Integer(Token1.BITOR), "|");
-		literals.put(new Integer(Token1.BITXOR), "^");
-		literals.put(new Integer(Token1.BITAND), "&");
-		literals.put(new Integer(Token1.SHEQ), "===");
-		literals.put(new Integer(Token1.SHNE), "!==");
-		literals.put(new Integer(Token1.EQ), "==");
-		literals.put(new Integer(Token1.NE), "!=");
-		literals.put(new Integer(Token1.LE), "<=");
-		literals.put(new Integer(Token1.LT), "<");
-		literals.put(new Integer(Token1.GE), ">=");
-		literals.put(new Integer(Token1.GT), ">");
-		literals.put(new Integer(Token1.INSTANCEOF), " instanceof ");
-		literals.put(new Integer(Token1.LSH), "<<");
-		literals.put(new Integer(Token1.RSH), ">>");
-		literals.put(new Integer(Token1.URSH), ">>>");
-		literals.put(new Integer(Token1.TYPEOF), "typeof");
-		literals.put(new Integer(Token1.VOID), "void ");
-		literals.put(new Integer(Token1.CONST), "const ");
-		literals.put(new Integer(Token1.NOT), "!");
-		literals.put(new Integer(Token1.BITNOT), "~");
-		literals.put(new Integer(Token1.POS), "+");
-		literals.put(new Integer(Token1.NEG), "-");
-		literals.put(new Integer(Token1.INC), "++");
-		literals.put(new Integer(Token1.DEC), "--");
-		literals.put(new Integer(Token1.ADD), "+");
-		literals.put(new Integer(Token1.SUB), "-");
-		literals.put(new Integer(Token1.MUL), "*");
-		literals.put(new Integer(Token1.DIV), "/");
-		literals.put(new Integer(Token1.MOD), "%");
-		literals.put(new Integer(Token1.COLONCOLON), "::");
-		literals.put(new Integer(Token1.DOTDOT), "..");
-		literals.put(new Integer(Token1.DOTQUERY), ".(");
-		literals.put(new Integer(Token1.XMLATTR), "@");
+		literal(Token1.GET, "get ");
+		literal(Token1.SET, "set ");
+		literal(Token1.TRUE, "true");
+		literal(Token1.FALSE, "false");
+		literal(Token1.NULL, "null");
+		literal(Token1.THIS, "this");
+		literal(Token1.FUNCTION, "function");
+		literal(Token1.COMMA, ",");
+		literal(Token1.LC, "{");
+		literal(Token1.RC, "}");
+		literal(Token1.LP, "(");
+		literal(Token1.RP, ")");
+		literal(Token1.LB, "[");
+		literal(Token1.RB, "]");
+		literal(Token1.DOT, ".");
+		literal(Token1.NEW, "new ");
+		literal(Token1.DELPROP, "delete ");
+		literal(Token1.IF, "if");
+		literal(Token1.ELSE, "else");
+		literal(Token1.FOR, "for");
+		literal(Token1.IN, " in ");
+		literal(Token1.WITH, "with");
+		literal(Token1.WHILE, "while");
+		literal(Token1.DO, "do");
+		literal(Token1.TRY, "try");
+		literal(Token1.CATCH, "catch");
+		literal(Token1.FINALLY, "finally");
+		literal(Token1.THROW, "throw");
+		literal(Token1.SWITCH, "switch");
+		literal(Token1.BREAK, "break");
+		literal(Token1.CONTINUE, "continue");
+		literal(Token1.CASE, "case");
+		literal(Token1.DEFAULT, "default");
+		literal(Token1.RETURN, "return");
+		literal(Token1.VAR, "var ");
+		literal(Token1.SEMI, ";");
+		literal(Token1.ASSIGN, "=");
+		literal(Token1.ASSIGN_ADD, "+=");
+		literal(Token1.ASSIGN_SUB, "-=");
+		literal(Token1.ASSIGN_MUL, "*=");
+		literal(Token1.ASSIGN_DIV, "/=");
+		literal(Token1.ASSIGN_MOD, "%=");
+		literal(Token1.ASSIGN_BITOR, "|=");
+		literal(Token1.ASSIGN_BITXOR, "^=");
+		literal(Token1.ASSIGN_BITAND, "&=");
+		literal(Token1.ASSIGN_LSH, "<<=");
+		literal(Token1.ASSIGN_RSH, ">>=");
+		literal(Token1.ASSIGN_URSH, ">>>=");
+		literal(Token1.HOOK, "?");
+		literal(Token1.OBJECTLIT, ":");
+		literal(Token1.COLON, ":");
+		literal(Token1.OR, "||");
+		literal(Token1.AND, "&&");
+		literal(Token1.BITOR, "|");
+		literal(Token1.BITXOR, "^");
+		literal(Token1.BITAND, "&");
+		literal(Token1.SHEQ, "===");
+		literal(Token1.SHNE, "!==");
+		literal(Token1.EQ, "==");
+		literal(Token1.NE, "!=");
+		literal(Token1.LE, "<=");
+		literal(Token1.LT, "<");
+		literal(Token1.GE, ">=");
+		literal(Token1.GT, ">");
+		literal(Token1.INSTANCEOF, " instanceof ");
+		literal(Token1.LSH, "<<");
+		literal(Token1.RSH, ">>");
+		literal(Token1.URSH, ">>>");
+		literal(Token1.TYPEOF, "typeof");
+		literal(Token1.VOID, "void ");
+		literal(Token1.CONST, "const ");
+		literal(Token1.NOT, "!");
+		literal(Token1.BITNOT, "~");
+		literal(Token1.POS, "+");
+		literal(Token1.NEG, "-");
+		literal(Token1.INC, "++");
+		literal(Token1.DEC, "--");
+		literal(Token1.ADD, "+");
+		literal(Token1.SUB, "-");
+		literal(Token1.MUL, "*");
+		literal(Token1.DIV, "/");
+		literal(Token1.MOD, "%");
+		literal(Token1.COLONCOLON, "::");
+		literal(Token1.DOTDOT, "..");
+		literal(Token1.DOTQUERY, ".(");
+		literal(Token1.XMLATTR, "@");
 
 		// See
 		// http://developer.mozilla.org/en/docs/Core_JavaScript_1.5_Reference:Reserved_Words
@@ -256,6 +258,19 @@ public class JavaScriptCompressor {
 		reserved.add("undefined");
 	}
 
+	private static void literal(final int type, final String literal) {
+		literals[type] = literal;
+		literalTokens[type] = new JavaScriptToken(type, literal);
+	}
+
+	/*
+	 * Returns the printed form of the given token type, or null if it doesn't
+	 * have one.
+	 */
+	static String literal(final int type) {
+		return type >= 0 && type < literals.length ? literals[type] : null;
+	}
+
 	private static int countChar(final String haystack, final char needle) {
 		int idx = 0;
 		int count = 0;
@@ -269,23 +284,8 @@ public class JavaScriptCompressor {
 		return count;
 	}
 
-	private static int printSourceString(final String source, int offset,
-			final StringBuffer sb) {
-		int length = source.charAt(offset);
-		++offset;
-		if ((0x8000 & length) != 0) {
-			length = ((0x7FFF & length) << 16) | source.charAt(offset);
-			++offset;
-		}
-		if (sb != null) {
-			final String str = source.substring(offset, offset + length);
-			sb.append(str);
-		}
-		return offset + length;
-	}
-
 	private static int printSourceNumber(final String source, int offset,
-			final StringBuffer sb) {
+			final StringBuilder sb) {
 		double number = 0.0;
 		final char type = source.charAt(offset);
 		++offset;
@@ -330,7 +330,9 @@ public class JavaScriptCompressor {
 		int offset = 0;
 		final int length = source.length();
 		final ArrayList<JavaScriptToken> tokens = new ArrayList<JavaScriptToken>();
-		final StringBuffer sb = new StringBuffer();
+		final StringBuilder sb = new StringBuilder();
+		// The same names come over and over again, share their tokens
+		final Map<String, JavaScriptToken> names = new HashMap<String, JavaScriptToken>();
 
 		while (offset < length) {
 			final int tt = source.charAt(offset++);
@@ -341,9 +343,26 @@ public class JavaScriptCompressor {
 			case Token1.NAME:
 			case Token1.REGEXP:
 			case Token1.STRING:
-				sb.setLength(0);
-				offset = printSourceString(source, offset, sb);
-				tokens.add(new JavaScriptToken(tt, sb.toString()));
+				int start = offset;
+				int stringLength = source.charAt(start++);
+				if ((0x8000 & stringLength) != 0) {
+					stringLength = ((0x7FFF & stringLength) << 16)
+							| source.charAt(start++);
+				}
+				final int end = start + stringLength;
+				offset = end;
+				if (tt == Token1.NAME) {
+					final String name = source.substring(start, end);
+					JavaScriptToken token = names.get(name);
+					if (token == null) {
+						token = new JavaScriptToken(tt, name);
+						names.put(name, token);
+					}
+					tokens.add(token);
+				} else {
+					tokens.add(new JavaScriptToken(tt, source.substring(start,
+							end)));
+				}
 				break;
 
 			case Token1.NUMBER:
@@ -353,9 +372,10 @@ public class JavaScriptCompressor {
 				break;
 
 			default:
-				final String literal = (String) literals.get(new Integer(tt));
-				if (literal != null) {
-					tokens.add(new JavaScriptToken(tt, literal));
+				final JavaScriptToken token = tt < literalTokens.length ? literalTokens[tt]
+						: null;
+				if (token != null) {
+					tokens.add(token);
 				}
 				break;
 			}
@@ -452,15 +472,15 @@ public class JavaScriptCompressor {
 
 		assert quotechar == '"' || quotechar == '\'';
 
-		if (s == null) {
-			return null;
+		if (s == null || s.indexOf(quotechar) < 0) {
+			return s;
 		}
 
-		final StringBuffer sb = new StringBuffer();
+		final StringBuilder sb = new StringBuilder(s.length() + 8);
 		for (int i = 0, L = s.length(); i < L; i++) {
 			final int c = s.charAt(i);
 			if (c == quotechar) {
-				sb.append("\\");
+				sb.append('\\');
 			}
 			sb.append((char) c);
 		}
@@ -504,7 +524,7 @@ public class JavaScriptCompressor {
 				tv = token.getValue();
 				tv = tv.substring(1, tv.length() - 1);
 				if (isValidIdentifier(tv)) {
-					tokens.set(i, new JavaScriptToken(Token1.DOT, "."));
+					tokens.set(i, literalTokens[Token1.DOT]);
 					tokens.set(i + 1, new JavaScriptToken(Token1.NAME, tv));
 					tokens.remove(i + 2);
 					i = i + 2;
@@ -550,9 +570,10 @@ public class JavaScriptCompressor {
 	private int offset;
 	private int braceNesting;
 	private ArrayList<JavaScriptToken> tokens;
-	private Stack<ScriptOrFnScope> scopes = new Stack<ScriptOrFnScope>();
+	private ArrayList<ScriptOrFnScope> scopes = new ArrayList<ScriptOrFnScope>();
 	private ScriptOrFnScope globalScope = new ScriptOrFnScope(-1, null);
-	private Hashtable<Integer, ScriptOrFnScope> indexedScopes = new Hashtable<Integer, ScriptOrFnScope>();
+	// Function scopes, indexed by the offset of their opening parenthesis
+	private ScriptOrFnScope[] indexedScopes;
 
 	public JavaScriptCompressor(final Reader in, final ErrorReporter reporter)
 			throws IOException, EvaluatorException {
@@ -580,22 +601,22 @@ public class JavaScriptCompressor {
 		// DO NOT TOUCH this.tokens BETWEEN THESE TWO PHASES (BECAUSE OF
 		// this.indexedScopes)
 		mungeSymboltree();
-		final StringBuffer sb = printSymbolTree(linebreak,
+		final StringBuilder sb = printSymbolTree(linebreak,
 				preserveAllSemiColons);
 
 		out.write(sb.toString());
 	}
 
 	private ScriptOrFnScope getCurrentScope() {
-		return (ScriptOrFnScope) scopes.peek();
+		return scopes.get(scopes.size() - 1);
 	}
 
 	private void enterScope(final ScriptOrFnScope scope) {
-		scopes.push(scope);
+		scopes.add(scope);
 	}
 
 	private void leaveCurrentScope() {
-		scopes.pop();
+		scopes.remove(scopes.size() - 1);
 	}
 
 	private JavaScriptToken consumeToken() {
@@ -649,7 +670,7 @@ public class JavaScriptCompressor {
 
 	private String getDebugString(final int max) {
 		assert max > 0;
-		final StringBuffer result = new StringBuffer();
+		final StringBuilder result = new StringBuilder();
 		final int start = Math.max(offset - max, 0);
 		final int end = Math.min(offset + max, tokens.size());
 		for (int i = start; i < end; i++) {
@@ -704,9 +725,9 @@ public class JavaScriptCompressor {
 		assert token.getType() == Token1.LP;
 		if (mode == BUILDING_SYMBOL_TREE) {
 			fnScope = new ScriptOrFnScope(braceNesting, currentScope);
-			indexedScopes.put(new Integer(offset), fnScope);
+			indexedScopes[offset] = fnScope;
 		} else {
-			fnScope = (ScriptOrFnScope) indexedScopes.get(new Integer(offset));
+			fnScope = indexedScopes[offset];
 		}
 
 		// Parse function arguments.
@@ -1115,8 +1136,8 @@ public class JavaScriptCompressor {
 		offset = 0;
 		braceNesting = 0;
 		scopes.clear();
-		indexedScopes.clear();
-		indexedScopes.put(new Integer(0), globalScope);
+		indexedScopes = new ScriptOrFnScope[tokens.size() + 1];
+		indexedScopes[0] = globalScope;
 		mode = BUILDING_SYMBOL_TREE;
 		parseScope(globalScope);
 	}
@@ -1156,7 +1177,7 @@ public class JavaScriptCompressor {
 		globalScope.munge();
 	}
 
-	private StringBuffer printSymbolTree(final int linebreakpos,
+	private StringBuilder printSymbolTree(final int linebreakpos,
 			final boolean preserveAllSemiColons) throws IOException {
 
 		offset = 0;
@@ -1169,7 +1190,7 @@ public class JavaScriptCompressor {
 		JavaScriptIdentifier identifier;
 
 		final int length = tokens.size();
-		final StringBuffer result = new StringBuffer();
+		final StringBuilder result = new StringBuilder();
 
 		int linestartpos = 0;
 
@@ -1221,8 +1242,7 @@ public class JavaScriptCompressor {
 
 			case Token1.ADD:
 			case Token1.SUB:
-				result.append((String) literals
-						.get(new Integer(token.getType())));
+				result.append(literal(token.getType()));
 				if (offset < length) {
 					token = getToken(0);
 					if (token.getType() == Token1.INC
@@ -1272,8 +1292,7 @@ public class JavaScriptCompressor {
 				}
 				assert token.getType() == Token1.LP;
 				result.append('(');
-				currentScope = (ScriptOrFnScope) indexedScopes.get(new Integer(
-						offset));
+				currentScope = indexedScopes[offset];
 				enterScope(currentScope);
 				while ((token = consumeToken()).getType() != Token1.RP) {
 					assert token.getType() == Token1.NAME
@@ -1307,7 +1326,7 @@ public class JavaScriptCompressor {
 
 			case Token1.RETURN:
 			case Token1.TYPEOF:
-				result.append(literals.get(new Integer(token.getType())));
+				result.append(literal(token.getType()));
 				// No space needed after 'return' and 'typeof' when followed
 				// by '(', '[', '{', a string or a regexp.
 				if (offset < length) {
@@ -1325,7 +1344,7 @@ public class JavaScriptCompressor {
 
 			case Token1.CASE:
 			case Token1.THROW:
-				result.append(literals.get(new Integer(token.getType())));
+				result.append(literal(token.getType()));
 				// White-space needed after 'case' and 'throw' when not followed
 				// by a string.
 				if (offset < length && getToken(0).getType() != Token1.STRING) {
@@ -1335,7 +1354,7 @@ public class JavaScriptCompressor {
 
 			case Token1.BREAK:
 			case Token1.CONTINUE:
-				result.append(literals.get(new Integer(token.getType())));
+				result.append(literal(token.getType()));
 				if (offset < length && getToken(0).getType() != Token1.SEMI) {
 					// If 'break' or 'continue' is not followed by a semi-colon,
 					// it must
@@ -1390,8 +1409,7 @@ public class JavaScriptCompressor {
 			// break;
 
 			default:
-				final String literal = (String) literals.get(new Integer(token
-						.getType()));
+				final String literal = literal(token.getType());
 				if (literal != null) {
 					result.append(literal);
 				} else {
@@ -10,8 +10,8 @@ package com.yahoo.platform.yui.compressor;
 
 public class JavaScriptToken {
 
-    private int type;
-    private String value;
+    private final int type;
+    private final String value;
 
     JavaScriptToken(int type, String value) {
         this.type = type;
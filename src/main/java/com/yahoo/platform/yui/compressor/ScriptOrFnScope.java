@@ -9,16 +9,21 @@
 package com.yahoo.platform.yui.compressor;
 
 import java.util.ArrayList;
-import java.util.Enumeration;
-import java.util.Hashtable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 class ScriptOrFnScope {
 
 	private int braceNesting;
 	private ScriptOrFnScope parentScope;
 	private ArrayList<ScriptOrFnScope> subScopes;
-	private Hashtable<String, JavaScriptIdentifier> identifiers = new Hashtable<String, JavaScriptIdentifier>();
-	private Hashtable<String, String> hints = new Hashtable<String, String>();
+	// Kept in declaration order, so the munged names don't depend on hashing
+	private Map<String, JavaScriptIdentifier> identifiers = new LinkedHashMap<String, JavaScriptIdentifier>();
+	private Map<String, String> hints = new HashMap<String, String>();
 	private boolean markedForMunging = true;
 	private int varcount = 0;
 
@@ -49,7 +54,7 @@ class ScriptOrFnScope {
 	}
 
 	JavaScriptIdentifier getIdentifier(String symbol) {
-		return (JavaScriptIdentifier) identifiers.get(symbol);
+		return identifiers.get(symbol);
 	}
 
 	void addHint(String variableName, String variableType) {
@@ -64,26 +69,21 @@ class ScriptOrFnScope {
 		}
 	}
 
-	private ArrayList<String> getUsedSymbols() {
-		ArrayList<String> result = new ArrayList<String>();
-		Enumeration<JavaScriptIdentifier> elements = identifiers.elements();
-		while (elements.hasMoreElements()) {
-			JavaScriptIdentifier identifier = (JavaScriptIdentifier) elements
-					.nextElement();
+	private void addUsedSymbols(Set<String> result) {
+		for (JavaScriptIdentifier identifier : identifiers.values()) {
 			String mungedValue = identifier.getMungedValue();
 			if (mungedValue == null) {
 				mungedValue = identifier.getValue();
 			}
 			result.add(mungedValue);
 		}
-		return result;
 	}
 
-	private ArrayList<String> getAllUsedSymbols() {
-		ArrayList<String> result = new ArrayList<String>();
+	private Set<String> getAllUsedSymbols() {
+		Set<String> result = new HashSet<String>();
 		ScriptOrFnScope scope = this;
 		while (scope != null) {
-			result.addAll(scope.getUsedSymbols());
+			scope.addUsedSymbols(result);
 			scope = scope.parentScope;
 		}
 		return result;
@@ -125,8 +125,9 @@ class ScriptOrFnScope {
 						"The YUI Compressor ran out of symbols. Aborting...");
 			}
 
-			Enumeration<JavaScriptIdentifier> elements = identifiers.elements();
-			while (elements.hasMoreElements()) {
+			Iterator<JavaScriptIdentifier> elements = identifiers.values()
+					.iterator();
+			while (elements.hasNext()) {
 				if (freeSymbols.size() == 0) {
 					pickFromSet++;
 					if (pickFromSet == 2) {
@@ -145,7 +146,7 @@ class ScriptOrFnScope {
 				}
 
 				String mungedValue;
-				JavaScriptIdentifier identifier = elements.nextElement();
+				JavaScriptIdentifier identifier = elements.next();
 				if (identifier.isMarkedForMunging()) {
 					mungedValue = freeSymbols.remove(0);
 				} else {
@@ -156,7 +157,7 @@ class ScriptOrFnScope {
 		}
 
 		for (int i = 0; i < subScopes.size(); i++) {
-			ScriptOrFnScope scope = (ScriptOrFnScope) subScopes.get(i);
+			ScriptOrFnScope scope = subScopes.get(i);
 			scope.munge();
 		}
 	}
@@ -27,7 +27,6 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.apache.wicket.Component;
-import org.apache.wicket.Component.IVisitor;
 import org.apache.wicket.MetaDataKey;
 import org.apache.wicket.Page;
 import org.apache.wicket.RequestCycle;
@@ -67,34 +66,6 @@ import org.odlabs.wiquery.core.javascript.JsStatement;
  */
 public class WiQueryCoreHeaderContributor implements Serializable,
 		IHeaderContributor {
-	private static class WiQueryPluginCollector implements IVisitor<Component> {
-		private List<IWiQueryPlugin> plugins = new ArrayList<IWiQueryPlugin>();
-
-		private WiQueryPluginCollector() {
-		}
-
-		public List<IWiQueryPlugin> getPlugins() {
-			return plugins;
-		}
-
-		public Object component(Component component) {
-			if (component.determineVisibility()) {
-				if (component instanceof IWiQueryPlugin) {
-					plugins.add((IWiQueryPlugin) component);
-				}
-				for (IBehavior behavior : component.getBehaviors()) {
-					if (behavior instanceof IWiQueryPlugin
-							&& behavior.isEnabled(component)) {
-						plugins.add((IWiQueryPlugin) behavior);
-					}
-				}
-				return CONTINUE_TRAVERSAL;
-			} else {
-				return CONTINUE_TRAVERSAL_BUT_DONT_GO_DEEPER;
-			}
-		}
-	}
-
 	// Constants
 	/** Constant of serialization */
 	private static final long serialVersionUID = -347081993448442637L;
@@ -154,8 +125,7 @@ public class WiQueryCoreHeaderContributor implements Serializable,
 
 			WiQueryPluginCollector visitor = new WiQueryPluginCollector();
 			if (page != null) {
-				page.visitChildren(visitor);
-				visitor.component(page);
+				visitor.collect(page);
 			}
 
 			WiQueryHeaderResponse wiQueryHeaderResponse;
@@ -179,12 +149,21 @@ public class WiQueryCoreHeaderContributor implements Serializable,
 
 			WiQueryResourceManager manager = new WiQueryResourceManager();
 
-			JsStatement jsStatement = new JsStatement();
+			// the statements of all the plugins are rendered into one buffer
+			StringBuilder statements = new StringBuilder(visitor.getPlugins()
+					.size() * 64);
+			WiQueryStatementGrouper grouper = settings
+					.isGroupIdenticalStatements() ? new WiQueryStatementGrouper()
+					: null;
 			for (IWiQueryPlugin plugin : visitor.getPlugins()) {
 				JsStatement tempStatement = plugin.statement();
 
-				if (tempStatement != null) {
-					jsStatement.append("\t" + tempStatement.render() + "\n");
+				if (tempStatement != null && grouper != null) {
+					grouper.add(tempStatement.render());
+				} else if (tempStatement != null) {
+					statements.append('\t');
+					tempStatement.render(statements);
+					statements.append('\n');
 				}
 
 				// calling listeners to compute specific stuff
@@ -194,14 +173,16 @@ public class WiQueryCoreHeaderContributor implements Serializable,
 
 				plugin.contribute(manager);
 			}
+			if (grouper != null) {
+				grouper.render(statements);
+			}
 
 			initializeResourceManager(headerResponse, manager);
 
 			mergeResources(response, settings, wiQueryHeaderResponse);
 
-			JsQuery jsq = new JsQuery();
-			jsq.setStatement(jsStatement);
-			jsq.renderHead(response, RequestCycle.get().getRequestTarget());
+			JsQuery.renderHead(response, RequestCycle.get().getRequestTarget(),
+					statements);
 		}
 	}
 
@@ -264,9 +245,10 @@ public class WiQueryCoreHeaderContributor implements Serializable,
 			WiQueryResourceManager manager, IHeaderResponse headerResponse) {
 		JsStatement statement = plugin.statement();
 		if (statement != null) {
-			JsQuery jsq = new JsQuery();
-			jsq.setStatement(statement.append("\n"));
-			jsq.renderHead(response, ajaxRequestTarget);
+			StringBuilder statements = new StringBuilder();
+			statement.render(statements);
+			JsQuery.renderHead(response, ajaxRequestTarget, statements
+					.append('\n'));
 		}
 		for (WiQueryPluginRenderingListener listener : pluginRenderingListeners) {
 			listener.onRender(plugin, manager, headerResponse);
@@ -29,9 +29,11 @@ import java.util.List;
 import java.util.Properties;
 
 import org.apache.wicket.Application;
+import org.apache.wicket.IDestroyer;
 import org.apache.wicket.IInitializer;
 import org.apache.wicket.MetaDataKey;
 import org.apache.wicket.util.lang.Objects;
+import org.odlabs.wiquery.core.commons.merge.WiQueryMergedResourceCompressor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,13 +41,14 @@ import org.slf4j.LoggerFactory;
  * $Id: WiQueryInitializer.java 563 2010-11-21 20:50:37Z roche.jul@gmail.com $
  * 
  * <p>
- * {@link IInitializer} to retrieve settings for wiQuery
+ * {@link IInitializer} to retrieve settings for wiQuery, and
+ * {@link IDestroyer} to release the threads it may have started
  * </p>
  * 
  * @author Julien Roche
  * @since 1.1
  */
-public class WiQueryInitializer implements IInitializer {
+public class WiQueryInitializer implements IInitializer, IDestroyer {
     /**
      * Meta data for {@link WiQueryInstantiationListener}.
      */
@@ -56,6 +59,9 @@ public class WiQueryInitializer implements IInitializer {
     /** Logger */
     private static final Logger LOGGER = LoggerFactory.getLogger(WiQueryInitializer.class);
 
+    /** The warm-up of the resources, if it has been started */
+    private Thread warmUp;
+
     /**
      * {@inheritDoc}
      * 
@@ -71,6 +77,30 @@ public class WiQueryInitializer implements IInitializer {
 
         // IWiQueryInitializer treatments
         retrieveAndCallInitializers(application, settings);
+
+        if (settings != null && settings.isWarmUpResources()) {
+            warmUp = WiQueryResourceWarmUp.start(application);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @see org.apache.wicket.IDestroyer#destroy(org.apache.wicket.Application)
+     */
+    public void destroy(Application application) {
+        if (warmUp != null) {
+            // the warm-up mustn't go on with the destroyed application
+            warmUp.interrupt();
+            try {
+                warmUp.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            warmUp = null;
+        }
+
+        WiQueryMergedResourceCompressor.shutdown(application);
     }
 
     private IWiQueryInitializer getIWiQueryInitializer(String className) {
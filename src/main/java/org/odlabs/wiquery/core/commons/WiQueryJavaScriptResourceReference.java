@@ -1,7 +1,9 @@
 package org.odlabs.wiquery.core.commons;
 
+import org.apache.wicket.Resource;
 import org.apache.wicket.ResourceReference;
 import org.apache.wicket.markup.html.resources.CompressedResourceReference;
+import org.odlabs.wiquery.core.commons.compressed.PrecompressedPackageResource;
 
 /**
  * <p>
@@ -48,4 +50,15 @@ public class WiQueryJavaScriptResourceReference extends
 	public static boolean isMinifiedJavascript() {
 		return WiQuerySettings.get().isMinifiedResources();
 	}
+
+	/**
+	 * Serves the gzipped version prepared at build time when it exists.
+	 * 
+	 * @see org.apache.wicket.markup.html.resources.CompressedResourceReference#newResource()
+	 * @see PrecompressedPackageResource#newPackageResource(ResourceReference)
+	 */
+	@Override
+	protected Resource newResource() {
+		return PrecompressedPackageResource.newPackageResource(this);
+	}
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.Component.IVisitor;
+import org.apache.wicket.MarkupContainer;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.Page;
+import org.apache.wicket.RequestCycle;
+import org.apache.wicket.behavior.IBehavior;
+
+/**
+ * <p>
+ * Collects the {@link IWiQueryPlugin}s of a page, e.g. the plugin components
+ * and behaviors of the visible components.
+ * </p>
+ * <p>
+ * The {@link WiQueryRenderingListener} registers the components holding
+ * plugins into the collector of the current request while they are prepared
+ * for render, so the page doesn't have to be visited to find them. Without
+ * registered components, the collector is used as a visitor of the page.
+ * </p>
+ * 
+ * @since 1.2.5
+ */
+class WiQueryPluginCollector implements IVisitor<Component> {
+	/**
+	 * Meta data of the request holding the registered components.
+	 */
+	private static final MetaDataKey<Set<Component>> WIQUERY_PLUGIN_COMPONENTS = new MetaDataKey<Set<Component>>() {
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * Registers a component holding plugins, prepared for render in the
+	 * current request.
+	 * 
+	 * @param component
+	 */
+	static void register(Component component) {
+		RequestCycle requestCycle = RequestCycle.get();
+		if (requestCycle == null) {
+			return;
+		}
+
+		Set<Component> components = requestCycle
+				.getMetaData(WIQUERY_PLUGIN_COMPONENTS);
+		if (components == null) {
+			components = new LinkedHashSet<Component>();
+			requestCycle.setMetaData(WIQUERY_PLUGIN_COMPONENTS, components);
+		}
+		components.add(component);
+	}
+
+	private List<IWiQueryPlugin> plugins = new ArrayList<IWiQueryPlugin>();
+
+	WiQueryPluginCollector() {
+	}
+
+	public List<IWiQueryPlugin> getPlugins() {
+		return plugins;
+	}
+
+	/**
+	 * Collects the plugins of the given page, in the order of the page
+	 * hierarchy (the page itself comes last).
+	 * 
+	 * @param page
+	 */
+	void collect(Page page) {
+		Set<Component> components = RequestCycle.get().getMetaData(
+				WIQUERY_PLUGIN_COMPONENTS);
+
+		if (components == null) {
+			page.visitChildren(this);
+			component(page);
+			return;
+		}
+
+		// the components are registered after their children, while the
+		// plugins are rendered before the plugins of the children
+		List<Component> ordered = new ArrayList<Component>(components.size());
+		for (Component component : components) {
+			if (component == page || component.findParent(Page.class) != page
+					|| !component.isVisibleInHierarchy()) {
+				continue;
+			}
+
+			int index = ordered.size();
+			if (component instanceof MarkupContainer) {
+				while (index > 0
+						&& isAncestor((MarkupContainer) component, ordered
+								.get(index - 1))) {
+					index--;
+				}
+			}
+			ordered.add(index, component);
+		}
+
+		for (Component component : ordered) {
+			addPlugins(component);
+		}
+		if (components.contains(page) && page.determineVisibility()) {
+			addPlugins(page);
+		}
+	}
+
+	public Object component(Component component) {
+		if (component.determineVisibility()) {
+			addPlugins(component);
+			return CONTINUE_TRAVERSAL;
+		} else {
+			return CONTINUE_TRAVERSAL_BUT_DONT_GO_DEEPER;
+		}
+	}
+
+	private void addPlugins(Component component) {
+		if (component instanceof IWiQueryPlugin) {
+			plugins.add((IWiQueryPlugin) component);
+		}
+		for (IBehavior behavior : component.getBehaviors()) {
+			if (behavior instanceof IWiQueryPlugin
+					&& behavior.isEnabled(component)) {
+				plugins.add((IWiQueryPlugin) behavior);
+			}
+		}
+	}
+
+	private static boolean isAncestor(MarkupContainer container,
+			Component component) {
+		for (Component parent = component.getParent(); parent != null; parent = parent
+				.getParent()) {
+			if (parent == container) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
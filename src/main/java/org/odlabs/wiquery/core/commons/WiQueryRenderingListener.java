@@ -29,15 +29,20 @@ public class WiQueryRenderingListener implements IComponentOnBeforeRenderListene
             if (component instanceof IWiQueryPlugin) {
                 // binding component as a plugin
                 component.add(new HeaderContributor(new WiQueryCoreHeaderContributor(component)));
+                WiQueryPluginCollector.register(component);
             }
             else {
                 for (IBehavior curBehavior : component.getBehaviors()) {
                     if (curBehavior instanceof IWiQueryPlugin) {
                         component.add(new HeaderContributor(new WiQueryCoreHeaderContributor(component)));
+                        WiQueryPluginCollector.register(component);
                         break;
                     }
                 }
             }
+        } else {
+            // the component already holds plugins
+            WiQueryPluginCollector.register(component);
         }
     }
 
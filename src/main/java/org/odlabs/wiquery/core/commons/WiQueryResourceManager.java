@@ -23,8 +23,13 @@ package org.odlabs.wiquery.core.commons;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.apache.wicket.ResourceReference;
+import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.markup.html.IHeaderResponse;
 import org.apache.wicket.markup.html.resources.JavascriptResourceReference;
 import org.odlabs.wiquery.core.commons.compressed.StyleSheetResourceReference;
@@ -35,6 +40,11 @@ import org.odlabs.wiquery.core.commons.compressed.StyleSheetResourceReference;
  * <p>
  * Manages {@link ResourceReference} declared by components.
  * </p>
+ * <p>
+ * The dependencies declared by the {@link IWiQueryDependentResourceReference}s
+ * are resolved when the resources are rendered: each JavaScript resource is
+ * rendered once, after all the resources it depends on.
+ * </p>
  * 
  * @author Benoit Bouchez
  * @author Lionel Armanet
@@ -65,14 +75,63 @@ public class WiQueryResourceManager implements Serializable {
 	}
 
 	public void initialize(IHeaderResponse response) {
-		// Register all javascript
-		for (int i = 0; i < this.javascriptResources.size(); i++) {
-			response.renderJavascriptReference(this.javascriptResources.get(i));
+		// Register all javascript, dependencies first
+		for (ResourceReference reference : getJavaScriptResources()) {
+			response.renderJavascriptReference(reference);
 		}
 		// Register all css resources
-		for (int i = 0; i < this.cssResources.size(); i++) {
-			response.renderCSSReference(this.cssResources.get(i));
+		for (ResourceReference reference : new LinkedHashSet<ResourceReference>(
+				this.cssResources)) {
+			response.renderCSSReference(reference);
+		}
+	}
+
+	/**
+	 * Returns the JavaScript resources to import: the added resources and
+	 * their dependencies, without duplicates and ordered so that each resource
+	 * comes after the resources it depends on. Apart from that, the order in
+	 * which the resources were added is kept.
+	 * 
+	 * @return the ordered list of the JavaScript resources
+	 * @throws WicketRuntimeException
+	 *             if the declared dependencies are cyclic
+	 */
+	public List<ResourceReference> getJavaScriptResources() {
+		Set<ResourceReference> resolved = new LinkedHashSet<ResourceReference>();
+		Set<ResourceReference> resolving = new HashSet<ResourceReference>();
+
+		for (ResourceReference reference : this.javascriptResources) {
+			resolve(reference, resolved, resolving);
+		}
+
+		return new ArrayList<ResourceReference>(resolved);
+	}
+
+	/**
+	 * Adds the given reference to the resolved ones, after its dependencies
+	 * (depth first traversal of the dependency graph).
+	 */
+	private void resolve(ResourceReference reference,
+			Set<ResourceReference> resolved, Set<ResourceReference> resolving) {
+		if (resolved.contains(reference)) {
+			return;
 		}
+
+		if (!resolving.add(reference)) {
+			throw new WicketRuntimeException(
+					"Cyclic dependency between the JavaScript resources: "
+							+ reference);
+		}
+
+		if (reference instanceof IWiQueryDependentResourceReference) {
+			for (ResourceReference dependency : ((IWiQueryDependentResourceReference) reference)
+					.getDependencies()) {
+				resolve(dependency, resolved, resolving);
+			}
+		}
+
+		resolving.remove(reference);
+		resolved.add(reference);
 	}
 
 	/**
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.Resource;
+import org.apache.wicket.ResourceReference;
+import org.apache.wicket.javascript.IJavascriptCompressor;
+import org.apache.wicket.util.io.Streams;
+import org.apache.wicket.util.lang.Packages;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.odlabs.wiquery.core.commons.compressed.ICachedResource;
+import org.odlabs.wiquery.core.commons.compressed.YUIJavaScriptCompressor;
+import org.odlabs.wiquery.core.commons.listener.JQueryUICoreRenderingListener;
+import org.odlabs.wiquery.core.commons.merge.WiQueryMergedResourceCompressor;
+import org.odlabs.wiquery.core.jqueryplugins.BgiframeJavaScriptResourceReference;
+import org.odlabs.wiquery.core.jqueryplugins.CookieJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.accordion.AccordionJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.autocomplete.AutocompleteJavascriptResourceReference;
+import org.odlabs.wiquery.ui.autocomplete.WiQueryAutocompleteJavascriptResourceReference;
+import org.odlabs.wiquery.ui.button.ButtonJavascriptResourceReference;
+import org.odlabs.wiquery.ui.core.CoreUIJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.datepicker.DatePickerJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.datepicker.DatePickerLanguageResourceReference;
+import org.odlabs.wiquery.ui.datepicker.DatePickerLanguageResourceReference.DatePickerLanguages;
+import org.odlabs.wiquery.ui.dialog.DialogJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.draggable.DraggableJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.droppable.DroppableJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.effects.BlindEffectJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.effects.BounceEffectJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.effects.ClipEffectJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.effects.CoreEffectJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.effects.DropEffectJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.effects.ExplodeEffectJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.effects.FoldEffectJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.effects.HighlightEffectJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.effects.PulsateEffectJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.effects.ScaleEffectJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.effects.ShakeEffectJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.effects.SlideEffectJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.effects.TransferEffectJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.mouse.MouseJavascriptResourceReference;
+import org.odlabs.wiquery.ui.position.PositionJavascriptResourceReference;
+import org.odlabs.wiquery.ui.progressbar.ProgressBarJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.resizable.ResizableJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.selectable.SelectableJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.slider.SliderJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.sortable.SortableJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.tabs.TabsJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.widget.WidgetJavascriptResourceReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Warm-up of the wiQuery resources, run in the background when the
+ * application starts (see {@link WiQuerySettings#isWarmUpResources()}):
+ * </p>
+ * <ul>
+ * <li>the resource references are bound into the shared resources and their
+ * package resources are located;</li>
+ * <li>the content of the resources and its gzipped variant (the stylesheets
+ * being filtered first) are built in the
+ * {@link org.odlabs.wiquery.core.commons.compressed.CompressedResourceCache}
+ * (see {@link ICachedResource});</li>
+ * <li>when the resources are merged and compressed by the
+ * {@link YUIJavaScriptCompressor}, the javascript members are compressed in
+ * parallel, so the first bundles are built from its cache (see
+ * {@link org.odlabs.wiquery.core.commons.compressed.JavaScriptCompressionCache}).
+ * </li>
+ * </ul>
+ * <p>
+ * The references are the jQuery, jQuery UI and plugin resources shipped with
+ * wiQuery, the default theme, the datepicker languages and the
+ * {@link WiQuerySettings#getWarmUpReferences()}.
+ * </p>
+ * <p>
+ * The warm-up stops when its thread is interrupted (see
+ * {@link WiQueryInitializer#destroy(Application)}).
+ * </p>
+ * 
+ * @since 1.2.5
+ */
+public class WiQueryResourceWarmUp implements Runnable {
+	/** Logger */
+	private static final Logger LOGGER = LoggerFactory.getLogger(WiQueryResourceWarmUp.class);
+
+	/**
+	 * Starts the warm-up of the resources of the given application in a
+	 * background thread. As the names of the resources depend on the settings
+	 * (minified resources, ...), call it once the application is configured,
+	 * e.g. at the end of {@link Application#init()}.
+	 * 
+	 * @param application
+	 * @return the started thread
+	 */
+	public static Thread start(Application application) {
+		Thread thread = new Thread(new WiQueryResourceWarmUp(application),
+				"wiquery-warm-up-" + application.getName());
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * @return the resources shipped with wiQuery
+	 */
+	public static List<ResourceReference> getDefaultReferences() {
+		WiQuerySettings settings = WiQuerySettings.get();
+		List<ResourceReference> references = new ArrayList<ResourceReference>();
+
+		references.add(settings.getJQueryCoreResourceReference() == null
+				? CoreJavaScriptResourceReference.get()
+				: settings.getJQueryCoreResourceReference());
+		references.add(BgiframeJavaScriptResourceReference.get());
+		references.add(CookieJavaScriptResourceReference.get());
+
+		// jQuery UI
+		references.add(CoreUIJavaScriptResourceReference.get());
+		references.add(WidgetJavascriptResourceReference.get());
+		references.add(MouseJavascriptResourceReference.get());
+		references.add(PositionJavascriptResourceReference.get());
+		references.add(DraggableJavaScriptResourceReference.get());
+		references.add(DroppableJavaScriptResourceReference.get());
+		references.add(ResizableJavaScriptResourceReference.get());
+		references.add(SelectableJavaScriptResourceReference.get());
+		references.add(SortableJavaScriptResourceReference.get());
+		references.add(AccordionJavaScriptResourceReference.get());
+		references.add(AutocompleteJavascriptResourceReference.get());
+		references.add(WiQueryAutocompleteJavascriptResourceReference.get());
+		references.add(ButtonJavascriptResourceReference.get());
+		references.add(DatePickerJavaScriptResourceReference.get());
+		references.add(DialogJavaScriptResourceReference.get());
+		references.add(ProgressBarJavaScriptResourceReference.get());
+		references.add(SliderJavaScriptResourceReference.get());
+		references.add(TabsJavaScriptResourceReference.get());
+
+		// Effects
+		references.add(CoreEffectJavaScriptResourceReference.get());
+		references.add(BlindEffectJavaScriptResourceReference.get());
+		references.add(BounceEffectJavaScriptResourceReference.get());
+		references.add(ClipEffectJavaScriptResourceReference.get());
+		references.add(DropEffectJavaScriptResourceReference.get());
+		references.add(ExplodeEffectJavaScriptResourceReference.get());
+		references.add(FoldEffectJavaScriptResourceReference.get());
+		references.add(HighlightEffectJavaScriptResourceReference.get());
+		references.add(PulsateEffectJavaScriptResourceReference.get());
+		references.add(ScaleEffectJavaScriptResourceReference.get());
+		references.add(ShakeEffectJavaScriptResourceReference.get());
+		references.add(SlideEffectJavaScriptResourceReference.get());
+		references.add(TransferEffectJavaScriptResourceReference.get());
+
+		// Theme and i18n
+		references.add(JQueryUICoreRenderingListener.getDefaultTheme());
+		for (DatePickerLanguages language : DatePickerLanguages.values()) {
+			Locale locale = language.getLocale();
+			ResourceReference reference = locale == null ? null
+					: DatePickerLanguageResourceReference.get(locale);
+
+			if (reference != null) {
+				references.add(reference);
+			}
+		}
+
+		return references;
+	}
+
+	// Properties
+	private final Application application;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param application
+	 */
+	public WiQueryResourceWarmUp(Application application) {
+		super();
+		this.application = application;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see java.lang.Runnable#run()
+	 */
+	public void run() {
+		Application.set(application);
+		try {
+			warmUp();
+
+		} catch (RuntimeException e) {
+			LOGGER.error("[" + application.getName() + "] warm-up of the wiQuery resources failed", e);
+
+		} finally {
+			Application.unset();
+		}
+	}
+
+	/**
+	 * Warms the resources up in the current thread
+	 */
+	public void warmUp() {
+		long start = System.currentTimeMillis();
+		WiQuerySettings settings = WiQuerySettings.get();
+		List<ResourceReference> references = getDefaultReferences();
+		references.addAll(settings.getWarmUpReferences());
+
+		// only the YUIJavaScriptCompressor keeps the compressed sources
+		IJavascriptCompressor compressor = application.getResourceSettings().getJavascriptCompressor();
+		boolean compress = compressor instanceof YUIJavaScriptCompressor
+				&& settings.isEnableResourcesMerging();
+		List<String> sources = new ArrayList<String>();
+		int count = 0;
+
+		for (ResourceReference reference : references) {
+			if (isInterrupted()) {
+				return;
+			}
+
+			try {
+				// Binds the reference and locates its package resource
+				reference.bind(application);
+				Resource resource = reference.getResource();
+				if (resource instanceof ICachedResource) {
+					((ICachedResource) resource).cacheContent();
+				}
+
+				if (compress && reference.getName().endsWith(".js")) {
+					String source = read(reference);
+					if (source != null) {
+						sources.add(source);
+					}
+				}
+
+				count++;
+				LOGGER.debug("[{}] warm-up {}/{}: {}", new Object[] {
+						application.getName(), count, references.size(),
+						reference });
+
+			} catch (RuntimeException e) {
+				LOGGER.warn("[" + application.getName() + "] unable to warm "
+						+ reference + " up", e);
+			}
+		}
+
+		if (isInterrupted()) {
+			return;
+		}
+
+		long compression = System.currentTimeMillis();
+		if (!sources.isEmpty()) {
+			WiQueryMergedResourceCompressor.get().compress(sources, compressor);
+		}
+
+		long end = System.currentTimeMillis();
+		LOGGER.info("[" + application.getName() + "] warm-up of " + count
+				+ " wiQuery resources in " + (end - start) + " ms ("
+				+ sources.size() + " javascript sources compressed in "
+				+ (end - compression) + " ms)");
+	}
+
+	/**
+	 * @return true if the warm-up has been interrupted, e.g. because the
+	 *         application is destroyed
+	 */
+	private boolean isInterrupted() {
+		if (Thread.interrupted()) {
+			LOGGER.info("[" + application.getName()
+					+ "] warm-up of the wiQuery resources interrupted");
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the source of a javascript resource, as it's read when the
+	 * resources are merged
+	 * 
+	 * @param reference
+	 * @return the source, or <code>null</code> if it can't be found
+	 */
+	private String read(ResourceReference reference) {
+		IResourceStream stream = application.getResourceSettings()
+				.getResourceStreamLocator().locate(reference.getScope(),
+						Packages.absolutePath(reference.getScope(), reference.getName()));
+		if (stream == null) {
+			return null;
+		}
+
+		try {
+			try {
+				return Streams.readString(stream.getInputStream());
+			} finally {
+				stream.close();
+			}
+
+		} catch (Exception e) {
+			LOGGER.warn("Unable to read " + reference, e);
+			return null;
+		}
+	}
+}
@@ -21,12 +21,15 @@
  */
 package org.odlabs.wiquery.core.commons;
 
+import java.io.File;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
 
 import org.apache.wicket.Application;
+import org.apache.wicket.ResourceReference;
 import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.javascript.IJavascriptCompressor;
 import org.apache.wicket.javascript.NoOpJavascriptCompressor;
@@ -75,6 +78,15 @@ public class WiQuerySettings implements Serializable {
 	private boolean autoImportJQueryUIResource;
 	private boolean enableWiqueryResourceManagement;
 	private boolean embedGeneratedStatements;
+	private int mergedResourceCacheSize;
+	private int mergedResourceCompressionThreads;
+	private int javaScriptCompressionCacheSize;
+	private File javaScriptCompressionCacheDirectory;
+	private long compressedResourceCacheSize;
+	private boolean compressedResourceCacheOffHeap;
+	private boolean warmUpResources;
+	private boolean groupIdenticalStatements;
+	private List<ResourceReference> warmUpReferences;
 
 	/**
 	 * Default constructor
@@ -85,12 +97,17 @@ public class WiQuerySettings implements Serializable {
 		this.autoImportJQueryUIResource = true;
 		this.enableWiqueryResourceManagement = true;
 		this.embedGeneratedStatements = false;
+		this.mergedResourceCacheSize = 32;
+		this.mergedResourceCompressionThreads = Runtime.getRuntime().availableProcessors();
+		this.javaScriptCompressionCacheSize = 256;
+		this.compressedResourceCacheSize = 8 * 1024 * 1024;
 		
 		setAutoImportJQueryResource(true);
 		setEnableResourcesMerging(false);
 		setJQueryCoreResourceReference(null);
 		
 		listeners = new ArrayList<WiQueryPluginRenderingListener>();
+		warmUpReferences = new ArrayList<ResourceReference>();
 
 		IJavascriptCompressor compressor = Application.get()
 				.getResourceSettings().getJavascriptCompressor();
@@ -129,6 +146,77 @@ public class WiQuerySettings implements Serializable {
 		return enableResourcesMerging;
 	}
 	
+	/**
+	 * @return the maximum number of merged resources kept in the
+	 *         {@link org.odlabs.wiquery.core.commons.merge.WiQueryMergedResourceCache}
+	 */
+	public int getMergedResourceCacheSize() {
+		return mergedResourceCacheSize;
+	}
+
+	/**
+	 * @return the maximum number of threads compressing the members of a
+	 *         merged resource
+	 */
+	public int getMergedResourceCompressionThreads() {
+		return mergedResourceCompressionThreads;
+	}
+
+	/**
+	 * @return the maximum number of compressed sources kept in the
+	 *         {@link org.odlabs.wiquery.core.commons.compressed.JavaScriptCompressionCache}
+	 */
+	public int getJavaScriptCompressionCacheSize() {
+		return javaScriptCompressionCacheSize;
+	}
+
+	/**
+	 * @return the directory where the
+	 *         {@link org.odlabs.wiquery.core.commons.compressed.JavaScriptCompressionCache}
+	 *         writes the compressed sources, or <code>null</code>
+	 */
+	public File getJavaScriptCompressionCacheDirectory() {
+		return javaScriptCompressionCacheDirectory;
+	}
+
+	/**
+	 * @return the maximum number of bytes kept in the
+	 *         {@link org.odlabs.wiquery.core.commons.compressed.CompressedResourceCache}
+	 */
+	public long getCompressedResourceCacheSize() {
+		return compressedResourceCacheSize;
+	}
+
+	/**
+	 * @return true if the
+	 *         {@link org.odlabs.wiquery.core.commons.compressed.CompressedResourceCache}
+	 *         keeps the content in direct buffers
+	 */
+	public boolean isCompressedResourceCacheOffHeap() {
+		return compressedResourceCacheOffHeap;
+	}
+
+	/**
+	 * @return the state of the warmUpResources option
+	 */
+	public boolean isWarmUpResources() {
+		return warmUpResources;
+	}
+
+	/**
+	 * @return the resources warmed up in addition to the wiQuery ones
+	 */
+	public List<ResourceReference> getWarmUpReferences() {
+		return Collections.unmodifiableList(warmUpReferences);
+	}
+
+	/**
+	 * @return the state of the groupIdenticalStatements option
+	 */
+	public boolean isGroupIdenticalStatements() {
+		return groupIdenticalStatements;
+	}
+
 	/**
 	 * @return the state of the embedGeneratedStatements option
 	 */
@@ -183,6 +271,123 @@ public class WiQuerySettings implements Serializable {
 		this.enableResourcesMerging = enableResourcesMerging;
 	}
 
+	/**
+	 * Sets the maximum number of merged resources (default 32) kept in the
+	 * {@link org.odlabs.wiquery.core.commons.merge.WiQueryMergedResourceCache}.
+	 * When the limit is reached, the least recently used bundle is evicted.
+	 * The value is read once, when the cache is first used.
+	 * 
+	 * @param mergedResourceCacheSize
+	 */
+	public void setMergedResourceCacheSize(int mergedResourceCacheSize) {
+		this.mergedResourceCacheSize = mergedResourceCacheSize;
+	}
+
+	/**
+	 * Sets the maximum number of threads (default: the number of processors)
+	 * compressing the members of a merged resource in parallel, see
+	 * {@link org.odlabs.wiquery.core.commons.merge.WiQueryMergedResourceCompressor}.
+	 * With less than 2 threads, the members are compressed by the request
+	 * thread. The value is read once, when the first bundle is built.
+	 * 
+	 * @param mergedResourceCompressionThreads
+	 */
+	public void setMergedResourceCompressionThreads(
+			int mergedResourceCompressionThreads) {
+		this.mergedResourceCompressionThreads = mergedResourceCompressionThreads;
+	}
+
+	/**
+	 * Sets the maximum number of compressed sources (default 256) kept in the
+	 * {@link org.odlabs.wiquery.core.commons.compressed.JavaScriptCompressionCache}
+	 * of the YUI compressor, 0 disables the cache. The value is read once,
+	 * when the cache is first used.
+	 * 
+	 * @param javaScriptCompressionCacheSize
+	 */
+	public void setJavaScriptCompressionCacheSize(
+			int javaScriptCompressionCacheSize) {
+		this.javaScriptCompressionCacheSize = javaScriptCompressionCacheSize;
+	}
+
+	/**
+	 * Sets the directory where the compressed sources are written (default
+	 * none), so they are not compressed again after a restart. The value is
+	 * read once, when the cache is first used.
+	 * 
+	 * @param javaScriptCompressionCacheDirectory
+	 */
+	public void setJavaScriptCompressionCacheDirectory(
+			File javaScriptCompressionCacheDirectory) {
+		this.javaScriptCompressionCacheDirectory = javaScriptCompressionCacheDirectory;
+	}
+
+	/**
+	 * Sets the maximum number of bytes (default 8 MB) kept in the
+	 * {@link org.odlabs.wiquery.core.commons.compressed.CompressedResourceCache}
+	 * of the compressed resources, 0 disables the cache. When the limit is
+	 * reached, the least recently used content is evicted. The value is read
+	 * once, when the cache is first used.
+	 * 
+	 * @param compressedResourceCacheSize
+	 */
+	public void setCompressedResourceCacheSize(long compressedResourceCacheSize) {
+		this.compressedResourceCacheSize = compressedResourceCacheSize;
+	}
+
+	/**
+	 * If set to <code>true</code> (default <code>false</code>), the
+	 * {@link org.odlabs.wiquery.core.commons.compressed.CompressedResourceCache}
+	 * keeps the content in direct buffers, out of the heap. The value is read
+	 * once, when the cache is first used.
+	 * 
+	 * @param compressedResourceCacheOffHeap
+	 */
+	public void setCompressedResourceCacheOffHeap(
+			boolean compressedResourceCacheOffHeap) {
+		this.compressedResourceCacheOffHeap = compressedResourceCacheOffHeap;
+	}
+
+	/**
+	 * If set to <code>true</code> (default <code>false</code>), the
+	 * {@link WiQueryInitializer} starts the {@link WiQueryResourceWarmUp} in
+	 * the background. The settings must then be provided by the application
+	 * (see {@link IWiQuerySettings}), otherwise call
+	 * {@link WiQueryResourceWarmUp#start(Application)} at the end of the
+	 * initialization of the application.
+	 * 
+	 * @param warmUpResources
+	 */
+	public void setWarmUpResources(boolean warmUpResources) {
+		this.warmUpResources = warmUpResources;
+	}
+
+	/**
+	 * If set to <code>true</code> (default <code>false</code>), the plugins of
+	 * a page initialized with the same statement on different components (a
+	 * date picker on each row of a list, for example) are initialized by a
+	 * single statement, with one selector for all the components: the options
+	 * are rendered once. The
+	 * grouped statement takes the place of the first one, so the plugins must
+	 * not depend on the order of their initialization. The Ajax responses
+	 * aren't grouped.
+	 * 
+	 * @param groupIdenticalStatements
+	 */
+	public void setGroupIdenticalStatements(boolean groupIdenticalStatements) {
+		this.groupIdenticalStatements = groupIdenticalStatements;
+	}
+
+	/**
+	 * Adds a resource to warm up with the wiQuery ones
+	 * 
+	 * @param reference
+	 * @return the state
+	 */
+	public boolean addWarmUpReference(ResourceReference reference) {
+		return warmUpReferences.add(reference);
+	}
+
 	/**
 	 * If set to <code>false</code> (default), the generated JavaScript statements will be
 	 * loaded using a dynamic resource named xxxxxxxx-wiquery-gen.js. To embed the code in your
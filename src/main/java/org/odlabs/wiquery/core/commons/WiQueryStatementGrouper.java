@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Groups the statements of the plugins which differ only by the id of their
+ * component: <code>$('#a').datepicker({...});</code> and
+ * <code>$('#b').datepicker({...});</code> are rendered as
+ * <code>$('#a, #b').datepicker({...});</code>, in place of the first one.
+ * </p>
+ * <p>
+ * Only the statements made of a single call chain on a
+ * <code>$('#id')</code> selector are grouped, and only when the rest of the
+ * statement doesn't select another component by its id: the code following
+ * the chain would otherwise run once for all the components. The other
+ * statements are rendered as they are, in their order.
+ * </p>
+ *
+ * @see WiQuerySettings#setGroupIdenticalStatements(boolean)
+ */
+class WiQueryStatementGrouper {
+	/** Start of a statement selecting a component by its id */
+	private static final String SELECTOR_START = "$('#";
+
+	/** End of the selector */
+	private static final String SELECTOR_END = "')";
+
+	/**
+	 * Statements sharing the same chain after the selector
+	 */
+	private static class Group {
+		private final String chain;
+
+		private final List<String> ids = new ArrayList<String>(4);
+
+		private Group(String chain) {
+			this.chain = chain;
+		}
+	}
+
+	/** The statements (String) and the groups, in their order */
+	private final List<Object> statements = new ArrayList<Object>();
+
+	/** The groups, by chain */
+	private final Map<String, Group> groups = new HashMap<String, Group>();
+
+	/**
+	 * Adds the statement of a plugin.
+	 *
+	 * @param statement
+	 *            the rendered statement
+	 */
+	public void add(CharSequence statement) {
+		String text = statement.toString();
+		int end = text.indexOf(SELECTOR_END, SELECTOR_START.length());
+		if (!text.startsWith(SELECTOR_START) || end < 0
+				|| !isId(text, SELECTOR_START.length(), end)
+				|| !text.startsWith(".", end + SELECTOR_END.length())
+				|| !isChain(text, end + SELECTOR_END.length())
+				|| text.indexOf(SELECTOR_START, end) >= 0) {
+			statements.add(text);
+			return;
+		}
+
+		String chain = text.substring(end + SELECTOR_END.length());
+		Group group = groups.get(chain);
+		if (group == null) {
+			group = new Group(chain);
+			groups.put(chain, group);
+			statements.add(group);
+		}
+		group.ids.add(text.substring(SELECTOR_START.length(), end));
+	}
+
+	/**
+	 * Renders the statements, each one on its own line, indented by a tab.
+	 *
+	 * @param buffer
+	 */
+	public void render(StringBuilder buffer) {
+		for (Object statement : statements) {
+			buffer.append('\t');
+			if (statement instanceof Group) {
+				Group group = (Group) statement;
+				buffer.append(SELECTOR_START);
+				for (int i = 0; i < group.ids.size(); i++) {
+					if (i > 0) {
+						buffer.append(", #");
+					}
+					buffer.append(group.ids.get(i));
+				}
+				buffer.append(SELECTOR_END).append(group.chain);
+			} else {
+				buffer.append((String) statement);
+			}
+			buffer.append('\n');
+		}
+	}
+
+	/**
+	 * @return true if the text from start is a single call chain, such as
+	 *         <code>.button({...}).show();</code>: its brackets are balanced
+	 *         and no other statement follows it
+	 */
+	private static boolean isChain(String text, int start) {
+		int end = text.length();
+		while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+			end--;
+		}
+		if (end > start && text.charAt(end - 1) == ';') {
+			end--;
+		}
+
+		int depth = 0;
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '\'':
+			case '"':
+				// skips the string literal
+				for (i++; i < end && text.charAt(i) != c; i++) {
+					if (text.charAt(i) == '\\') {
+						i++;
+					}
+				}
+				if (i >= end) {
+					return false;
+				}
+				break;
+			case '(':
+			case '[':
+			case '{':
+				depth++;
+				break;
+			case ')':
+			case ']':
+			case '}':
+				if (--depth < 0) {
+					return false;
+				}
+				break;
+			default:
+				// only the names and the calls are chained
+				if (depth == 0 && c != '.'
+						&& !Character.isJavaIdentifierPart(c)) {
+					return false;
+				}
+			}
+		}
+		return depth == 0;
+	}
+
+	/**
+	 * @return true if the characters between start and end can be used as is
+	 *         in a selector list (markup id)
+	 */
+	private static boolean isId(String text, int start, int end) {
+		if (start == end) {
+			return false;
+		}
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (!Character.isLetterOrDigit(c) && c != '_' && c != '-') {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -1,8 +1,5 @@
 package org.odlabs.wiquery.core.commons;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.apache.wicket.util.template.PackagedTextTemplate;
 
 /**
@@ -16,15 +13,61 @@ import org.apache.wicket.util.template.PackagedTextTemplate;
 public class WiqueryGeneratedJavaScriptResource {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * The template variable replaced by the generated code
+	 */
+	private static final String TEMPLATE_VARIABLE = "${wiqueryoutput}";
+
+	/**
+	 * The template, split around the variable (read once)
+	 */
+	private static volatile String[] template;
+
 	public static String wiqueryGeneratedJavascriptCode(
 			CharSequence javaScriptCode) {
-		PackagedTextTemplate jstemplate = new PackagedTextTemplate(
-				WiqueryGeneratedJavaScriptResource.class, "wiquery-gen.js");
+		StringBuilder buffer = new StringBuilder(javaScriptCode.length() + 32);
+		appendHeader(buffer);
+		buffer.append(javaScriptCode);
+		appendFooter(buffer);
+		return buffer.toString();
+	}
+
+	/**
+	 * Appends the part of the generated resource coming before the generated
+	 * code, so the code can be rendered directly into the buffer.
+	 * 
+	 * @param buffer
+	 * @return the buffer
+	 */
+	public static StringBuilder appendHeader(StringBuilder buffer) {
+		return buffer.append(getTemplate()[0]);
+	}
+
+	/**
+	 * Appends the part of the generated resource coming after the generated
+	 * code.
+	 * 
+	 * @param buffer
+	 * @return the buffer
+	 * @see #appendHeader(StringBuilder)
+	 */
+	public static StringBuilder appendFooter(StringBuilder buffer) {
+		return buffer.append(getTemplate()[1]);
+	}
+
+	private static String[] getTemplate() {
+		String[] parts = template;
 
-		Map<String, Object> genJs = new HashMap<String, Object>();
-		genJs.put("wiqueryoutput", javaScriptCode);
-		jstemplate.interpolate(genJs);
+		if (parts == null) {
+			PackagedTextTemplate jstemplate = new PackagedTextTemplate(
+					WiqueryGeneratedJavaScriptResource.class, "wiquery-gen.js");
+			String content = jstemplate.getString();
+			int index = content.indexOf(TEMPLATE_VARIABLE);
+			parts = new String[] { content.substring(0, index),
+					content.substring(index + TEMPLATE_VARIABLE.length()) };
+			template = parts;
+		}
 
-		return jstemplate.asString();
+		return parts;
 	}
 }
@@ -0,0 +1,139 @@
+package org.odlabs.wiquery.core.commons.compressed;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.RequestCycle;
+import org.apache.wicket.protocol.http.WebRequest;
+import org.apache.wicket.protocol.http.WebResponse;
+
+/**
+ * Negotiation of the encoding of the resources, from the
+ * <i>Accept-Encoding</i> header of the request. Only gzip is supported, there
+ * is no Brotli encoder in the JDK.
+ */
+public final class AcceptEncoding {
+	/** Name of the request header */
+	public static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+	/** The gzip encoding */
+	public static final String GZIP = "gzip";
+
+	/**
+	 * Parses an <i>Accept-Encoding</i> header, including the quality values
+	 * (<code>gzip;q=0</code> refuses gzip).
+	 *
+	 * @param header
+	 *            the header, may be <code>null</code>
+	 * @return true if the header accepts gzip
+	 */
+	public static boolean acceptsGzip(String header) {
+		if (header == null) {
+			return false;
+		}
+
+		boolean wildcard = false;
+		for (String coding : header.split(",")) {
+			String name = coding;
+			double quality = 1;
+
+			int semicolon = coding.indexOf(';');
+			if (semicolon >= 0) {
+				name = coding.substring(0, semicolon);
+				quality = parseQuality(coding.substring(semicolon + 1));
+			}
+
+			name = name.trim();
+			if (GZIP.equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name)) {
+				return quality > 0;
+			}
+			if ("*".equals(name)) {
+				wildcard = quality > 0;
+			}
+		}
+
+		return wildcard;
+	}
+
+	/**
+	 * @return true if the client of the current request accepts gzip and gzip
+	 *         compression isn't disabled by the application
+	 */
+	public static boolean supportsCompression() {
+		if (Application.get().getResourceSettings().getDisableGZipCompression()) {
+			return false;
+		}
+
+		return acceptsGzip(getHeader());
+	}
+
+	/**
+	 * Tells the caches the response depends on the <i>Accept-Encoding</i>
+	 * header.
+	 *
+	 * @param response
+	 */
+	public static void setVaryHeader(WebResponse response) {
+		response.setHeader("Vary", ACCEPT_ENCODING);
+	}
+
+	/**
+	 * Completes the headers set by a
+	 * {@link org.apache.wicket.markup.html.CompressedPackageResource}: adds the
+	 * <i>Vary</i> header, and sets the <i>Content-Encoding</i> header from
+	 * {@link #supportsCompression()}, since the
+	 * {@link org.apache.wicket.markup.html.CompressedPackageResource} decides
+	 * on it with a plain substring test: it misses <code>*</code> or
+	 * <code>GZIP</code>, and accepts <code>gzip;q=0</code>.
+	 *
+	 * @param response
+	 */
+	public static void setHeaders(WebResponse response) {
+		setVaryHeader(response);
+
+		if (supportsCompression()) {
+			response.setHeader("Content-Encoding", GZIP);
+			return;
+		}
+
+		String header = getHeader();
+		if (!Application.get().getResourceSettings().getDisableGZipCompression()
+				&& header != null && header.indexOf(GZIP) >= 0) {
+			response.setHeader("Content-Encoding", "identity");
+		}
+	}
+
+	/**
+	 * @return the <i>Accept-Encoding</i> header of the current request, or
+	 *         <code>null</code>
+	 */
+	private static String getHeader() {
+		RequestCycle requestCycle = RequestCycle.get();
+		if (requestCycle == null
+				|| !(requestCycle.getRequest() instanceof WebRequest)) {
+			return null;
+		}
+
+		HttpServletRequest request = ((WebRequest) requestCycle.getRequest())
+				.getHttpServletRequest();
+		return request == null ? null : request.getHeader(ACCEPT_ENCODING);
+	}
+
+	private static double parseQuality(String parameters) {
+		for (String parameter : parameters.split(";")) {
+			parameter = parameter.trim();
+			if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+				try {
+					return Double.parseDouble(parameter.substring(2).trim());
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	private AcceptEncoding() {
+		super();
+	}
+}
@@ -0,0 +1,459 @@
+package org.odlabs.wiquery.core.commons.compressed;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.util.time.Time;
+import org.odlabs.wiquery.core.commons.WiQuerySettings;
+
+/**
+ * Application scoped cache of the content filtered by the compressed resources
+ * (see {@link StyleSheetPackageResource}). Unlike a
+ * {@link java.lang.ref.SoftReference}, an entry isn't cleared by the garbage
+ * collector when the memory runs low, it is only evicted when the cache
+ * exceeds its budget, so the resources aren't compressed again when the
+ * server is the busiest.
+ * <p>
+ * The cache is bounded by a number of bytes (see
+ * {@link WiQuerySettings#getCompressedResourceCacheSize()}), the least
+ * recently used entry is evicted first. Each entry holds the content and its
+ * gzipped variant, built once. They can be kept out of the heap, in read-only
+ * direct buffers (see
+ * {@link WiQuerySettings#isCompressedResourceCacheOffHeap()}).
+ * </p>
+ */
+public class CompressedResourceCache {
+	/**
+	 * Meta data for {@link CompressedResourceCache}.
+	 */
+	public static final MetaDataKey<CompressedResourceCache> COMPRESSED_RESOURCE_CACHE_KEY = new MetaDataKey<CompressedResourceCache>() {
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * Entry of the cache, holding the content and its gzipped variant. The
+	 * gzipped variant of an entry which isn't kept by the cache is only built
+	 * when it is first read.
+	 */
+	public static class Entry {
+		private final ByteBuffer content;
+
+		private volatile ByteBuffer gzippedContent;
+
+		private final Time lastModifiedTime;
+
+		private final boolean offHeap;
+
+		/**
+		 * Constructor
+		 *
+		 * @param content
+		 *            the content, copied to a direct buffer when
+		 *            <code>offHeap</code> is true
+		 * @param lastModifiedTime
+		 *            the last modified time of the original content
+		 * @param offHeap
+		 */
+		Entry(byte[] content, Time lastModifiedTime, boolean offHeap) {
+			this(content, null, lastModifiedTime, offHeap);
+		}
+
+		/**
+		 * Constructor
+		 *
+		 * @param content
+		 * @param gzippedContent
+		 *            the gzipped variant of the content, <code>null</code> to
+		 *            build it on first use
+		 * @param lastModifiedTime
+		 *            the last modified time of the original content
+		 * @param offHeap
+		 */
+		Entry(byte[] content, byte[] gzippedContent, Time lastModifiedTime,
+				boolean offHeap) {
+			this.content = toBuffer(content, offHeap);
+			this.gzippedContent = gzippedContent == null ? null : toBuffer(
+					gzippedContent, offHeap);
+			this.lastModifiedTime = lastModifiedTime;
+			this.offHeap = offHeap;
+		}
+
+		/**
+		 * @return a copy of the content
+		 */
+		public byte[] getContent() {
+			ByteBuffer buffer = content.duplicate();
+			byte[] bytes = new byte[buffer.remaining()];
+			buffer.get(bytes);
+			return bytes;
+		}
+
+		/**
+		 * @return an input stream reading the content, without copying it
+		 */
+		public InputStream getInputStream() {
+			return newInputStream(content);
+		}
+
+		/**
+		 * @return the length of the content
+		 */
+		public int getLength() {
+			return content.remaining();
+		}
+
+		/**
+		 * @return an input stream reading the gzipped content, without
+		 *         copying it
+		 */
+		public InputStream getGzippedInputStream() {
+			return newInputStream(getGzippedContent());
+		}
+
+		/**
+		 * @return the length of the gzipped content
+		 */
+		public int getGzippedLength() {
+			return getGzippedContent().remaining();
+		}
+
+		/**
+		 * @return the gzipped content, gzipping the content on first use
+		 */
+		private ByteBuffer getGzippedContent() {
+			ByteBuffer gzipped = gzippedContent;
+			if (gzipped == null) {
+				synchronized (this) {
+					gzipped = gzippedContent;
+					if (gzipped == null) {
+						gzipped = toBuffer(gzip(getContent()), offHeap);
+						gzippedContent = gzipped;
+					}
+				}
+			}
+			return gzipped;
+		}
+
+		/**
+		 * @return the last modified time of the original content
+		 */
+		public Time lastModifiedTime() {
+			return lastModifiedTime;
+		}
+
+		/**
+		 * @param time
+		 * @return true if the entry was made from content modified at the given
+		 *         time
+		 */
+		public boolean isUpToDate(Time time) {
+			return lastModifiedTime != null && lastModifiedTime.equals(time);
+		}
+
+		/**
+		 * @return the number of bytes held by the entry
+		 */
+		private long getSize() {
+			return getLength() + getGzippedLength();
+		}
+	}
+
+	/**
+	 * Method compressing the given content with gzip
+	 *
+	 * @param content
+	 * @return the gzipped content
+	 */
+	public static byte[] gzip(byte[] content) {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(
+					content.length / 3 + 16);
+			GZIPOutputStream zout = new GZIPOutputStream(out);
+			zout.write(content);
+			zout.close();
+			return out.toByteArray();
+
+		} catch (IOException e) {
+			throw new WicketRuntimeException(e);
+		}
+	}
+
+	/**
+	 * @return a read-only buffer wrapping the content, or a direct copy of it
+	 */
+	private static ByteBuffer toBuffer(byte[] content, boolean offHeap) {
+		if (!offHeap) {
+			return ByteBuffer.wrap(content);
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+		buffer.put(content);
+		buffer.flip();
+		return buffer.asReadOnlyBuffer();
+	}
+
+	/**
+	 * @return an input stream reading the buffer (the array itself for a heap
+	 *         buffer)
+	 */
+	private static InputStream newInputStream(ByteBuffer content) {
+		if (content.hasArray()) {
+			return new ByteArrayInputStream(content.array(), content
+					.arrayOffset()
+					+ content.position(), content.remaining());
+		}
+
+		final ByteBuffer buffer = content.duplicate();
+		return new InputStream() {
+			@Override
+			public int available() throws IOException {
+				return buffer.remaining();
+			}
+
+			@Override
+			public int read() throws IOException {
+				return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if (len == 0) {
+					return 0;
+				}
+				if (!buffer.hasRemaining()) {
+					return -1;
+				}
+				len = Math.min(len, buffer.remaining());
+				buffer.get(b, off, len);
+				return len;
+			}
+
+			@Override
+			public long skip(long n) throws IOException {
+				int skipped = (int) Math.min(Math.max(n, 0), buffer
+						.remaining());
+				buffer.position(buffer.position() + skipped);
+				return skipped;
+			}
+		};
+	}
+
+	/**
+	 * Get the {@link CompressedResourceCache} of the current application. The
+	 * cache is created on first use, with the settings given by the
+	 * {@link WiQuerySettings}.
+	 *
+	 * @return The cache
+	 */
+	public static CompressedResourceCache get() {
+		Application application = Application.get();
+		CompressedResourceCache instance = application
+				.getMetaData(COMPRESSED_RESOURCE_CACHE_KEY);
+
+		if (instance == null) {
+			synchronized (CompressedResourceCache.class) {
+				instance = application
+						.getMetaData(COMPRESSED_RESOURCE_CACHE_KEY);
+
+				if (instance == null) {
+					WiQuerySettings settings = WiQuerySettings.get();
+					instance = new CompressedResourceCache(settings
+							.getCompressedResourceCacheSize(), settings
+							.isCompressedResourceCacheOffHeap());
+					application.setMetaData(COMPRESSED_RESOURCE_CACHE_KEY,
+							instance);
+				}
+			}
+		}
+
+		return instance;
+	}
+
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(
+			16, 0.75f, true);
+
+	private final long maxSize;
+
+	private final boolean offHeap;
+
+	private long size;
+
+	private long hitCount;
+
+	private long missCount;
+
+	private long evictionCount;
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param maxSize
+	 *            maximum number of bytes kept by the cache
+	 * @param offHeap
+	 *            true to keep the content in direct buffers
+	 */
+	public CompressedResourceCache(long maxSize, boolean offHeap) {
+		this.maxSize = maxSize;
+		this.offHeap = offHeap;
+	}
+
+	/**
+	 * Clears the cache
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		size = 0;
+	}
+
+	/**
+	 * Returns the cached content for the given key
+	 *
+	 * @param key
+	 * @return the entry or <code>null</code> if the content is not cached
+	 */
+	public synchronized Entry get(String key) {
+		Entry entry = entries.get(key);
+
+		if (entry == null) {
+			missCount++;
+		} else {
+			hitCount++;
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Stores a content and its gzipped variant. The least recently used
+	 * entries are evicted until the cache fits its budget; a content larger
+	 * than the budget isn't kept, and its gzipped variant is only built if it
+	 * is read (see {@link #contains(String, Entry)}).
+	 *
+	 * @param key
+	 * @param content
+	 * @param lastModifiedTime
+	 *            the last modified time of the original content
+	 * @return the new entry
+	 */
+	public Entry put(String key, byte[] content, Time lastModifiedTime) {
+		Entry entry = new Entry(content, lastModifiedTime, offHeap
+				&& content.length <= maxSize);
+		if (content.length <= maxSize) {
+			// may be kept: gzipped now, outside of the lock of the cache
+			entry.getGzippedLength();
+		}
+
+		return put(key, entry);
+	}
+
+	/**
+	 * Stores a content and its gzipped variant prepared beforehand (see
+	 * {@link YUIResourcePrecompressor}).
+	 *
+	 * @param key
+	 * @param content
+	 * @param gzippedContent
+	 * @param lastModifiedTime
+	 *            the last modified time of the original content
+	 * @return the new entry
+	 * @see #put(String, byte[], Time)
+	 */
+	public Entry put(String key, byte[] content, byte[] gzippedContent,
+			Time lastModifiedTime) {
+		return put(key, new Entry(content, gzippedContent, lastModifiedTime,
+				offHeap && content.length + gzippedContent.length <= maxSize));
+	}
+
+	private synchronized Entry put(String key, Entry entry) {
+		Entry previous = entries.remove(key);
+		if (previous != null) {
+			size -= previous.getSize();
+		}
+
+		// a content larger than the budget isn't gzipped (see Entry)
+		if (entry.getLength() > maxSize || entry.getSize() > maxSize) {
+			return entry;
+		}
+
+		entries.put(key, entry);
+		size += entry.getSize();
+
+		Iterator<Entry> eldest = entries.values().iterator();
+		while (size > maxSize) {
+			size -= eldest.next().getSize();
+			eldest.remove();
+			evictionCount++;
+		}
+
+		return entry;
+	}
+
+	/**
+	 * @param key
+	 * @param entry
+	 * @return true if the cache keeps the given entry for the key
+	 */
+	public synchronized boolean contains(String key, Entry entry) {
+		return entry != null && entries.get(key) == entry;
+	}
+
+	/**
+	 * @return false if the cache doesn't keep anything
+	 */
+	public boolean isEnabled() {
+		return maxSize > 0;
+	}
+
+	/**
+	 * @return the number of evicted entries
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return the number of requests served from the cache
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of requests which needed to filter the content
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the maximum number of bytes kept by the cache
+	 */
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return the number of bytes kept by the cache (content and gzipped
+	 *         variants)
+	 */
+	public synchronized long getSize() {
+		return size;
+	}
+
+	/**
+	 * @return the number of cached entries
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+}
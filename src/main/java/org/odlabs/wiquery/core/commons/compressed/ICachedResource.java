@@ -0,0 +1,16 @@
+package org.odlabs.wiquery.core.commons.compressed;
+
+/**
+ * Resource serving its content, and the gzipped variant of it, from the
+ * {@link CompressedResourceCache}.
+ *
+ * @see org.odlabs.wiquery.core.commons.WiQueryResourceWarmUp
+ */
+public interface ICachedResource {
+	/**
+	 * Builds the content and its gzipped variant in the
+	 * {@link CompressedResourceCache}, unless they are already cached and up
+	 * to date.
+	 */
+	void cacheContent();
+}
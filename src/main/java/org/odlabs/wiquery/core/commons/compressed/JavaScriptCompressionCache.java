@@ -0,0 +1,337 @@
+package org.odlabs.wiquery.core.commons.compressed;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.util.io.Streams;
+import org.odlabs.wiquery.core.commons.WiQuerySettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application scoped cache of the JavaScript compressed by the
+ * {@link YUIJavaScriptCompressor}, keyed by a digest of the original source.
+ * The cache is bounded by a number of entries (see
+ * {@link WiQuerySettings#getJavaScriptCompressionCacheSize()}), the least
+ * recently used entry is evicted first.
+ * <p>
+ * When a directory is configured (see
+ * {@link WiQuerySettings#getJavaScriptCompressionCacheDirectory()}), the
+ * compressed sources are also written to it, so they survive a restart and
+ * can be shared by the nodes of a cluster.
+ * </p>
+ */
+public class JavaScriptCompressionCache {
+	private static final Logger log = LoggerFactory
+			.getLogger(JavaScriptCompressionCache.class);
+
+	/** Suffix of the files written in the cache directory */
+	private static final String FILE_SUFFIX = ".jsc";
+
+	/**
+	 * Meta data for {@link JavaScriptCompressionCache}.
+	 */
+	public static final MetaDataKey<JavaScriptCompressionCache> JAVASCRIPT_COMPRESSION_CACHE_KEY = new MetaDataKey<JavaScriptCompressionCache>() {
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * Compressed source, with the time it took to compress it
+	 */
+	private static class Entry {
+		private final String compressed;
+
+		private final long compressionTime;
+
+		public Entry(String compressed, long compressionTime) {
+			this.compressed = compressed;
+			this.compressionTime = compressionTime;
+		}
+	}
+
+	/**
+	 * Get the {@link JavaScriptCompressionCache} of the current application. The
+	 * cache is created on first use, with the settings given by the
+	 * {@link WiQuerySettings}.
+	 *
+	 * @return The cache
+	 */
+	public static JavaScriptCompressionCache get() {
+		Application application = Application.get();
+		JavaScriptCompressionCache instance = application
+				.getMetaData(JAVASCRIPT_COMPRESSION_CACHE_KEY);
+
+		if (instance == null) {
+			synchronized (JavaScriptCompressionCache.class) {
+				instance = application
+						.getMetaData(JAVASCRIPT_COMPRESSION_CACHE_KEY);
+
+				if (instance == null) {
+					WiQuerySettings settings = WiQuerySettings.get();
+					instance = new JavaScriptCompressionCache(settings
+							.getJavaScriptCompressionCacheSize(), settings
+							.getJavaScriptCompressionCacheDirectory());
+					application.setMetaData(JAVASCRIPT_COMPRESSION_CACHE_KEY,
+							instance);
+				}
+			}
+		}
+
+		return instance;
+	}
+
+	/**
+	 * @param source
+	 * @return the hexadecimal SHA-1 digest of the source
+	 */
+	static String digest(String source) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-1").digest(
+					source.getBytes("UTF-8"));
+			StringBuilder buffer = new StringBuilder(hash.length * 2);
+
+			for (byte b : hash) {
+				buffer.append(Character.forDigit((b >> 4) & 0xF, 16));
+				buffer.append(Character.forDigit(b & 0xF, 16));
+			}
+
+			return buffer.toString();
+
+		} catch (NoSuchAlgorithmException e) {
+			throw new WicketRuntimeException(e);
+		} catch (IOException e) {
+			throw new WicketRuntimeException(e);
+		}
+	}
+
+	private final Map<String, Entry> entries;
+
+	private final int maxEntries;
+
+	private final File directory;
+
+	private long hitCount;
+
+	private long diskHitCount;
+
+	private long missCount;
+
+	private long timeSaved;
+
+	/**
+	 * Creates a new cache.
+	 *
+	 * @param maxEntries
+	 *            maximum number of compressed sources kept in memory
+	 * @param directory
+	 *            directory where the compressed sources are written, or
+	 *            <code>null</code>
+	 */
+	public JavaScriptCompressionCache(final int maxEntries, File directory) {
+		this.maxEntries = maxEntries;
+		this.directory = directory;
+		entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<String, JavaScriptCompressionCache.Entry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+
+		if (directory != null && !directory.isDirectory()
+				&& !directory.mkdirs()) {
+			log.warn("Unable to create the compression cache directory "
+					+ directory);
+		}
+	}
+
+	/**
+	 * @return false if the cache neither keeps entries in memory nor in a
+	 *         directory
+	 */
+	public boolean isEnabled() {
+		return maxEntries > 0 || directory != null;
+	}
+
+	/**
+	 * Clears the entries kept in memory (the cache directory is left
+	 * untouched).
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the compressed version of the source with the given digest.
+	 *
+	 * @param digest
+	 *            the digest of the source, see {@link #digest(String)}
+	 * @return the compressed source, or <code>null</code> if it isn't cached
+	 */
+	public String get(String digest) {
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(digest);
+			if (entry != null) {
+				hitCount++;
+				timeSaved += entry.compressionTime;
+				return entry.compressed;
+			}
+		}
+
+		entry = read(digest);
+
+		synchronized (this) {
+			if (entry == null) {
+				missCount++;
+				return null;
+			}
+
+			diskHitCount++;
+			timeSaved += entry.compressionTime;
+			entries.put(digest, entry);
+		}
+
+		return entry.compressed;
+	}
+
+	/**
+	 * Stores a compressed source.
+	 *
+	 * @param digest
+	 *            the digest of the original source
+	 * @param compressed
+	 *            the compressed source
+	 * @param compressionTime
+	 *            the time it took to compress the source (ms)
+	 */
+	public void put(String digest, String compressed, long compressionTime) {
+		Entry entry = new Entry(compressed, compressionTime);
+
+		synchronized (this) {
+			entries.put(digest, entry);
+		}
+
+		write(digest, entry);
+	}
+
+	/**
+	 * @return the number of sources found in the cache directory
+	 */
+	public synchronized long getDiskHitCount() {
+		return diskHitCount;
+	}
+
+	/**
+	 * @return the number of sources found in memory
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the ratio of the sources which didn't need to be compressed
+	 */
+	public synchronized double getHitRate() {
+		long total = hitCount + diskHitCount + missCount;
+		return total == 0 ? 0 : (double) (hitCount + diskHitCount) / total;
+	}
+
+	/**
+	 * @return the number of sources which needed to be compressed
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the compression time saved by the cache (ms)
+	 */
+	public synchronized long getTimeSaved() {
+		return timeSaved;
+	}
+
+	/**
+	 * @return the number of compressed sources kept in memory
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Reads an entry from the cache directory (the first line holds the
+	 * compression time).
+	 */
+	private Entry read(String digest) {
+		if (directory == null) {
+			return null;
+		}
+
+		File file = new File(directory, digest + FILE_SUFFIX);
+		if (!file.isFile()) {
+			return null;
+		}
+
+		try {
+			InputStream in = new FileInputStream(file);
+			try {
+				String content = Streams.readString(in, "UTF-8");
+				int newLine = content.indexOf('\n');
+
+				return new Entry(content.substring(newLine + 1), Long
+						.parseLong(content.substring(0, newLine)));
+			} finally {
+				in.close();
+			}
+
+		} catch (IOException e) {
+			log.warn("Unable to read the compressed source " + file, e);
+		} catch (RuntimeException e) {
+			log.warn("Invalid compressed source " + file, e);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Writes an entry to the cache directory, through a temporary file so
+	 * the readers never see a partial entry.
+	 */
+	private void write(String digest, Entry entry) {
+		if (directory == null) {
+			return;
+		}
+
+		File file = new File(directory, digest + FILE_SUFFIX);
+		try {
+			File temp = File.createTempFile("wiquery", ".tmp", directory);
+			OutputStream out = new FileOutputStream(temp);
+			try {
+				out.write((entry.compressionTime + "\n" + entry.compressed)
+						.getBytes("UTF-8"));
+			} finally {
+				out.close();
+			}
+
+			if (!temp.renameTo(file)) {
+				temp.delete();
+			}
+
+		} catch (IOException e) {
+			log.warn("Unable to write the compressed source " + file, e);
+		}
+	}
+}
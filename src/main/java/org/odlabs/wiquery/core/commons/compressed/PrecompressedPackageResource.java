@@ -0,0 +1,330 @@
+package org.odlabs.wiquery.core.commons.compressed;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.ResourceReference;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.markup.html.CompressedPackageResource;
+import org.apache.wicket.markup.html.PackageResource;
+import org.apache.wicket.protocol.http.WebResponse;
+import org.apache.wicket.util.io.Streams;
+import org.apache.wicket.util.resource.AbstractResourceStream;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.ResourceStreamNotFoundException;
+import org.apache.wicket.util.time.Time;
+
+/**
+ * {@link CompressedPackageResource} which serves the gzipped version prepared
+ * at build time by the {@link YUIResourcePrecompressor} (<i>foo.js.gz</i>)
+ * when it exists and is up to date. Otherwise the resource is gzipped once, on
+ * first use. In both cases the content and its gzipped variant are read once
+ * and kept in the {@link CompressedResourceCache}. The variant is selected by the
+ * <i>Accept-Encoding</i> header (see {@link AcceptEncoding}).
+ */
+public class PrecompressedPackageResource extends CompressedPackageResource
+		implements ICachedResource {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The last entry read, when it is too large for the
+	 * {@link CompressedResourceCache} (or the cache is disabled)
+	 */
+	private transient volatile CompressedResourceCache.Entry uncachedEntry;
+
+	/**
+	 * Resource Stream reading the gzipped version of the package resource.
+	 */
+	protected abstract class PrecompressedResourceStream implements
+			IResourceStream {
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * @see org.apache.wicket.util.resource.IResourceStream#close()
+		 */
+		public void close() throws IOException {
+			getPrecompressedResourceStream().close();
+		}
+
+		/**
+		 * @see org.apache.wicket.util.resource.IResourceStream#getContentType()
+		 */
+		public String getContentType() {
+			return getOriginalResourceStream().getContentType();
+		}
+
+		/**
+		 * @see org.apache.wicket.util.resource.IResourceStream#getInputStream()
+		 */
+		public InputStream getInputStream()
+				throws ResourceStreamNotFoundException {
+			return getPrecompressedResourceStream().getInputStream();
+		}
+
+		/**
+		 * @see org.apache.wicket.util.resource.IResourceStream#getLocale()
+		 */
+		public Locale getLocale() {
+			return getOriginalResourceStream().getLocale();
+		}
+
+		/**
+		 * @see org.apache.wicket.util.watch.IModifiable#lastModifiedTime()
+		 */
+		public Time lastModifiedTime() {
+			return getOriginalResourceStream().lastModifiedTime();
+		}
+
+		/**
+		 * @see org.apache.wicket.util.resource.IResourceStream#length()
+		 */
+		public long length() {
+			return getPrecompressedResourceStream().length();
+		}
+
+		/**
+		 * @see org.apache.wicket.util.resource.IResourceStream#setLocale(java.util.Locale)
+		 */
+		public void setLocale(Locale locale) {
+			getOriginalResourceStream().setLocale(locale);
+		}
+
+		@Override
+		public String toString() {
+			return getPrecompressedResourceStream().toString();
+		}
+
+		protected abstract IResourceStream getOriginalResourceStream();
+
+		protected abstract IResourceStream getPrecompressedResourceStream();
+	}
+
+	/**
+	 * Create a new PackageResource
+	 *
+	 * @param scope
+	 *            This argument will be used to get the class loader for loading
+	 *            the package resource, and to determine what package it is in.
+	 *            Typically this is the class in which you call this method
+	 * @param path
+	 *            The path to the resource
+	 * @param locale
+	 *            The locale of the resource
+	 * @param style
+	 *            The style of the resource (see
+	 *            {@link org.apache.wicket.Session})
+	 * @return The resource
+	 */
+	public static PackageResource newPackageResource(final Class<?> scope,
+			final String path, final Locale locale, final String style) {
+		return new PrecompressedPackageResource(scope, path, locale, style);
+	}
+
+	/**
+	 * Create the package resource of a resource reference, and sets the
+	 * locale of the reference to the one of the resource
+	 *
+	 * @param reference
+	 *            the resource reference
+	 * @return The resource
+	 * @throws IllegalArgumentException
+	 *             if the package resource can't be found
+	 */
+	public static PackageResource newPackageResource(ResourceReference reference) {
+		PackageResource packageResource = newPackageResource(reference
+				.getScope(), reference.getName(), reference.getLocale(),
+				reference.getStyle());
+		if (packageResource == null) {
+			throw new IllegalArgumentException("package resource [scope="
+					+ reference.getScope() + ",name=" + reference.getName()
+					+ ",locale=" + reference.getLocale() + ",style="
+					+ reference.getStyle() + "] not found");
+		}
+
+		reference.setLocale(packageResource.getLocale());
+		return packageResource;
+	}
+
+	/**
+	 * Creates a new precompressed package resource.
+	 *
+	 * @param scope
+	 * @param path
+	 * @param locale
+	 * @param style
+	 */
+	protected PrecompressedPackageResource(Class<?> scope, String path,
+			Locale locale, String style) {
+		super(scope, path, locale, style);
+	}
+
+	/**
+	 * @return the gzipped version of the package resource, or
+	 *         <code>null</code> if there is none or if it is older than the
+	 *         package resource
+	 */
+	private IResourceStream locatePrecompressed() {
+		IResourceStream precompressed = Application.get()
+				.getResourceSettings().getResourceStreamLocator().locate(
+						getScope(),
+						getAbsolutePath()
+								+ YUIResourcePrecompressor.GZIP_SUFFIX);
+
+		if (precompressed != null) {
+			Time original = getPackageResourceStream().lastModifiedTime();
+			Time gzipped = precompressed.lastModifiedTime();
+
+			if (original != null && gzipped != null && gzipped.before(original)) {
+				return null;
+			}
+		}
+
+		return precompressed;
+	}
+
+	/**
+	 * Returns the content of the package resource and its gzipped variant
+	 * from the {@link CompressedResourceCache}. On first use, the gzipped
+	 * variant is read from the precompressed version, or the content is
+	 * gzipped when there is none.
+	 *
+	 * @return the cache entry
+	 */
+	private CompressedResourceCache.Entry getCachedEntry() {
+		IResourceStream stream = getPackageResourceStream();
+		CompressedResourceCache cache = CompressedResourceCache.get();
+		String key = getAbsolutePath() + "_" + getLocale() + "_" + getStyle()
+				+ "_raw";
+		Time timeStamp = stream.lastModifiedTime();
+		CompressedResourceCache.Entry entry = getEntry(cache, key, timeStamp);
+		if (entry != null) {
+			return entry;
+		}
+
+		synchronized (this) {
+			// another request may have gzipped it meanwhile
+			entry = getEntry(cache, key, timeStamp);
+			if (entry != null) {
+				return entry;
+			}
+
+			byte[] content = read(stream);
+			IResourceStream precompressed = locatePrecompressed();
+			if (precompressed != null) {
+				entry = cache.put(key, content, read(precompressed), timeStamp);
+			} else {
+				entry = cache.put(key, content, timeStamp);
+			}
+
+			uncachedEntry = cache.contains(key, entry) ? null : entry;
+			return entry;
+		}
+	}
+
+	/**
+	 * @return the up to date entry of the cache, or else the last uncached
+	 *         entry if it is up to date, <code>null</code> otherwise
+	 */
+	private CompressedResourceCache.Entry getEntry(
+			CompressedResourceCache cache, String key, Time timeStamp) {
+		CompressedResourceCache.Entry entry = cache.get(key);
+		if (entry == null || !entry.isUpToDate(timeStamp)) {
+			entry = uncachedEntry;
+		}
+		return entry != null && entry.isUpToDate(timeStamp) ? entry : null;
+	}
+
+	/**
+	 * Reads and closes a resource stream
+	 *
+	 * @param stream
+	 * @return the content of the stream
+	 */
+	private static byte[] read(IResourceStream stream) {
+		try {
+			int length = (int) stream.length();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(
+					length > 0 ? length : 0);
+			try {
+				Streams.copy(stream.getInputStream(), out);
+			} finally {
+				stream.close();
+			}
+
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new WicketRuntimeException(e);
+		} catch (ResourceStreamNotFoundException e) {
+			throw new WicketRuntimeException(e);
+		}
+	}
+
+	/**
+	 * @see org.odlabs.wiquery.core.commons.compressed.ICachedResource#cacheContent()
+	 */
+	public void cacheContent() {
+		getCachedEntry();
+	}
+
+	/**
+	 * @see org.apache.wicket.markup.html.CompressedPackageResource#setHeaders(org.apache.wicket.protocol.http.WebResponse)
+	 * @see AcceptEncoding#setHeaders(WebResponse)
+	 */
+	@Override
+	protected void setHeaders(WebResponse response) {
+		super.setHeaders(response);
+		AcceptEncoding.setHeaders(response);
+	}
+
+	/**
+	 * @see org.apache.wicket.markup.html.CompressedPackageResource#newResourceStream()
+	 */
+	@Override
+	protected IResourceStream newResourceStream() {
+		return new PrecompressedResourceStream() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected IResourceStream getOriginalResourceStream() {
+				return getPackageResourceStream();
+			}
+
+			@Override
+			protected IResourceStream getPrecompressedResourceStream() {
+				// the stream is shared by the requests: both variants are served
+				// from the cache, without opening a stream
+				final CompressedResourceCache.Entry entry = getCachedEntry();
+				return new AbstractResourceStream() {
+					private static final long serialVersionUID = 1L;
+
+					public InputStream getInputStream()
+							throws ResourceStreamNotFoundException {
+						if (AcceptEncoding.supportsCompression()) {
+							return entry.getGzippedInputStream();
+						}
+						return entry.getInputStream();
+					}
+
+					public void close() throws IOException {
+					}
+
+					@Override
+					public long length() {
+						if (AcceptEncoding.supportsCompression()) {
+							return entry.getGzippedLength();
+						}
+						return entry.getLength();
+					}
+
+					@Override
+					public Time lastModifiedTime() {
+						return entry.lastModifiedTime();
+					}
+				};
+			}
+		};
+	}
+}
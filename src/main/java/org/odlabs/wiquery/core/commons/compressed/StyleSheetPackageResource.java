@@ -1,10 +1,8 @@
 package org.odlabs.wiquery.core.commons.compressed;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.lang.ref.SoftReference;
 import java.util.Locale;
 
 import org.apache.wicket.Application;
@@ -17,6 +15,7 @@ import org.apache.wicket.markup.html.IHeaderContributor;
 import org.apache.wicket.markup.html.IHeaderResponse;
 import org.apache.wicket.markup.html.PackageResource;
 import org.apache.wicket.markup.html.resources.JavascriptResourceReference;
+import org.apache.wicket.protocol.http.WebResponse;
 import org.apache.wicket.util.io.Streams;
 import org.apache.wicket.util.resource.IResourceStream;
 import org.apache.wicket.util.resource.ResourceStreamNotFoundException;
@@ -25,12 +24,16 @@ import org.apache.wicket.util.time.Time;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class StyleSheetPackageResource extends CompressedPackageResource {
+public class StyleSheetPackageResource extends CompressedPackageResource
+		implements ICachedResource {
 	private static final long serialVersionUID = 1L;;
 
 	private static final Logger log = LoggerFactory
 			.getLogger(StyleSheetPackageResource.class);
 
+	/** The stylesheet compressor, stateless so it is shared by all requests */
+	private static final YUIStyleSheetCompressor STYLESHEET_COMPRESSOR = new YUIStyleSheetCompressor();
+
 	/**
 	 * Returns a new instance of {@link HeaderContributor} with a header
 	 * contributor that references a java script file that lives in a package.
@@ -118,18 +121,21 @@ public class StyleSheetPackageResource extends CompressedPackageResource {
 	}
 
 	/**
-	 * Resource Stream that caches the stripped content.
+	 * Resource Stream that caches the stripped content in the
+	 * {@link CompressedResourceCache}. The content is filtered once, the
+	 * concurrent requests for the same resource wait for it instead of
+	 * filtering it again.
 	 * 
 	 * @author Matej Knopp
 	 */
 	protected abstract class FilteringResourceStream implements IResourceStream {
 		private static final long serialVersionUID = 1L;
 
-		/** Cache for compressed data */
-		private SoftReference<byte[]> cache = new SoftReference<byte[]>(null);
-
-		/** Timestamp of the cache */
-		private Time timeStamp = null;
+		/**
+		 * The last filtered content, when it is too large for the
+		 * {@link CompressedResourceCache} (or the cache is disabled)
+		 */
+		private transient volatile CompressedResourceCache.Entry uncachedEntry;
 
 		/**
 		 * @see org.apache.wicket.util.resource.IResourceStream#close()
@@ -149,7 +155,7 @@ public class StyleSheetPackageResource extends CompressedPackageResource {
 		 */
 		public InputStream getInputStream()
 				throws ResourceStreamNotFoundException {
-			return new ByteArrayInputStream(getFilteredContent());
+			return getFilteredEntry().getInputStream();
 		}
 
 		/**
@@ -170,7 +176,7 @@ public class StyleSheetPackageResource extends CompressedPackageResource {
 		 * @see org.apache.wicket.util.resource.IResourceStream#length()
 		 */
 		public long length() {
-			return getFilteredContent().length;
+			return getFilteredEntry().getLength();
 		}
 
 		/**
@@ -186,32 +192,84 @@ public class StyleSheetPackageResource extends CompressedPackageResource {
 		}
 
 		/**
-		 * @return compressed content
+		 * @return an input stream reading the gzipped filtered content
+		 */
+		InputStream getGzippedInputStream() {
+			return getFilteredEntry().getGzippedInputStream();
+		}
+
+		/**
+		 * @return the length of the gzipped filtered content
+		 */
+		long gzippedLength() {
+			return getFilteredEntry().getGzippedLength();
+		}
+
+		/**
+		 * @return the cache entry holding the filtered content
 		 */
-		private byte[] getFilteredContent() {
+		private CompressedResourceCache.Entry getFilteredEntry() {
 			IResourceStream stream = getOriginalResourceStream();
-			try {
-				byte ret[] = cache.get();
-				if (ret != null && timeStamp != null) {
-					if (timeStamp.equals(stream.lastModifiedTime())) {
-						return ret;
+			CompressedResourceCache cache = CompressedResourceCache.get();
+			String key = getCacheKey();
+			Time timeStamp = stream.lastModifiedTime();
+			CompressedResourceCache.Entry entry = getEntry(cache, key,
+					timeStamp);
+			if (entry != null) {
+				return entry;
+			}
+
+			synchronized (this) {
+				// another request may have filtered it meanwhile
+				entry = getEntry(cache, key, timeStamp);
+				if (entry != null) {
+					return entry;
+				}
+
+				try {
+					int length = (int) stream.length();
+					ByteArrayOutputStream out = new ByteArrayOutputStream(
+							length > 0 ? length : 0);
+					try {
+						Streams.copy(stream.getInputStream(), out);
+					} finally {
+						stream.close();
 					}
+
+					entry = cache.put(key, filterContent(out.toByteArray()),
+							timeStamp);
+					uncachedEntry = cache.contains(key, entry) ? null : entry;
+					return entry;
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				} catch (ResourceStreamNotFoundException e) {
+					throw new RuntimeException(e);
 				}
+			}
+		}
 
-				int length = (int) stream.length();
-				ByteArrayOutputStream out = new ByteArrayOutputStream(
-						length > 0 ? length : 0);
-				Streams.copy(stream.getInputStream(), out);
-				stream.close();
-				ret = filterContent(out.toByteArray());
-				timeStamp = stream.lastModifiedTime();
-				cache = new SoftReference<byte[]>(ret);
-				return ret;
-			} catch (IOException e) {
-				throw new RuntimeException(e);
-			} catch (ResourceStreamNotFoundException e) {
-				throw new RuntimeException(e);
+		/**
+		 * @return the up to date entry of the cache, or else the last
+		 *         uncached entry if it is up to date, <code>null</code>
+		 *         otherwise
+		 */
+		private CompressedResourceCache.Entry getEntry(
+				CompressedResourceCache cache, String key, Time timeStamp) {
+			CompressedResourceCache.Entry entry = cache.get(key);
+			if (entry == null || !entry.isUpToDate(timeStamp)) {
+				entry = uncachedEntry;
 			}
+			return entry != null && entry.isUpToDate(timeStamp) ? entry : null;
+		}
+
+		/**
+		 * @return the key of the filtered content in the
+		 *         {@link CompressedResourceCache}
+		 */
+		protected String getCacheKey() {
+			return getAbsolutePath() + "_"
+					+ StyleSheetPackageResource.this.getLocale() + "_"
+					+ getStyle();
 		}
 
 		protected abstract byte[] filterContent(byte[] input);
@@ -253,6 +311,25 @@ public class StyleSheetPackageResource extends CompressedPackageResource {
 		super(scope, path, locale, style);
 	}
 
+	/**
+	 * @see org.odlabs.wiquery.core.commons.compressed.ICachedResource#cacheContent()
+	 */
+	public void cacheContent() {
+		// both variants are held by the entry of the filtered content, which
+		// is built by the first use of the stream
+		getResourceStream().length();
+	}
+
+	/**
+	 * @see org.apache.wicket.markup.html.CompressedPackageResource#setHeaders(org.apache.wicket.protocol.http.WebResponse)
+	 * @see AcceptEncoding#setHeaders(WebResponse)
+	 */
+	@Override
+	protected void setHeaders(WebResponse response) {
+		super.setHeaders(response);
+		AcceptEncoding.setHeaders(response);
+	}
+
 	/**
 	 * @see org.apache.wicket.markup.html.CompressedPackageResource#newResourceStream()
 	 */
@@ -277,8 +354,8 @@ public class StyleSheetPackageResource extends CompressedPackageResource {
 							.getResourceSettings().getJavascriptCompressor();
 					if (compressor != null && compressor instanceof YUIJavaScriptCompressor) {
 						String s = new String(input, "UTF-8");
-						return new YUIStyleSheetCompressor().compress(s)
-								.getBytes("UTF-8");
+						return STYLESHEET_COMPRESSOR.compress(s).getBytes(
+								"UTF-8");
 					}
 
 					// don't strip the comments, just return original input
@@ -295,9 +372,28 @@ public class StyleSheetPackageResource extends CompressedPackageResource {
 			}
 		};
 
+		// Serves the gzipped variant held by the cache instead of gzipping
+		// the content again
 		return new CompressingResourceStream() {
 			private static final long serialVersionUID = 1L;
 
+			@Override
+			public InputStream getInputStream()
+					throws ResourceStreamNotFoundException {
+				if (AcceptEncoding.supportsCompression()) {
+					return filteringStream.getGzippedInputStream();
+				}
+				return filteringStream.getInputStream();
+			}
+
+			@Override
+			public long length() {
+				if (AcceptEncoding.supportsCompression()) {
+					return filteringStream.gzippedLength();
+				}
+				return filteringStream.length();
+			}
+
 			@Override
 			protected IResourceStream getOriginalResourceStream() {
 				return filteringStream;
@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 
+import org.apache.wicket.Application;
 import org.apache.wicket.javascript.IJavascriptCompressor;
 import org.mozilla.javascript.ErrorReporter;
 import org.mozilla.javascript.EvaluatorException;
@@ -40,7 +41,54 @@ public class YUIJavaScriptCompressor implements IJavascriptCompressor {
 		}
 	};
 
+	/**
+	 * Compresses the source, or returns the compressed version kept by the
+	 * {@link JavaScriptCompressionCache} of the application.
+	 * 
+	 * @see org.apache.wicket.javascript.IJavascriptCompressor#compress(java.lang.String)
+	 */
 	public String compress(String original) {
+		JavaScriptCompressionCache cache = getCache();
+		if (cache == null) {
+			String compressed = compressSource(original);
+			return compressed == null ? original : compressed;
+		}
+
+		String digest = JavaScriptCompressionCache.digest(original);
+		String compressed = cache.get(digest);
+		if (compressed != null) {
+			return compressed;
+		}
+
+		long startTime = System.currentTimeMillis();
+		compressed = compressSource(original);
+		if (compressed == null) {
+			return original;
+		}
+
+		cache.put(digest, compressed, System.currentTimeMillis() - startTime);
+		return compressed;
+	}
+
+	/**
+	 * @return the cache of the application, or <code>null</code> when the
+	 *         compressor is used outside of an application or when the cache
+	 *         is disabled
+	 */
+	private JavaScriptCompressionCache getCache() {
+		if (!Application.exists()) {
+			return null;
+		}
+
+		JavaScriptCompressionCache cache = JavaScriptCompressionCache.get();
+		return cache.isEnabled() ? cache : null;
+	}
+
+	/**
+	 * @return the compressed source, or <code>null</code> if it could not be
+	 *         compressed
+	 */
+	private String compressSource(String original) {
 		long startTime = System.currentTimeMillis();
 		StringReader originalJsReader = new StringReader(original);
 		StringWriter compressedJs = new StringWriter();
@@ -51,14 +99,14 @@ public class YUIJavaScriptCompressor implements IJavascriptCompressor {
 			compressedJs.flush();
 		} catch (IOException e) {
 			log.error(e.getMessage(), e);
-			return original;
+			return null;
 		} catch (RuntimeException e) {
 			if (e.getMessage() == null || e.getMessage().trim().isEmpty())
 				log.error("Failed to compress javascript, no reason was given.");
 			else
 				log.error(e.getMessage(), e);
 
-			return original;
+			return null;
 		}
 
 		long endTime = System.currentTimeMillis();
@@ -0,0 +1,147 @@
+package org.odlabs.wiquery.core.commons.compressed;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.wicket.javascript.IJavascriptCompressor;
+import org.apache.wicket.util.io.Streams;
+
+/**
+ * Build time tool which prepares the packaged javascript and stylesheet
+ * resources, so they don't have to be compressed at runtime:
+ * <ul>
+ * <li>writes the minimized version (<i>foo.min.js</i> / <i>foo.min.css</i>)
+ * of every resource which doesn't ship one, using the YUI Compressor;</li>
+ * <li>writes the gzipped version (<i>foo.js.gz</i>, <i>foo.min.js.gz</i>, ...)
+ * of every resource, which is served by {@link PrecompressedPackageResource}
+ * to the clients accepting gzip.</li>
+ * </ul>
+ * Templates (files containing <code>${</code>) are left untouched.
+ * <p>
+ * Usage: <code>YUIResourcePrecompressor &lt;directory&gt;...</code>, see the
+ * <i>precompress-resources</i> execution in the pom.xml.
+ * </p>
+ */
+public class YUIResourcePrecompressor {
+	/** Suffix of the gzipped resources */
+	public static final String GZIP_SUFFIX = ".gz";
+
+	private final IJavascriptCompressor javascriptCompressor = new YUIJavaScriptCompressor();
+
+	private final IJavascriptCompressor styleSheetCompressor = new YUIStyleSheetCompressor();
+
+	private int minified;
+
+	private int gzipped;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("Usage: YUIResourcePrecompressor <directory>...");
+			System.exit(1);
+		}
+
+		YUIResourcePrecompressor precompressor = new YUIResourcePrecompressor();
+		for (String directory : args) {
+			precompressor.process(new File(directory));
+		}
+
+		System.out.println("Precompressed resources: " + precompressor.minified
+				+ " minified, " + precompressor.gzipped + " gzipped.");
+	}
+
+	/**
+	 * Processes all the resources in the given directory and its
+	 * subdirectories.
+	 *
+	 * @param directory
+	 * @throws IOException
+	 */
+	public void process(File directory) throws IOException {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+
+		// first pass: the missing minimized versions
+		for (File file : files) {
+			String name = file.getName();
+
+			if (file.isDirectory()) {
+				process(file);
+			} else if (name.endsWith(".js") && !name.endsWith(".min.js")) {
+				minify(file, name.substring(0, name.length() - 3) + ".min.js",
+						javascriptCompressor);
+			} else if (name.endsWith(".css") && !name.endsWith(".min.css")) {
+				minify(file, name.substring(0, name.length() - 4) + ".min.css",
+						styleSheetCompressor);
+			}
+		}
+
+		// second pass: the gzipped versions, including the new minimized ones
+		files = directory.listFiles();
+		for (File file : files) {
+			String name = file.getName();
+
+			if (file.isFile() && (name.endsWith(".js") || name.endsWith(".css"))) {
+				gzip(file);
+			}
+		}
+	}
+
+	private void minify(File file, String minifiedName,
+			IJavascriptCompressor compressor) throws IOException {
+		File target = new File(file.getParentFile(), minifiedName);
+		if (target.exists()) {
+			return;
+		}
+
+		String content = read(file);
+		if (content.indexOf("${") >= 0) {
+			return;
+		}
+
+		OutputStream out = new FileOutputStream(target);
+		try {
+			out.write(compressor.compress(content).getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+		minified++;
+	}
+
+	private void gzip(File file) throws IOException {
+		File target = new File(file.getParentFile(), file.getName()
+				+ GZIP_SUFFIX);
+		if (target.exists() && target.lastModified() >= file.lastModified()) {
+			return;
+		}
+
+		if (read(file).indexOf("${") >= 0) {
+			return;
+		}
+
+		InputStream in = new FileInputStream(file);
+		OutputStream out = new GZIPOutputStream(new FileOutputStream(target));
+		try {
+			Streams.copy(in, out);
+		} finally {
+			in.close();
+			out.close();
+		}
+		gzipped++;
+	}
+
+	private static String read(File file) throws IOException {
+		InputStream in = new FileInputStream(file);
+		try {
+			return Streams.readString(in, "UTF-8");
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -1,9 +1,5 @@
 package org.odlabs.wiquery.core.commons.compressed;
 
-import java.io.IOException;
-import java.io.StringReader;
-import java.io.StringWriter;
-
 import org.apache.wicket.javascript.IJavascriptCompressor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,15 +18,9 @@ public class YUIStyleSheetCompressor implements IJavascriptCompressor {
 
 	public String compress(String original) {
 		long startTime = System.currentTimeMillis();
-		StringReader originalCssReader = new StringReader(original);
-		StringWriter compressedCss = new StringWriter();
+		String compressedCss;
 		try {
-			CssCompressor compressor = new CssCompressor(originalCssReader);
-			compressor.compress(compressedCss, -1);
-			compressedCss.flush();
-		} catch (IOException e) {
-			log.error(e.getMessage(), e);
-			return original;
+			compressedCss = CssCompressor.compress(original, -1);
 		} catch (RuntimeException e) {
 			log.error("Failed to compress stylesheet, no reason was given.");
 			return original;
@@ -38,6 +28,6 @@ public class YUIStyleSheetCompressor implements IJavascriptCompressor {
 
 		long endTime = System.currentTimeMillis();
 		log.debug("Compressed CSS in "+(endTime-startTime)+" ms.");
-		return compressedCss.toString();
+		return compressedCss;
 	}
 }
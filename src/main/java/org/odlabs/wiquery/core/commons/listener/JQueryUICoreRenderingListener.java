@@ -85,9 +85,18 @@ public class JQueryUICoreRenderingListener implements
 					// application is not themed, imports default theme
 					response.renderCSSReference(DEFAULT_THEME);
 				}
-				response
-						.renderJavascriptReference(CoreUIJavaScriptResourceReference
-								.get());
+				if (WiQuerySettings.get().isEnableWiqueryResourceManagement()) {
+					// rendered by the resource manager, before the resources
+					// depending on it
+					resourceManager
+							.addJavaScriptResource(CoreUIJavaScriptResourceReference
+									.get());
+				} else {
+					// the resource manager isn't rendered
+					response
+							.renderJavascriptReference(CoreUIJavaScriptResourceReference
+									.get());
+				}
 			}
 		}
 	}
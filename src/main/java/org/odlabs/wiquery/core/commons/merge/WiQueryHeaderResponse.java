@@ -50,7 +50,10 @@ public class WiQueryHeaderResponse extends HeaderResponse implements Serializabl
 	 * Method calculating the names for the merged resources (for the browser's cache)
 	 * @param resources
 	 * @return the name
+	 * @deprecated the merged resources are now named by a digest of their
+	 *             content, see {@link WiQueryMergedResourceReference}
 	 */
+	@Deprecated
 	public static CharSequence getMergedResourceName(Collection<ResourceReference> resources) {
 		StringBuffer buffer = new StringBuffer();
 		
@@ -21,19 +21,19 @@
  */
 package org.odlabs.wiquery.core.commons.merge;
 
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.wicket.Application;
-import org.apache.wicket.IClusterable;
-import org.apache.wicket.Resource;
 import org.apache.wicket.ResourceReference;
+import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.javascript.IJavascriptCompressor;
 import org.apache.wicket.markup.html.resources.JavascriptResourceReference;
 import org.apache.wicket.util.io.Streams;
-import org.apache.wicket.util.lang.Packages;
 import org.apache.wicket.util.resource.IResourceStream;
-import org.apache.wicket.util.resource.StringResourceStream;
 import org.apache.wicket.util.template.PackagedTextTemplate;
 import org.apache.wicket.util.time.Time;
 import org.slf4j.Logger;
@@ -51,7 +51,7 @@ import org.slf4j.LoggerFactory;
  *
  */
 public class WiQueryMergedJavaScriptResourceReference extends
-	ResourceReference implements IClusterable {
+	WiQueryMergedResourceReference {
 	// Constants
 	/**	Constant of serialization */
 	private static final long serialVersionUID = 6038498199511603297L;
@@ -65,88 +65,116 @@ public class WiQueryMergedJavaScriptResourceReference extends
 	/** Logger */
 	private static final Logger LOGGER = LoggerFactory.getLogger(WiQueryMergedJavaScriptResourceReference.class);
 	
+	/**
+	 * Returns the merged content from the {@link WiQueryMergedResourceCache},
+	 * building it if none of the cached bundles matches the given members.
+	 * 
+	 * @param javascript
+	 *            the members
+	 * @return the merged content
+	 */
+	private static WiQueryMergedResourceCache.Entry getMergedContent(List<ResourceReference> javascript) {
+		Application application = Application.get();
+		WiQueryMergedResourceCache cache = WiQueryMergedResourceCache.get();
+		IJavascriptCompressor compressor = application
+			.getResourceSettings()
+			.getJavascriptCompressor();
+		
+		List<IResourceStream> resources = new ArrayList<IResourceStream>(javascript.size());
+		StringBuilder key = new StringBuilder(TEMPLATE_NAME);
+		key.append('|').append(compressor == null ? "" : compressor.getClass().getName());
+		Time lastModified = locateMembers(javascript, key, resources);
+		
+		WiQueryMergedResourceCache.Entry entry = cache.get(key.toString());
+		if (entry != null) {
+			return entry;
+		}
+		
+		String temp;
+		List<String> sources = new ArrayList<String>(javascript.size());
+		for(int i = 0; i < javascript.size(); i++){
+			// We bind the resources into the SharedResources
+			javascript.get(i).bind(application);
+			
+			// We insert the javascript code into the template
+			temp = null;
+			try {
+				IResourceStream resource = resources.get(i);
+				if(resource!=null)						
+					temp = Streams.readString(resource.getInputStream());
+			} catch (Exception e) {
+				temp = null;
+				LOGGER.error("error in merged processing", e);
+			}
+			
+			sources.add(temp);
+		}
+		
+		if(compressor != null){
+			// The members are compressed in parallel
+			sources = WiQueryMergedResourceCompressor.get().compress(sources, compressor);
+		}
+		
+		StringBuilder buffer = new StringBuilder();
+		for(String source : sources){
+			if(source != null){
+				buffer.append(source).append("\r\n");
+			}
+		}
+		
+		Map<String, Object> genJs = new HashMap<String, Object>();
+		genJs.put("wiqueryresources", buffer);
+		PackagedTextTemplate jstemplate = new PackagedTextTemplate(
+				WiQueryMergedJavaScriptResourceReference.class, 
+				TEMPLATE_NAME);
+		
+		try {
+			return cache.put(key.toString(),
+					jstemplate.asString(genJs).getBytes("UTF-8"), lastModified);
+			
+		} catch (UnsupportedEncodingException e) {
+			throw new WicketRuntimeException(e);
+		}
+	}
+	
 	// Properties
-	private PackagedTextTemplate jstemplate;
-	private WiQueryHeaderResponse wiQueryHeaderResponse;
+	private final List<ResourceReference> javascript;
 	
 	/**
 	 * Default constructor
 	 */
 	public WiQueryMergedJavaScriptResourceReference(WiQueryHeaderResponse wiQueryHeaderResponse) {
+		// The header response is flushed on each rendering, so we keep our own copy
+		this(new ArrayList<ResourceReference>(wiQueryHeaderResponse.getJavascript()));
+	}
+	
+	/**
+	 * Constructor
+	 * @param javascript the members
+	 */
+	private WiQueryMergedJavaScriptResourceReference(List<ResourceReference> javascript) {
 		super(WiQueryMergedJavaScriptResourceReference.class, 
-				TEMPLATE_NAME + "_" + 
-				WiQueryHeaderResponse.getMergedResourceName(wiQueryHeaderResponse.getJavascript()));
+				"wiquery-merged", "js",
+				getMergedContent(javascript));
 		
-		this.wiQueryHeaderResponse = wiQueryHeaderResponse;
-		jstemplate = new PackagedTextTemplate(
-				WiQueryMergedJavaScriptResourceReference.class, 
-				TEMPLATE_NAME);
+		this.javascript = javascript;
 	}
 	
 	/**
-	 * Returns the last modified time of the {@link PackagedTextTemplate}
-	 * itself.
-	 * 
-	 * @return the last modified time of the {@link PackagedTextTemplate} itself
+	 * {@inheritDoc}
+	 * @see org.odlabs.wiquery.core.commons.merge.WiQueryMergedResourceReference#getContentType()
 	 */
-	public Time lastModifiedTime() {
-		return jstemplate.lastModifiedTime();
+	@Override
+	protected String getContentType() {
+		return CONTENT_TYPE;
 	}
 	
 	/**
 	 * {@inheritDoc}
+	 * @see org.odlabs.wiquery.core.commons.merge.WiQueryMergedResourceReference#getMergedContent()
 	 */
 	@Override
-	protected Resource newResource() {
-		return new Resource() {
-			private static final long serialVersionUID = 1L;
-
-			/**
-			 * {@inheritDoc}
-			 */
-			public IResourceStream getResourceStream() {
-				String temp = null;
-				Application application = Application.get();
-				StringBuffer buffer = new StringBuffer();
-				IJavascriptCompressor compressor = application
-					.getResourceSettings()
-					.getJavascriptCompressor();
-				
-				for(ResourceReference ref : wiQueryHeaderResponse.getJavascript()){
-					// We bind the resources into the SharedResources
-					ref.bind(Application.get());
-					
-					// We insert the javascript code into the template
-					try {
-						IResourceStream resource =
-							Application.get().getResourceSettings().getResourceStreamLocator().locate(
-							getClass(),
-								"/" + Packages.absolutePath(
-										ref.getScope(),	"") 
-										+ "/" + ref.getName());
-						if(resource!=null)						
-							temp = Streams.readString(resource.getInputStream());
-					} catch (Exception e) {
-						temp = null;
-						e.printStackTrace();
-						LOGGER.error("error in merged processing", e);
-					}
-					
-					if(compressor != null && temp != null){
-						temp = compressor.compress(temp);
-					}
-					
-					if(temp != null){
-						buffer.append(temp).append("\r\n");
-					}
-				}
-				
-				Map<String, Object> genJs = new HashMap<String, Object>();
-				genJs.put("wiqueryresources", buffer);
-				jstemplate.interpolate(genJs);
-				
-				return new StringResourceStream(jstemplate.asString(), CONTENT_TYPE);
-			}
-		};
+	protected WiQueryMergedResourceCache.Entry getMergedContent() {
+		return getMergedContent(javascript);
 	}
 }
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons.merge;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.util.time.Time;
+import org.odlabs.wiquery.core.commons.WiQuerySettings;
+import org.odlabs.wiquery.core.commons.compressed.CompressedResourceCache;
+
+/**
+ * <p>
+ * Application scoped cache of the merged resources. Each entry holds the
+ * compressed content of a bundle and its gzipped variant, so a bundle is
+ * only rebuilt when one of its members changes or when it has been evicted.
+ * </p>
+ *
+ * <p>
+ * The cache is bounded by a number of entries (see
+ * {@link WiQuerySettings#getMergedResourceCacheSize()}),
+ * the least recently used bundle is evicted first.
+ * </p>
+ *
+ * @since 1.2.5
+ */
+public class WiQueryMergedResourceCache {
+	/**
+	 * Entry of the cache
+	 */
+	public static class Entry {
+		// Properties
+		private final byte[] content;
+		private final String digest;
+		private final byte[] gzippedContent;
+		private final Time lastModifiedTime;
+
+		/**
+		 * Constructor
+		 *
+		 * @param content
+		 *            the merged content
+		 * @param lastModifiedTime
+		 *            the last modified time of the newest member
+		 */
+		public Entry(byte[] content, Time lastModifiedTime) {
+			super();
+			this.content = content;
+			this.digest = digest(content);
+			this.gzippedContent = gzip(content);
+			this.lastModifiedTime = lastModifiedTime;
+		}
+
+		/**
+		 * @return the merged content
+		 */
+		public byte[] getContent() {
+			return content;
+		}
+
+		/**
+		 * @return a short hexadecimal digest of the merged content
+		 */
+		public String getDigest() {
+			return digest;
+		}
+
+		/**
+		 * @return the gzipped merged content
+		 */
+		public byte[] getGzippedContent() {
+			return gzippedContent;
+		}
+
+		/**
+		 * @return the last modified time of the newest member
+		 */
+		public Time lastModifiedTime() {
+			return lastModifiedTime;
+		}
+	}
+
+	// Constants
+	/** Length of the digests */
+	private static final int DIGEST_LENGTH = 16;
+	
+	/** Number of rewritten stylesheets kept per bundle */
+	private static final int STYLESHEETS_PER_BUNDLE = 8;
+
+	/**
+	 * Meta data for {@link WiQueryMergedResourceCache}.
+	 */
+	public static final MetaDataKey<WiQueryMergedResourceCache> WIQUERY_MERGED_CACHE_KEY = new MetaDataKey<WiQueryMergedResourceCache>() {
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * Get {@link WiQueryMergedResourceCache} for current thread. The cache is
+	 * created on first use, with the size given by the {@link WiQuerySettings}.
+	 *
+	 * @return The cache
+	 */
+	public static WiQueryMergedResourceCache get() {
+		Application application = Application.get();
+		WiQueryMergedResourceCache instance = application
+				.getMetaData(WIQUERY_MERGED_CACHE_KEY);
+
+		if (instance == null) {
+			synchronized (WiQueryMergedResourceCache.class) {
+				instance = application.getMetaData(WIQUERY_MERGED_CACHE_KEY);
+
+				if (instance == null) {
+					instance = new WiQueryMergedResourceCache(WiQuerySettings
+							.get().getMergedResourceCacheSize());
+					application.setMetaData(WIQUERY_MERGED_CACHE_KEY, instance);
+				}
+			}
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Method computing a short (16 hexadecimal characters) digest of the
+	 * given content
+	 *
+	 * @param content
+	 * @return the digest
+	 */
+	static String digest(byte[] content) {
+		try {
+			byte[] hash = MessageDigest.getInstance("MD5").digest(content);
+			StringBuilder buffer = new StringBuilder(DIGEST_LENGTH);
+
+			for (int i = 0; i < DIGEST_LENGTH / 2; i++) {
+				buffer.append(Character.forDigit((hash[i] >> 4) & 0xF, 16));
+				buffer.append(Character.forDigit(hash[i] & 0xF, 16));
+			}
+
+			return buffer.toString();
+
+		} catch (NoSuchAlgorithmException e) {
+			throw new WicketRuntimeException(e);
+		}
+	}
+
+	/**
+	 * Method compressing the given content with gzip
+	 *
+	 * @param content
+	 * @return the gzipped content
+	 */
+	static byte[] gzip(byte[] content) {
+		return CompressedResourceCache.gzip(content);
+	}
+
+	// Properties
+	private final Map<String, Entry> entries;
+	private final Map<String, String> styleSheets;
+	private long hitCount;
+	private long missCount;
+	private long evictionCount;
+
+	/**
+	 * Constructor
+	 *
+	 * @param maxEntries
+	 *            maximum number of bundles to keep
+	 */
+	public WiQueryMergedResourceCache(final int maxEntries) {
+		super();
+		entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			/**
+			 * {@inheritDoc}
+			 *
+			 * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+			 */
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, WiQueryMergedResourceCache.Entry> eldest) {
+				if (size() > maxEntries) {
+					evictionCount++;
+					return true;
+				}
+
+				return false;
+			}
+		};
+		
+		final int maxStyleSheets = maxEntries * STYLESHEETS_PER_BUNDLE;
+		styleSheets = new LinkedHashMap<String, String>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			/**
+			 * {@inheritDoc}
+			 *
+			 * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+			 */
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+				return size() > maxStyleSheets;
+			}
+		};
+	}
+
+	/**
+	 * Method to clear the cache
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		styleSheets.clear();
+	}
+
+	/**
+	 * Returns the cached bundle for the given key
+	 *
+	 * @param key
+	 * @return the entry or <code>null</code> if the bundle is not cached
+	 */
+	public synchronized Entry get(String key) {
+		Entry entry = entries.get(key);
+
+		if (entry == null) {
+			missCount++;
+
+		} else {
+			hitCount++;
+		}
+
+		return entry;
+	}
+
+	/**
+	 * @return the number of evicted bundles
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return the number of requests served from the cache
+	 */
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of requests which needed to build the bundle
+	 */
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * Stores a bundle
+	 *
+	 * @param key
+	 * @param content
+	 *            the merged content
+	 * @param lastModifiedTime
+	 *            the last modified time of the newest member
+	 * @return the new entry
+	 */
+	public Entry put(String key, byte[] content, Time lastModifiedTime) {
+		Entry entry = new Entry(content, lastModifiedTime);
+
+		synchronized (this) {
+			entries.put(key, entry);
+		}
+
+		return entry;
+	}
+
+	/**
+	 * Returns a member of the merged stylesheets, with its urls already
+	 * rewritten
+	 * 
+	 * @param key
+	 *            the member, its last modified time and the base url
+	 * @return the rewritten stylesheet or <code>null</code> if it is not
+	 *         cached
+	 */
+	public synchronized String getStyleSheet(String key) {
+		return styleSheets.get(key);
+	}
+	
+	/**
+	 * Stores a member of the merged stylesheets, with its urls rewritten, so
+	 * the bundles sharing it don't rewrite it again
+	 * 
+	 * @param key
+	 *            the member, its last modified time and the base url
+	 * @param content
+	 *            the rewritten stylesheet
+	 */
+	public synchronized void putStyleSheet(String key, String content) {
+		styleSheets.put(key, content);
+	}
+	
+	/**
+	 * @return the number of cached bundles
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+}
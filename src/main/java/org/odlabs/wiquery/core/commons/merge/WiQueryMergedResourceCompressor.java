@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons.merge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.WicketRuntimeException;
+import org.apache.wicket.javascript.IJavascriptCompressor;
+import org.odlabs.wiquery.core.commons.WiQuerySettings;
+
+/**
+ * <p>
+ * Application scoped pool compressing the members of a merged resource in
+ * parallel, so the first request of a bundle doesn't wait for each member to
+ * be compressed in turn.
+ * </p>
+ *
+ * <p>
+ * The pool is bounded by a number of threads (see
+ * {@link WiQuerySettings#getMergedResourceCompressionThreads()}), which are
+ * released when idle. With less than two threads, the members are compressed
+ * by the calling thread.
+ * </p>
+ *
+ * @since 1.2.5
+ */
+public class WiQueryMergedResourceCompressor {
+	// Constants
+	/** Time after which the idle threads are released (seconds) */
+	private static final long KEEP_ALIVE = 60;
+
+	/**
+	 * Meta data for {@link WiQueryMergedResourceCompressor}.
+	 */
+	public static final MetaDataKey<WiQueryMergedResourceCompressor> WIQUERY_MERGED_COMPRESSOR_KEY = new MetaDataKey<WiQueryMergedResourceCompressor>() {
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * Get {@link WiQueryMergedResourceCompressor} for current thread. The pool
+	 * is created on first use, with the size given by the
+	 * {@link WiQuerySettings}.
+	 *
+	 * @return The compressor
+	 */
+	public static WiQueryMergedResourceCompressor get() {
+		Application application = Application.get();
+		WiQueryMergedResourceCompressor instance = application
+				.getMetaData(WIQUERY_MERGED_COMPRESSOR_KEY);
+
+		if (instance == null) {
+			synchronized (WiQueryMergedResourceCompressor.class) {
+				instance = application.getMetaData(WIQUERY_MERGED_COMPRESSOR_KEY);
+
+				if (instance == null) {
+					instance = new WiQueryMergedResourceCompressor(application,
+							WiQuerySettings.get().getMergedResourceCompressionThreads());
+					application.setMetaData(WIQUERY_MERGED_COMPRESSOR_KEY, instance);
+				}
+			}
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Releases the threads of the compressor of the given application, if it
+	 * has been created.
+	 *
+	 * @param application
+	 */
+	public static void shutdown(Application application) {
+		WiQueryMergedResourceCompressor instance = application
+				.getMetaData(WIQUERY_MERGED_COMPRESSOR_KEY);
+
+		if (instance != null && instance.executor != null) {
+			instance.executor.shutdown();
+		}
+	}
+
+	// Properties
+	private final Application application;
+	private final ExecutorService executor;
+
+	/**
+	 * Constructor
+	 *
+	 * @param application
+	 *            the application, made available to the compressing threads
+	 * @param threads
+	 *            maximum number of compressing threads
+	 */
+	public WiQueryMergedResourceCompressor(final Application application, int threads) {
+		super();
+		this.application = application;
+
+		if (threads < 2) {
+			executor = null;
+
+		} else {
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+					KEEP_ALIVE, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+						private final AtomicInteger count = new AtomicInteger();
+
+						/**
+						 * {@inheritDoc}
+						 *
+						 * @see java.util.concurrent.ThreadFactory#newThread(java.lang.Runnable)
+						 */
+						public Thread newThread(Runnable runnable) {
+							Thread thread = new Thread(runnable, "wiquery-compressor-"
+									+ application.getName() + "-" + count.incrementAndGet());
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			pool.allowCoreThreadTimeOut(true);
+			executor = pool;
+		}
+	}
+
+	/**
+	 * Compresses the given sources
+	 *
+	 * @param sources
+	 *            the sources, <code>null</code> values are left as is
+	 * @param compressor
+	 *            the compressor
+	 * @return the compressed sources, in the same order
+	 */
+	public List<String> compress(List<String> sources, final IJavascriptCompressor compressor) {
+		List<String> compressed = new ArrayList<String>(sources.size());
+
+		if (executor == null || sources.size() < 2) {
+			for (String source : sources) {
+				compressed.add(compress(source, compressor));
+			}
+			return compressed;
+		}
+
+		List<Future<String>> futures = new ArrayList<Future<String>>(sources.size());
+		for (final String source : sources) {
+			futures.add(executor.submit(new Callable<String>() {
+				/**
+				 * {@inheritDoc}
+				 *
+				 * @see java.util.concurrent.Callable#call()
+				 */
+				public String call() {
+					// The compressors may look for the application settings
+					Application.set(application);
+					try {
+						return compress(source, compressor);
+					} finally {
+						Application.unset();
+					}
+				}
+			}));
+		}
+
+		try {
+			for (Future<String> future : futures) {
+				compressed.add(future.get());
+			}
+
+		} catch (InterruptedException e) {
+			for (Future<String> future : futures) {
+				future.cancel(true);
+			}
+			Thread.currentThread().interrupt();
+			throw new WicketRuntimeException(e);
+
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new WicketRuntimeException(e.getCause());
+		}
+
+		return compressed;
+	}
+
+	/**
+	 * Compresses one source
+	 *
+	 * @param source
+	 * @param compressor
+	 * @return the compressed source, or <code>null</code>
+	 */
+	private String compress(String source, IJavascriptCompressor compressor) {
+		return source == null ? null : compressor.compress(source);
+	}
+}
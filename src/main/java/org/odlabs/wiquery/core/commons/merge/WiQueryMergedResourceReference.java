@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons.merge;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.IClusterable;
+import org.apache.wicket.Resource;
+import org.apache.wicket.ResourceReference;
+import org.apache.wicket.markup.html.WebResource;
+import org.apache.wicket.protocol.http.WebResponse;
+import org.apache.wicket.protocol.http.servlet.AbortWithWebErrorCodeException;
+import org.apache.wicket.util.lang.Packages;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.time.Time;
+import org.odlabs.wiquery.core.commons.compressed.AcceptEncoding;
+
+/**
+ * <p>
+ * Base class of the merged resources. The name of the resource is built from
+ * a digest of the merged content, so the URL changes whenever one of the
+ * members changes and the browsers (or any proxy) can cache the resource
+ * forever.
+ * </p>
+ * 
+ * <p>
+ * The content is kept in the {@link WiQueryMergedResourceCache} and served
+ * gzipped when the client supports it. A name whose digest doesn't match the
+ * current content anymore isn't found.
+ * </p>
+ * 
+ * @since 1.2.5
+ */
+public abstract class WiQueryMergedResourceReference extends ResourceReference
+		implements IClusterable {
+	// Constants
+	/** Constant of serialization */
+	private static final long serialVersionUID = -2287165374226548658L;
+	
+	/** Cache duration of the merged resources (one year) */
+	public static final int CACHE_DURATION = 365 * 24 * 60 * 60;
+	
+	/**
+	 * Locates the {@link IResourceStream} of the given member
+	 * 
+	 * @param ref
+	 * @return the stream or <code>null</code> if the resource can't be found
+	 */
+	protected static IResourceStream locate(ResourceReference ref) {
+		// No leading slash here: the path is given as is to the class loader
+		return Application.get().getResourceSettings().getResourceStreamLocator().locate(
+				ref.getScope(),
+				Packages.absolutePath(ref.getScope(), ref.getName()));
+	}
+	
+	/**
+	 * Locates the members and appends their names and last modified times to
+	 * the given key
+	 * 
+	 * @param members
+	 * @param key
+	 *            the key of the bundle in the {@link WiQueryMergedResourceCache}
+	 * @param resources
+	 *            list filled with the located streams (<code>null</code> for
+	 *            the missing ones)
+	 * @return the last modified time of the newest member
+	 */
+	protected static Time locateMembers(List<ResourceReference> members,
+			StringBuilder key, List<IResourceStream> resources) {
+		Time lastModified = null;
+		Time temp;
+		
+		for(ResourceReference ref : members){
+			IResourceStream resource = locate(ref);
+			resources.add(resource);
+			temp = resource == null ? null : resource.lastModifiedTime();
+			
+			key.append('|').append(ref.getScope().getName()).append('/').append(ref.getName());
+			key.append('@').append(temp == null ? -1 : temp.getMilliseconds());
+			
+			if (temp != null && (lastModified == null || temp.after(lastModified))) {
+				lastModified = temp;
+			}
+		}
+		
+		return lastModified == null ? Time.now() : lastModified;
+	}
+	
+	/**
+	 * @return true if the client accepts gzipped content
+	 */
+	protected static boolean supportsCompression() {
+		return AcceptEncoding.supportsCompression();
+	}
+	
+	// Properties
+	private final String digest;
+	private final Time lastModifiedTime;
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param scope
+	 * @param prefix
+	 *            prefix of the name
+	 * @param extension
+	 *            extension of the name
+	 * @param entry
+	 *            the current merged content
+	 */
+	protected WiQueryMergedResourceReference(Class<?> scope, String prefix,
+			String extension, WiQueryMergedResourceCache.Entry entry) {
+		super(scope, prefix + "-" + entry.getDigest() + "." + extension);
+		
+		this.digest = entry.getDigest();
+		this.lastModifiedTime = entry.lastModifiedTime();
+	}
+	
+	/**
+	 * @return the content type of the merged resource
+	 */
+	protected abstract String getContentType();
+	
+	/**
+	 * @return the digest of the merged content
+	 */
+	public String getDigest() {
+		return digest;
+	}
+	
+	/**
+	 * Returns the merged content from the {@link WiQueryMergedResourceCache},
+	 * building it if none of the cached bundles matches the current members.
+	 * 
+	 * @return the merged content
+	 */
+	protected abstract WiQueryMergedResourceCache.Entry getMergedContent();
+	
+	/**
+	 * Returns the last modified time of the newest member
+	 * 
+	 * @return the last modified time of the newest member
+	 */
+	@Override
+	public Time lastModifiedTime() {
+		return lastModifiedTime;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see org.apache.wicket.ResourceReference#newResource()
+	 */
+	@Override
+	protected Resource newResource() {
+		return new WebResource() {
+			private static final long serialVersionUID = 1L;
+
+			/**
+			 * {@inheritDoc}
+			 * @see org.apache.wicket.Resource#getResourceStream()
+			 */
+			@Override
+			public IResourceStream getResourceStream() {
+				WiQueryMergedResourceCache.Entry entry = getMergedContent();
+				if (!digest.equals(entry.getDigest())) {
+					// A member changed since the page was rendered: the new
+					// content mustn't be cached under the old name
+					throw new AbortWithWebErrorCodeException(
+							HttpServletResponse.SC_NOT_FOUND);
+				}
+				
+				return new WiQueryMergedResourceStream(
+						supportsCompression() ? entry.getGzippedContent() : entry.getContent(),
+						getContentType(), entry.lastModifiedTime());
+			}
+			
+			/**
+			 * {@inheritDoc}
+			 * @see org.apache.wicket.markup.html.WebResource#getCacheDuration()
+			 */
+			@Override
+			protected int getCacheDuration() {
+				return CACHE_DURATION;
+			}
+			
+			/**
+			 * {@inheritDoc}
+			 * @see org.apache.wicket.markup.html.WebResource#setHeaders(org.apache.wicket.protocol.http.WebResponse)
+			 */
+			@Override
+			protected void setHeaders(WebResponse response) {
+				super.setHeaders(response);
+				
+				// The name changes with the content: no need to revalidate
+				response.setHeader("Cache-Control", "public, max-age="
+						+ CACHE_DURATION + ", immutable");
+				
+				if (supportsCompression()) {
+					response.setHeader("Content-Encoding", "gzip");
+					response.setHeader("ETag", "\"" + digest + "-gzip\"");
+					
+				} else {
+					response.setHeader("ETag", "\"" + digest + "\"");
+				}
+				AcceptEncoding.setVaryHeader(response);
+			}
+		};
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons.merge;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.ResourceStreamNotFoundException;
+import org.apache.wicket.util.time.Time;
+
+/**
+ * <p>
+ * {@link IResourceStream} serving the bytes of a
+ * {@link WiQueryMergedResourceCache.Entry} as they are, without any copy or
+ * conversion.
+ * </p>
+ * 
+ * @since 1.2.5
+ */
+public class WiQueryMergedResourceStream implements IResourceStream {
+	// Constants
+	/** Constant of serialization */
+	private static final long serialVersionUID = 1L;
+
+	// Properties
+	private final byte[] content;
+	private final String contentType;
+	private final Time lastModifiedTime;
+	private Locale locale;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param content
+	 *            the bytes to serve
+	 * @param contentType
+	 *            the content type
+	 * @param lastModifiedTime
+	 *            the last modified time of the content
+	 */
+	public WiQueryMergedResourceStream(byte[] content, String contentType,
+			Time lastModifiedTime) {
+		super();
+		this.content = content;
+		this.contentType = contentType;
+		this.lastModifiedTime = lastModifiedTime;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.apache.wicket.util.resource.IResourceStream#close()
+	 */
+	public void close() throws IOException {
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.apache.wicket.util.resource.IResourceStream#getContentType()
+	 */
+	public String getContentType() {
+		return contentType;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.apache.wicket.util.resource.IResourceStream#getInputStream()
+	 */
+	public InputStream getInputStream() throws ResourceStreamNotFoundException {
+		return new ByteArrayInputStream(content);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.apache.wicket.util.resource.IResourceStream#getLocale()
+	 */
+	public Locale getLocale() {
+		return locale;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.apache.wicket.util.watch.IModifiable#lastModifiedTime()
+	 */
+	public Time lastModifiedTime() {
+		return lastModifiedTime;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.apache.wicket.util.resource.IResourceStream#length()
+	 */
+	public long length() {
+		return content.length;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.apache.wicket.util.resource.IResourceStream#setLocale(java.util.Locale)
+	 */
+	public void setLocale(Locale locale) {
+		this.locale = locale;
+	}
+}
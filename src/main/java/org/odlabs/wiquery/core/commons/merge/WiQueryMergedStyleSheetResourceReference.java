@@ -21,24 +21,19 @@
  */
 package org.odlabs.wiquery.core.commons.merge;
 
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import javax.servlet.http.HttpServletRequest;
-
 import org.apache.wicket.Application;
-import org.apache.wicket.IClusterable;
-import org.apache.wicket.RequestCycle;
-import org.apache.wicket.Resource;
 import org.apache.wicket.ResourceReference;
-import org.apache.wicket.markup.html.resources.CompressedResourceReference;
-import org.apache.wicket.protocol.http.WebRequest;
+import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.util.io.Streams;
-import org.apache.wicket.util.lang.Packages;
 import org.apache.wicket.util.resource.IResourceStream;
-import org.apache.wicket.util.resource.StringResourceStream;
 import org.apache.wicket.util.template.PackagedTextTemplate;
 import org.apache.wicket.util.time.Time;
 import org.slf4j.Logger;
@@ -56,7 +51,7 @@ import org.slf4j.LoggerFactory;
  *
  */
 public class WiQueryMergedStyleSheetResourceReference extends
-CompressedResourceReference implements IClusterable {
+	WiQueryMergedResourceReference {
 	// Constants
 	/**	Constant of serialization */
 	private static final long serialVersionUID = 6038498199511603297L;
@@ -70,6 +65,9 @@ CompressedResourceReference implements IClusterable {
 	/** Regular expression to find the url */
 	private static final String REGEX = "url\\(.*?\\)";
 	
+	/** Compiled {@link #REGEX} */
+	private static final Pattern URL_PATTERN = Pattern.compile(REGEX);
+	
 	/** Logger */
 	private static final Logger LOGGER = LoggerFactory.getLogger(WiQueryMergedStyleSheetResourceReference.class);
 	
@@ -81,9 +79,16 @@ CompressedResourceReference implements IClusterable {
 	 * @return
 	 */
 	protected static String getCssUrl(String url, String baseUrl) {
-		String cleaned = url.replace(" ", "").replace("'", "").replace("\"", "");
-		cleaned = cleaned.substring(4); // remove '('
-		cleaned = cleaned.substring(0, cleaned.length() - 1); // remove ')'
+		// remove the spaces and quotes, in one pass
+		StringBuilder stripped = new StringBuilder(url.length());
+		for (int i = 0; i < url.length(); i++) {
+			char c = url.charAt(i);
+			if (c != ' ' && c != '\'' && c != '"') {
+				stripped.append(c);
+			}
+		}
+		// remove 'url(' and ')'
+		String cleaned = stripped.substring(4, stripped.length() - 1);
 		
 		if(cleaned.startsWith("http:") 
 				|| cleaned.startsWith("https:")
@@ -92,7 +97,7 @@ CompressedResourceReference implements IClusterable {
 			return "url(\"" + cleaned + "\")"; // Quotes are important for the merging process
 		}
 		
-		StringBuffer buffer = new StringBuffer();
+		StringBuilder buffer = new StringBuilder();
 		buffer.append("url(\"");
 		buffer.append(baseUrl);
 		buffer.append(cleaned);
@@ -100,104 +105,97 @@ CompressedResourceReference implements IClusterable {
 		return buffer.toString();
 	}
 	
-	// Properties
-	private PackagedTextTemplate csstemplate;
-	private WiQueryHeaderResponse wiQueryHeaderResponse;
-	
 	/**
-	 * Default constructor
+	 * Rewrites all the urls of the stylesheet in a single pass (see
+	 * {@link #getCssUrl(String, String)})
+	 * 
+	 * @param css
+	 * @param baseUrl
+	 * @return the rewritten stylesheet
 	 */
-	public WiQueryMergedStyleSheetResourceReference(WiQueryHeaderResponse wiQueryHeaderResponse) {
-		super(WiQueryMergedStyleSheetResourceReference.class, 
-				TEMPLATE_NAME + "_" + 
-				WiQueryHeaderResponse.getMergedResourceName(wiQueryHeaderResponse.getStylesheet()));
+	static String rewriteUrls(String css, String baseUrl) {
+		Matcher m = URL_PATTERN.matcher(css);
+		if (!m.find()) {
+			return css;
+		}
 		
-		this.wiQueryHeaderResponse = wiQueryHeaderResponse;
-		csstemplate = new PackagedTextTemplate(
-				WiQueryMergedStyleSheetResourceReference.class, 
-				TEMPLATE_NAME);
+		StringBuilder buffer = new StringBuilder(css.length() + 256);
+		int last = 0;
+		do {
+			buffer.append(css, last, m.start());
+			buffer.append(getCssUrl(m.group(), baseUrl));
+			last = m.end();
+		} while (m.find());
+		buffer.append(css, last, css.length());
+		
+		return buffer.toString();
 	}
 	
 	/**
-	 * Returns the last modified time of the {@link PackagedTextTemplate}
-	 * itself.
+	 * Returns the merged content from the {@link WiQueryMergedResourceCache},
+	 * building it if none of the cached bundles matches the given members.
 	 * 
-	 * @return the last modified time of the {@link PackagedTextTemplate} itself
+	 * @param stylesheet
+	 *            the members
+	 * @return the merged content
 	 */
-	public Time lastModifiedTime() {
-		return csstemplate.lastModifiedTime();
-	}
-	
-	/**
-	 * {@inheritDoc}
-	 * @see org.apache.wicket.ResourceReference#newResource()
-	 */
-	@Override
-	protected Resource newResource() {
-		return new Resource() {
-			private static final long serialVersionUID = 1L;
-
-			/**
-			 * {@inheritDoc}
-			 * @see org.apache.wicket.Resource#getResourceStream()
-			 */
-			public IResourceStream getResourceStream() {
-				return newResourceStream();
-			}
-		};
-	}
-	
-	private IResourceStream newResourceStream() {
+	private static WiQueryMergedResourceCache.Entry getMergedContent(List<ResourceReference> stylesheet) {
 		String temp = null;
 		String cssUrl;
 		String name;
-		String old;
-		String match;
-		StringBuffer buffer = new StringBuffer();
+		String memberKey;
+		StringBuilder buffer = new StringBuilder();
+		
+		// The merged stylesheet is served from resources/<scope>/, so the urls
+		// are rewritten relatively to the resources folder. This way, the
+		// content doesn't depend on the host and can be cached by any proxy
+		String baseHost = "../";
+		
+		WiQueryMergedResourceCache cache = WiQueryMergedResourceCache.get();
+		List<IResourceStream> resources = new ArrayList<IResourceStream>(stylesheet.size());
+		StringBuilder key = new StringBuilder(TEMPLATE_NAME);
+		Time lastModified = locateMembers(stylesheet, key, resources);
 		
-		HttpServletRequest request = ((WebRequest)RequestCycle.get().getRequest()).getHttpServletRequest();
-		String baseHost = request.getRequestURL().toString();
-		baseHost = baseHost.substring(0, baseHost.indexOf(request.getRequestURI()))
-			+ request.getContextPath() + "/resources/";
+		WiQueryMergedResourceCache.Entry entry = cache.get(key.toString());
+		if (entry != null) {
+			return entry;
+		}
 		
-		for(ResourceReference ref : wiQueryHeaderResponse.getStylesheet()){
+		for(int i = 0; i < stylesheet.size(); i++){
+			ResourceReference ref = stylesheet.get(i);
+			
 			// We bind the resources into the SharedResources
 			ref.bind(Application.get());
 			
-			// We insert the javascript code into the template
-			try {
-				
-				IResourceStream resource =
-						Application.get().getResourceSettings().getResourceStreamLocator().locate(
-						getClass(),
-								"/" + Packages.absolutePath(
-										ref.getScope(),	"") 
-										+ "/" + ref.getName());
-				if(resource!=null)						
-					temp = Streams.readString(resource.getInputStream());
-				
-				// Replace of url in the css file (regexp: url\(.*?\) )
-				name = ref.getName();
-				cssUrl = baseHost + ref.getScope().getName() + "/"
-					+ (name.indexOf("/") < 0 ? "" : name.substring(0, name.lastIndexOf("/") + 1));
-				
-				Pattern p = Pattern.compile(REGEX);
-				Matcher m = p.matcher(temp); // get a matcher object
-				int count = 0;
-				while(m.find()) {
-					count++;
-					match = m.group();
-					old = getCssUrl(match, cssUrl);
+			IResourceStream resource = resources.get(i);
+			if (resource == null) {
+				LOGGER.error("error in merged processing: " + ref.getScope().getName()
+						+ "/" + ref.getName() + " not found");
+				continue;
+			}
+			
+			// Replace of url in the css file (regexp: url\(.*?\) )
+			name = ref.getName();
+			cssUrl = baseHost + ref.getScope().getName() + "/"
+				+ (name.indexOf("/") < 0 ? "" : name.substring(0, name.lastIndexOf("/") + 1));
+			
+			// The members shared by several bundles are rewritten once
+			Time memberModified = resource.lastModifiedTime();
+			memberKey = ref.getScope().getName() + "/" + name + "@"
+				+ (memberModified == null ? -1 : memberModified.getMilliseconds())
+				+ "|" + cssUrl;
+			temp = cache.getStyleSheet(memberKey);
+			
+			if (temp == null) {
+				// We insert the stylesheet into the template
+				try {
+					temp = rewriteUrls(Streams.readString(resource.getInputStream()), cssUrl);
+					cache.putStyleSheet(memberKey, temp);
 					
-					if(!old.equals(match)){
-						temp = temp.replace(match, old);
-					}
+				} catch (Exception e) {
+					temp = null;
+					LOGGER.error("error in merged processing", e);
 				}
-				
-			} catch (Exception e) {
-				temp = null;
-				e.printStackTrace();
-				LOGGER.error("error in merged processing", e);
 			}
 			
 			if(temp != null){
@@ -207,8 +205,56 @@ CompressedResourceReference implements IClusterable {
 		
 		Map<String, Object> genCss= new HashMap<String, Object>();
 		genCss.put("wiqueryresources", buffer);
-		csstemplate.interpolate(genCss);
+		PackagedTextTemplate csstemplate = new PackagedTextTemplate(
+				WiQueryMergedStyleSheetResourceReference.class, 
+				TEMPLATE_NAME);
+		
+		try {
+			return cache.put(key.toString(),
+					csstemplate.asString(genCss).getBytes("UTF-8"), lastModified);
+			
+		} catch (UnsupportedEncodingException e) {
+			throw new WicketRuntimeException(e);
+		}
+	}
+	
+	// Properties
+	private final List<ResourceReference> stylesheet;
+	
+	/**
+	 * Default constructor
+	 */
+	public WiQueryMergedStyleSheetResourceReference(WiQueryHeaderResponse wiQueryHeaderResponse) {
+		// The header response is flushed on each rendering, so we keep our own copy
+		this(new ArrayList<ResourceReference>(wiQueryHeaderResponse.getStylesheet()));
+	}
+	
+	/**
+	 * Constructor
+	 * @param stylesheet the members
+	 */
+	private WiQueryMergedStyleSheetResourceReference(List<ResourceReference> stylesheet) {
+		super(WiQueryMergedStyleSheetResourceReference.class, 
+				"wiquery-merged", "css", getMergedContent(stylesheet));
 		
-		return new StringResourceStream(csstemplate.asString(), CONTENT_TYPE);
+		this.stylesheet = stylesheet;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see org.odlabs.wiquery.core.commons.merge.WiQueryMergedResourceReference#getContentType()
+	 */
+	@Override
+	protected String getContentType() {
+		return CONTENT_TYPE;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see org.odlabs.wiquery.core.commons.merge.WiQueryMergedResourceReference#getMergedContent()
+	 */
+	@Override
+	protected WiQueryMergedResourceCache.Entry getMergedContent() {
+		return getMergedContent(stylesheet);
 	}
 }
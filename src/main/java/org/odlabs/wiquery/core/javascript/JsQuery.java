@@ -183,47 +183,86 @@ public class JsQuery implements Serializable, IHeaderContributor {
 	 */
 	public void renderHead(IHeaderResponse response,
 			IRequestTarget requestTarget) {
+		if (statement != null) {
+			renderHead(response, requestTarget, new StringBuilder(statement
+					.getStatement()));
+		}
+	}
+
+	/**
+	 * FOR FRAMEWORK'S INTERNAL USE ONLY
+	 * <p>
+	 * Renders the given statements, executed on DOM ready. The statements are
+	 * copied once into the generated script (and a semicolon may be appended
+	 * to the given buffer).
+	 * </p>
+	 * 
+	 * @param response
+	 * @param requestTarget
+	 * @param statements
+	 *            the buffer holding the statements
+	 */
+	public static void renderHead(IHeaderResponse response,
+			IRequestTarget requestTarget, StringBuilder statements) {
+		if (JsStatement.isBlank(statements)) {
+			return;
+		}
+
 		WiQuerySettings settings = WiQuerySettings.get();
-		final String js = statement == null ? null : statement.render().toString();
-		
-		if (js != null && js.trim().length() > 0) {
-			JsStatement onreadyStatement = new JsStatement();
-			onreadyStatement.document().ready(JsScope.quickScope(js));
-			
-			if (settings.isEmbedGeneratedStatements()) {
-                if (settings.isAutoImportJQueryResource()) {
-                    JavascriptResourceReference ref = settings.getJQueryCoreResourceReference();
-                    response.renderJavascriptReference(ref == null ? CoreJavaScriptResourceReference.get() : ref);
-                }
-
-                if (requestTarget == null || !(requestTarget instanceof AjaxRequestTarget)) {
-                    // appending component statement
-                    // on dom ready, the code is executed.
-                    response.renderJavascript(WiqueryGeneratedJavaScriptResource.wiqueryGeneratedJavascriptCode(onreadyStatement.render()), "wiquery-gen-"+System.currentTimeMillis());
-
-                } else {
-                	addAjaxJavascript(requestTarget, js);
-                }
-
-            } else if (AjaxRequestTarget.get() == null) {
-				/*
-				 * use {@link WiqueryGeneratedJavaScriptResourceReference} to
-				 * compress, minimize, etc the given javascript, then
-				 * immediately retrieve it.
-				 */
-            	response.renderJavascript(WiqueryGeneratedJavaScriptResource.wiqueryGeneratedJavascriptCode(onreadyStatement.render()), "wiquery-gen-"+System.currentTimeMillis());
+		if (JsStatement.needsSemicolon(statements, 0)) {
+			statements.append(';');
+		}
+
+		if (settings.isEmbedGeneratedStatements()) {
+			if (settings.isAutoImportJQueryResource()) {
+				JavascriptResourceReference ref = settings.getJQueryCoreResourceReference();
+				response.renderJavascriptReference(ref == null ? CoreJavaScriptResourceReference.get() : ref);
+			}
+
+			if (requestTarget == null || !(requestTarget instanceof AjaxRequestTarget)) {
+				// appending component statement
+				// on dom ready, the code is executed.
+				renderOnDomReady(response, statements);
 
 			} else {
-				addAjaxJavascript(requestTarget, js);
+				addAjaxJavascript(requestTarget, statements.toString());
 			}
+
+		} else if (AjaxRequestTarget.get() == null) {
+			/*
+			 * use {@link WiqueryGeneratedJavaScriptResourceReference} to
+			 * compress, minimize, etc the given javascript, then
+			 * immediately retrieve it.
+			 */
+			renderOnDomReady(response, statements);
+
+		} else {
+			addAjaxJavascript(requestTarget, statements.toString());
 		}
 	}
+
+	/**
+	 * Renders the generated script executing the given statements on DOM
+	 * ready: <code>$(document).ready(function() {...});</code>
+	 */
+	private static void renderOnDomReady(IHeaderResponse response,
+			CharSequence statements) {
+		StringBuilder script = new StringBuilder(statements.length() + 96);
+		WiqueryGeneratedJavaScriptResource.appendHeader(script);
+		script.append("$(document).ready(function() {\n\t");
+		script.append(statements);
+		script.append("\n});");
+		WiqueryGeneratedJavaScriptResource.appendFooter(script);
+
+		response.renderJavascript(script, "wiquery-gen-"
+				+ System.currentTimeMillis());
+	}
 	
 	/**
 	 * Private method to add javascript into the ajax request pool
 	 * @param js
 	 */
-	private void addAjaxJavascript(IRequestTarget requestTarget, final String js){
+	private static void addAjaxJavascript(IRequestTarget requestTarget, final String js){
 		AjaxRequestTarget ajaxRequestTarget = (AjaxRequestTarget) requestTarget;
 		ajaxRequestTarget.addListener(new IListener() {
 
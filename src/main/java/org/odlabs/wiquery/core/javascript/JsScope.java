@@ -58,14 +58,15 @@ public abstract class JsScope implements Serializable {
 	private static final long serialVersionUID = 1L;
 	
 	/**
-	 * The function statement.
+	 * The rendered function statement, not serialized: the scope is rendered
+	 * again from its parameters and {@link #execute(JsScopeContext)}.
 	 */
-	private StringBuilder statement;
+	private transient String statement;
 
 	/**
-	 * The scope used by the anonymous function.
+	 * The arguments of the anonymous function.
 	 */
-	private JsScopeContext scopeContext;
+	private String[] scopeParameters;
 
 	/**
 	 * Creates a default {@link JsScope} to execute the given statement.
@@ -74,14 +75,16 @@ public abstract class JsScope implements Serializable {
 	 *            the JavaScript statement to execute with the scope.
 	 * @return the created {@link JsScope}.
 	 */
-	public static JsScope quickScope(final CharSequence javascriptCode) {
+	public static JsScope quickScope(CharSequence javascriptCode) {
+		// the scope only keeps an immutable copy of the code
+		final String javascript = String.valueOf(javascriptCode);
 		return new JsScope() {
 
 			private static final long serialVersionUID = 1L;
 
 			@Override
 			protected void execute(JsScopeContext scopeContext) {
-				scopeContext.append(javascriptCode);
+				scopeContext.append(javascript);
 			}
 
 		};
@@ -116,7 +119,7 @@ public abstract class JsScope implements Serializable {
 	 */
 	public JsScope(String... scopeParameters) {
 		super();
-		scopeContext = new JsScopeContext(scopeParameters);
+		this.scopeParameters = scopeParameters;
 		statement = null;
 	}
 
@@ -129,27 +132,23 @@ public abstract class JsScope implements Serializable {
 	protected abstract void execute(JsScopeContext scopeContext);
 
 	/**
-	 * Ends the scope JavaScript declaration.
-	 */
-	private JsScope closeScope() {
-		statement.append("}");
-		return this;
-	}
-
-	/**
-	 * Renders the scope.
+	 * Renders the scope. The statements of the scope are only kept during the
+	 * rendering.
 	 */
 	public CharSequence render() {
 		if(statement == null){
-			statement = new StringBuilder();
-			statement.append("function(");
-			statement.append(scopeContext.scopeDeclaration());
-			statement.append(") {\n");
+			JsScopeContext scopeContext = new JsScopeContext(scopeParameters);
 			execute(scopeContext);
-			statement.append(scopeContext.render());
-			closeScope();
+			
+			StringBuilder buffer = new StringBuilder();
+			buffer.append("function(");
+			buffer.append(scopeContext.scopeDeclaration());
+			buffer.append(") {\n");
+			scopeContext.render(buffer);
+			buffer.append("}");
+			statement = buffer.toString();
 		}
-		return statement.toString();
+		return statement;
 	}
 
 }
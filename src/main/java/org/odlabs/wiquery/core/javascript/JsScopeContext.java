@@ -121,12 +121,20 @@ public class JsScopeContext implements Serializable {
 	 */
 	CharSequence render() {
 		StringBuilder stringBuilder = new StringBuilder();
+		render(stringBuilder);
+		return stringBuilder;
+	}
+
+	/**
+	 * Renders the list of statements of this {@link JsScopeContext} into the
+	 * given buffer.
+	 */
+	void render(StringBuilder buffer) {
 		for (JsStatement statement : statements) {
-			stringBuilder.append("\t");
-			stringBuilder.append(statement.render());
-			stringBuilder.append("\n");
+			buffer.append("\t");
+			statement.render(buffer);
+			buffer.append("\n");
 		}
-		return stringBuilder;
 	}
 
 }
@@ -52,7 +52,8 @@ public abstract class JsScopeEvent extends JsScope {
 	 *            the JavaScript statement to execute with the scope.
 	 * @return the created {@link JsScopeEvent}.
 	 */
-	public static JsScopeEvent quickScope(final CharSequence javascriptCode) {
+	public static JsScopeEvent quickScope(CharSequence javascriptCode) {
+		final String javascript = String.valueOf(javascriptCode);
 		return new JsScopeEvent() {
 			private static final long serialVersionUID = 1L;
 
@@ -62,7 +63,7 @@ public abstract class JsScopeEvent extends JsScope {
 			 */
 			@Override
 			protected void execute(JsScopeContext scopeContext) {
-				scopeContext.append(javascriptCode);
+				scopeContext.append(javascript);
 			}
 		};
 	}
@@ -21,6 +21,9 @@
  */
 package org.odlabs.wiquery.core.javascript;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 import org.apache.wicket.Component;
@@ -70,9 +73,10 @@ public class JsStatement implements Serializable {
 	private static final long serialVersionUID = 3254345351404601200L;
 
 	/**
-	 * This whole statement.
+	 * This whole statement, serialized as a {@link String} (see
+	 * {@link #writeObject(ObjectOutputStream)}).
 	 */
-	private StringBuilder statement;
+	private transient StringBuilder statement;
 
 	/**
 	 * Creates a new {@link JsStatement}.
@@ -80,6 +84,20 @@ public class JsStatement implements Serializable {
 	public JsStatement() {
 		statement = new StringBuilder();
 	}
+	
+	/**
+	 * Writes the statement without the spare capacity of its buffer.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeObject(statement.toString());
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException,
+			ClassNotFoundException {
+		in.defaultReadObject();
+		statement = new StringBuilder((String) in.readObject());
+	}
 
 	/**
 	 * Appends the jQuery's <code>$</code> function to the current
@@ -330,20 +348,55 @@ public class JsStatement implements Serializable {
 	 * @return the renderable JavaScript statement as a {@link CharSequence}.
 	 */
 	public CharSequence render(boolean semicolon) {
-		String render = this.statement.toString();
-		
-		if(semicolon){
-			String trimRendering = render.trim();
-			
-			if (trimRendering.length() > 0) {
-				char last = trimRendering.charAt(trimRendering.length() - 1);
-				
-				if (last != '}' && last != ';') {
-					render += ";";
-				}
+		if (semicolon && needsSemicolon(this.statement, 0)) {
+			return new StringBuilder(this.statement.length() + 1).append(
+					this.statement).append(';').toString();
+		}
+		return this.statement.toString();
+	}
+
+	/**
+	 * Renders this statement into the given buffer, with a semicolon if
+	 * needed (see {@link #render()}). Unlike {@link #render()}, no
+	 * intermediate copy of the statement is made.
+	 * 
+	 * @param buffer
+	 *            the buffer receiving the statement
+	 */
+	public void render(StringBuilder buffer) {
+		int start = buffer.length();
+		buffer.append(this.statement);
+		if (needsSemicolon(buffer, start)) {
+			buffer.append(';');
+		}
+	}
+
+	/**
+	 * @return true if the statement starting at the given index of the buffer
+	 *         is not blank and does not end with <code>;</code> or
+	 *         <code>}</code> (ignoring the trailing whitespaces)
+	 */
+	static boolean needsSemicolon(CharSequence buffer, int start) {
+		for (int i = buffer.length() - 1; i >= start; i--) {
+			char last = buffer.charAt(i);
+
+			if (last > ' ') {
+				return last != '}' && last != ';';
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if the buffer contains only whitespaces
+	 */
+	static boolean isBlank(CharSequence buffer) {
+		for (int i = buffer.length() - 1; i >= 0; i--) {
+			if (buffer.charAt(i) > ' ') {
+				return false;
 			}
 		}
-		return render;
+		return true;
 	}
 	
 	/**
@@ -25,7 +25,6 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.io.StringWriter;
 
-import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.odlabs.wiquery.core.events.EventLabel;
@@ -40,6 +39,8 @@ import org.odlabs.wiquery.core.events.EventLabel;
  * @since 0.7
  */
 public class JsUtils {
+	/** Mapper shared by the calls to {@link #json(Serializable)} */
+	private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
 	
 	/**
 	 * @return a javascript representation of the array
@@ -112,8 +113,8 @@ public class JsUtils {
 	 */
 	public static String json(Serializable jsonObject) throws IOException {
 		StringWriter sw = new StringWriter();
-		JsonGenerator gen = new JsonFactory().createJsonGenerator(sw);
-		new ObjectMapper().writeValue(gen, jsonObject);
+		JsonGenerator gen = JSON_MAPPER.getJsonFactory().createJsonGenerator(sw);
+		JSON_MAPPER.writeValue(gen, jsonObject);
 		return sw.toString();
 	}
 	
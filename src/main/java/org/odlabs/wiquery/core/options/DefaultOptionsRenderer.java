@@ -43,7 +43,7 @@ package org.odlabs.wiquery.core.options;
  * @author Lionel Armanet
  * @since 1.0
  */
-public class DefaultOptionsRenderer implements IOptionsRenderer {
+public class DefaultOptionsRenderer implements IStreamingOptionsRenderer {
 
 	private static final long serialVersionUID = 6303118317934309154L;
 
@@ -89,11 +89,27 @@ public class DefaultOptionsRenderer implements IOptionsRenderer {
 	 */
 	public CharSequence renderOption(String name, Object value, boolean isLast) {
 		StringBuilder stringBuilder = new StringBuilder();
-		stringBuilder.append(name).append(": ").append(value);
+		renderOption(name, value, isLast, stringBuilder);
+		return stringBuilder;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see org.odlabs.wiquery.core.options.IStreamingOptionsRenderer#renderOption(java.lang.String,
+	 *      java.lang.Object, boolean, java.lang.StringBuilder)
+	 */
+	public void renderOption(String name, Object value, boolean isLast,
+			StringBuilder stringBuilder) {
+		stringBuilder.append(name).append(": ");
+		if (value instanceof CharSequence) {
+			stringBuilder.append((CharSequence) value);
+		} else {
+			stringBuilder.append(value);
+		}
 		if (!isLast) {
 			stringBuilder.append(", ");
 		}
-		return stringBuilder;
 	}
 
 }
@@ -21,15 +21,17 @@
  */
 package org.odlabs.wiquery.core.options;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 
 import org.apache.wicket.Component;
 import org.apache.wicket.model.IDetachable;
 import org.apache.wicket.model.IModel;
 import org.odlabs.wiquery.core.javascript.JsScope;
+import org.odlabs.wiquery.core.javascript.JsUtils;
 
 /**
  * $Id: Options.java 553 2010-11-15 08:30:58Z hielke.hoeve@gmail.com $
@@ -50,6 +52,13 @@ import org.odlabs.wiquery.core.javascript.JsScope;
  * This rendering can be customized by creating a {@link IOptionsRenderer}.
  * </p>
  * 
+ * <p>
+ * The options are stored in arrays, in the order they were put: the names are
+ * interned, and the primitive values (and the plain strings) are kept unboxed,
+ * without an option and a model around them. The empty options and the default
+ * renderer are shared.
+ * </p>
+ * 
  * @author Lionel Armanet
  * @author Hielke Hoeve
  * @author Ernesto Reinaldo Barreiro
@@ -59,16 +68,64 @@ public class Options implements IModel<Options> {
 
 	private static final long serialVersionUID = 1L;
 
+	/** Type of an option held as an object (option, scope...) */
+	private static final byte OBJECT = 0;
+
+	/** Type of a boolean option */
+	private static final byte BOOLEAN = 1;
+
+	/** Type of a short option */
+	private static final byte SHORT = 2;
+
+	/** Type of an int option */
+	private static final byte INT = 3;
+
+	/** Type of a long option */
+	private static final byte LONG = 4;
+
+	/** Type of a float option (raw bits) */
+	private static final byte FLOAT = 5;
+
+	/** Type of a double option (raw bits) */
+	private static final byte DOUBLE = 6;
+
+	/** Type of a string option */
+	private static final byte STRING = 7;
+
+	/** Type of a literal option (quoted string) */
+	private static final byte LITERAL = 8;
+
 	private Component owner;
 
 	/**
-	 * The internal structure is a map associating each option label with each
-	 * option value.
+	 * The names of the options, interned, in the order they were put (null
+	 * while there is no option).
+	 */
+	private transient String[] keys;
+
+	/**
+	 * The type of each option.
+	 */
+	private transient byte[] types;
+
+	/**
+	 * The primitive values, unboxed.
+	 */
+	private transient long[] primitives;
+
+	/**
+	 * The other values (strings, options, scopes...).
 	 */
-	private Map<String, Object> options = new LinkedHashMap<String, Object>();
+	private transient Object[] values;
 
 	/**
-	 * The {@link IOptionsRenderer} to use.
+	 * The number of options.
+	 */
+	private transient int size;
+
+	/**
+	 * The {@link IOptionsRenderer} to use, null for the
+	 * {@link DefaultOptionsRenderer}.
 	 */
 	private IOptionsRenderer optionsRenderer;
 
@@ -86,13 +143,20 @@ public class Options implements IModel<Options> {
 	 */
 	public Options(Component owner) {
 		this.owner = owner;
-		this.optionsRenderer = DefaultOptionsRenderer.get();
 	}
 
 	public void setOwner(Component owner) {
 		if (this.owner != null && this.owner != owner)
 			throw new IllegalArgumentException(
 					"Cannot use the same Options for multiple components");
+		if (this.owner == null && owner != null) {
+			// wraps the options put before the owner was known
+			for (int i = 0; i < size; i++) {
+				if (values[i] instanceof IModelOption<?>)
+					values[i] = ((IModelOption<?>) values[i])
+							.wrapOnAssignment(owner);
+			}
+		}
 		this.owner = owner;
 	}
 
@@ -105,7 +169,36 @@ public class Options implements IModel<Options> {
 	 *            the option name.
 	 */
 	public boolean containsKey(Object key) {
-		return options.containsKey(key);
+		return indexOf(key) >= 0;
+	}
+
+	/**
+	 * @return the index of the given option, or -1
+	 */
+	private int indexOf(Object key) {
+		for (int i = 0; i < size; i++) {
+			if (keys[i] == key || keys[i].equals(key))
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the value of the given option if it is held as an object,
+	 *         otherwise null
+	 */
+	private Object getObject(String key) {
+		int index = indexOf(key);
+		return index < 0 ? null : values[index];
+	}
+
+	/**
+	 * @return the index of the given option if it has the given primitive
+	 *         type, otherwise -1
+	 */
+	private int indexOf(String key, byte type) {
+		int index = indexOf(key);
+		return index >= 0 && types[index] == type ? index : -1;
 	}
 
 	/**
@@ -117,10 +210,10 @@ public class Options implements IModel<Options> {
 	 *            the option name.
 	 */
 	public String get(String key) {
-		String ret = getValueFromOptions(key, StringOption.class);
-		if (ret == null && options.containsKey(ret))
-			ret = options.get(key).toString();
-		return ret;
+		int index = indexOf(key, STRING);
+		if (index >= 0)
+			return (String) values[index];
+		return getValueFromOptions(key, StringOption.class);
 	}
 
 	/**
@@ -132,6 +225,9 @@ public class Options implements IModel<Options> {
 	 *            the option name.
 	 */
 	public Boolean getBoolean(String key) {
+		int index = indexOf(key, BOOLEAN);
+		if (index >= 0)
+			return Boolean.valueOf(primitives[index] != 0);
 		return getValueFromOptions(key, BooleanOption.class);
 	}
 
@@ -145,7 +241,7 @@ public class Options implements IModel<Options> {
 	 * @return the complex option
 	 */
 	public IComplexOption getComplexOption(String key) {
-		Object object = this.options.get(key);
+		Object object = getObject(key);
 		if (object instanceof IComplexOption)
 			return (IComplexOption) object;
 		return null;
@@ -160,6 +256,9 @@ public class Options implements IModel<Options> {
 	 *            the option name.
 	 */
 	public Double getDouble(String key) {
+		int index = indexOf(key, DOUBLE);
+		if (index >= 0)
+			return Double.valueOf(Double.longBitsToDouble(primitives[index]));
 		return getValueFromOptions(key, DoubleOption.class);
 	}
 
@@ -172,6 +271,9 @@ public class Options implements IModel<Options> {
 	 *            the option name.
 	 */
 	public Float getFloat(String key) {
+		int index = indexOf(key, FLOAT);
+		if (index >= 0)
+			return Float.valueOf(Float.intBitsToFloat((int) primitives[index]));
 		return getValueFromOptions(key, FloatOption.class);
 	}
 
@@ -184,6 +286,9 @@ public class Options implements IModel<Options> {
 	 *            the option name.
 	 */
 	public Integer getInt(String key) {
+		int index = indexOf(key, INT);
+		if (index >= 0)
+			return Integer.valueOf((int) primitives[index]);
 		return getValueFromOptions(key, IntegerOption.class);
 	}
 
@@ -192,44 +297,76 @@ public class Options implements IModel<Options> {
 	 */
 	public CharSequence getJavaScriptOptions() {
 		StringBuilder sb = new StringBuilder();
-		this.optionsRenderer.renderBefore(sb);
-		int count = 0;
-		for (Entry<String, Object> entry : options.entrySet()) {
-			String key = entry.getKey();
-			Object value = entry.getValue();
-			if (value instanceof IModelOption<?>)
-				value = ((IModelOption<?>) value).wrapOnAssignment(owner);
-			boolean isLast = !(count < options.size() - 1);
+		appendJavaScriptOptions(sb);
+		return sb;
+	}
+
+	/**
+	 * Appends the JavaScript statement corresponding to options to the given
+	 * buffer. With an {@link IStreamingOptionsRenderer}, the options are
+	 * rendered directly into the buffer, without intermediate copies.
+	 * 
+	 * @param sb
+	 *            the buffer
+	 */
+	public void appendJavaScriptOptions(StringBuilder sb) {
+		IOptionsRenderer optionsRenderer = getRenderer();
+		IStreamingOptionsRenderer streamingRenderer = optionsRenderer instanceof IStreamingOptionsRenderer
+				? (IStreamingOptionsRenderer) optionsRenderer
+				: null;
+
+		optionsRenderer.renderBefore(sb);
+		for (int i = 0; i < size; i++) {
+			String key = keys[i];
+			Object value = types[i] == OBJECT ? values[i] : renderValue(i);
+			if (owner == null && value instanceof IModelOption<?>)
+				// with an owner, the options are wrapped when they are put
+				value = ((IModelOption<?>) value).wrapOnAssignment(null);
+			boolean isLast = i == size - 1;
 			if (value instanceof JsScope) {
 				// Case of a JsScope
-				sb.append(this.optionsRenderer.renderOption(key,
-						((JsScope) value).render(), isLast));
-			} else if (value instanceof ICollectionItemOptions) {
-				// Case of an ICollectionItemOptions
-				sb.append(this.optionsRenderer.renderOption(key,
-						((ICollectionItemOptions) value).getJavascriptOption(),
-						isLast));
+				value = ((JsScope) value).render();
 			} else if (value instanceof IComplexOption) {
-				// Case of an IComplexOption
-				sb
-						.append(this.optionsRenderer.renderOption(key,
-								((IComplexOption) value).getJavascriptOption(),
-								isLast));
+				// Case of an IComplexOption (ICollectionItemOptions included)
+				value = ((IComplexOption) value).getJavascriptOption();
 			} else if (value instanceof ITypedOption<?>) {
 				// Case of an ITypedOption
-				sb.append(this.optionsRenderer
-						.renderOption(key, ((ITypedOption<?>) value)
-								.getJavascriptOption(), isLast));
+				value = ((ITypedOption<?>) value).getJavascriptOption();
+			}
+
+			if (streamingRenderer == null) {
+				sb.append(optionsRenderer.renderOption(key, value, isLast));
 			} else {
-				// Other cases
-				sb
-						.append(this.optionsRenderer.renderOption(key, value,
-								isLast));
+				streamingRenderer.renderOption(key, value, isLast, sb);
 			}
-			count++;
 		}
-		this.optionsRenderer.renderAfter(sb);
-		return sb;
+		optionsRenderer.renderAfter(sb);
+	}
+
+	/**
+	 * Renders an unboxed value, like its {@link IModelOption} would.
+	 */
+	private String renderValue(int index) {
+		long primitive = primitives[index];
+
+		switch (types[index]) {
+		case BOOLEAN:
+			return Boolean.toString(primitive != 0);
+		case SHORT:
+			return Short.toString((short) primitive);
+		case INT:
+			return Integer.toString((int) primitive);
+		case LONG:
+			return Long.toString(primitive);
+		case FLOAT:
+			return Float.toString(Float.intBitsToFloat((int) primitive));
+		case DOUBLE:
+			return Double.toString(Double.longBitsToDouble(primitive));
+		case LITERAL:
+			return JsUtils.quotes((String) values[index]);
+		default:
+			return (String) values[index];
+		}
 	}
 
 	/**
@@ -242,7 +379,7 @@ public class Options implements IModel<Options> {
 	 * @return the list
 	 */
 	public ICollectionItemOptions getListItemOptions(String key) {
-		Object object = this.options.get(key);
+		Object object = getObject(key);
 		if (object instanceof ICollectionItemOptions)
 			return (ICollectionItemOptions) object;
 		return null;
@@ -257,6 +394,9 @@ public class Options implements IModel<Options> {
 	 *            the option name.
 	 */
 	public String getLiteral(String key) {
+		int index = indexOf(key, LITERAL);
+		if (index >= 0)
+			return (String) values[index];
 		return getValueFromOptions(key, LiteralOption.class);
 	}
 
@@ -269,6 +409,9 @@ public class Options implements IModel<Options> {
 	 *            the option name.
 	 */
 	public Short getShort(String key) {
+		int index = indexOf(key, SHORT);
+		if (index >= 0)
+			return Short.valueOf((short) primitives[index]);
 		return getValueFromOptions(key, ShortOption.class);
 	}
 
@@ -276,21 +419,65 @@ public class Options implements IModel<Options> {
 	 * @return true if no options are defined, false otherwise.
 	 */
 	public boolean isEmpty() {
-		return this.options.isEmpty();
+		return size == 0;
 	}
 
 	private <T, O extends IModelOption<T>> T getValueFromOptions(String key,
 			Class<O> optionClass) {
-		Object object = this.options.get(key);
+		Object object = getObject(key);
 		if (optionClass.isInstance(object)) {
 			O option = optionClass.cast(object);
-			return option.wrapOnAssignment(owner).getValue();
+			if (owner == null)
+				return option.wrapOnAssignment(null).getValue();
+			return option.getValue();
 		}
 		return null;
 	}
 
 	private void putOption(String key, IModelOption<?> option) {
-		options.put(key, option);
+		// wraps the IComponentAssignedModels once, instead of on each render
+		putEntry(key, OBJECT, 0, owner == null ? option : option
+				.wrapOnAssignment(owner));
+	}
+
+	/**
+	 * Puts an option, replacing the option with the same name in place.
+	 */
+	private void putEntry(String key, byte type, long primitive, Object value) {
+		int index = indexOf(key);
+		if (index < 0) {
+			if (keys == null) {
+				keys = new String[4];
+				types = new byte[4];
+				primitives = new long[4];
+				values = new Object[4];
+			} else if (size == keys.length) {
+				grow(size * 2);
+			}
+			index = size++;
+			keys[index] = key.intern();
+		}
+		types[index] = type;
+		primitives[index] = primitive;
+		values[index] = value;
+	}
+
+	/**
+	 * Resizes the arrays to the given capacity.
+	 */
+	private void grow(int capacity) {
+		String[] newKeys = new String[capacity];
+		byte[] newTypes = new byte[capacity];
+		long[] newPrimitives = new long[capacity];
+		Object[] newValues = new Object[capacity];
+		System.arraycopy(keys, 0, newKeys, 0, size);
+		System.arraycopy(types, 0, newTypes, 0, size);
+		System.arraycopy(primitives, 0, newPrimitives, 0, size);
+		System.arraycopy(values, 0, newValues, 0, size);
+		keys = newKeys;
+		types = newTypes;
+		primitives = newPrimitives;
+		values = newValues;
 	}
 
 	/**
@@ -304,7 +491,7 @@ public class Options implements IModel<Options> {
 	 *            the boolean value.
 	 */
 	public Options put(String key, boolean value) {
-		putOption(key, new BooleanOption(value));
+		putEntry(key, BOOLEAN, value ? 1 : 0, null);
 		return this;
 	}
 
@@ -334,7 +521,7 @@ public class Options implements IModel<Options> {
 	 *            the float double.
 	 */
 	public Options put(String key, double value) {
-		putOption(key, new DoubleOption(value));
+		putEntry(key, DOUBLE, Double.doubleToLongBits(value), null);
 		return this;
 	}
 
@@ -365,7 +552,7 @@ public class Options implements IModel<Options> {
 	 * @return
 	 */
 	public Options put(String key, float value) {
-		putOption(key, new FloatOption(value));
+		putEntry(key, FLOAT, Float.floatToIntBits(value), null);
 		return this;
 	}
 
@@ -395,7 +582,7 @@ public class Options implements IModel<Options> {
 	 *            the IListItemOption list.
 	 */
 	public Options put(String key, ICollectionItemOptions value) {
-		options.put(key, value);
+		putEntry(key, OBJECT, 0, value);
 		return this;
 	}
 
@@ -410,7 +597,7 @@ public class Options implements IModel<Options> {
 	 *            the IComplexOption.
 	 */
 	public Options put(String key, IComplexOption value) {
-		options.put(key, value);
+		putEntry(key, OBJECT, 0, value);
 		return this;
 	}
 
@@ -425,7 +612,7 @@ public class Options implements IModel<Options> {
 	 *            the int value.
 	 */
 	public Options put(String key, int value) {
-		putOption(key, new IntegerOption(value));
+		putEntry(key, INT, value, null);
 		return this;
 	}
 
@@ -455,7 +642,7 @@ public class Options implements IModel<Options> {
 	 *            the {@link JsScope} value.
 	 */
 	public Options put(String key, JsScope value) {
-		options.put(key, value);
+		putEntry(key, OBJECT, 0, value);
 		return this;
 	}
 
@@ -470,7 +657,7 @@ public class Options implements IModel<Options> {
 	 *            the short value.
 	 */
 	public Options put(String key, short value) {
-		putOption(key, new ShortOption(value));
+		putEntry(key, SHORT, value, null);
 		return this;
 	}
 
@@ -500,7 +687,7 @@ public class Options implements IModel<Options> {
 	 *            the {@link String} value.
 	 */
 	public Options put(String key, String value) {
-		putOption(key, new StringOption(value));
+		putEntry(key, STRING, 0, value);
 		return this;
 	}
 
@@ -530,7 +717,7 @@ public class Options implements IModel<Options> {
 	 *            the {@link Long} value.
 	 */
 	public Options put(String key, long value) {
-		putOption(key, new LongOption(value));
+		putEntry(key, LONG, value, null);
 		return this;
 	}
 
@@ -563,7 +750,7 @@ public class Options implements IModel<Options> {
 	 *            the {@link LiteralOption} value.
 	 */
 	public Options putLiteral(String key, String value) {
-		putOption(key, new LiteralOption(value));
+		putEntry(key, LITERAL, 0, value);
 		return this;
 	}
 
@@ -594,14 +781,35 @@ public class Options implements IModel<Options> {
 	 *            the option's key to remove.
 	 */
 	public void removeOption(String key) {
-		this.options.remove(key);
+		int index = indexOf(key);
+		if (index < 0)
+			return;
+
+		int moved = size - index - 1;
+		System.arraycopy(keys, index + 1, keys, index, moved);
+		System.arraycopy(types, index + 1, types, index, moved);
+		System.arraycopy(primitives, index + 1, primitives, index, moved);
+		System.arraycopy(values, index + 1, values, index, moved);
+		size--;
+		keys[size] = null;
+		values[size] = null;
 	}
 
 	/**
 	 * Sets the renderer to use.
 	 */
 	public void setRenderer(IOptionsRenderer optionsRenderer) {
-		this.optionsRenderer = optionsRenderer;
+		this.optionsRenderer = optionsRenderer == DefaultOptionsRenderer.get()
+				? null
+				: optionsRenderer;
+	}
+
+	/**
+	 * @return the renderer to use
+	 */
+	private IOptionsRenderer getRenderer() {
+		return optionsRenderer == null ? DefaultOptionsRenderer.get()
+				: optionsRenderer;
 	}
 
 	public Options getObject() {
@@ -614,7 +822,9 @@ public class Options implements IModel<Options> {
 	}
 
 	public void detach() {
-		onDetach(this.options);
+		for (int i = 0; i < size; i++) {
+			onDetach(values[i]);
+		}
 	}
 
 	@SuppressWarnings("unchecked")
@@ -635,4 +845,65 @@ public class Options implements IModel<Options> {
 			}
 		}
 	}
+
+	/**
+	 * Writes the options with their primitive values unboxed, without the
+	 * spare capacity of the arrays.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(size);
+		for (int i = 0; i < size; i++) {
+			out.writeUTF(keys[i]);
+			out.writeByte(types[i]);
+
+			switch (types[i]) {
+			case BOOLEAN:
+				out.writeBoolean(primitives[i] != 0);
+				break;
+			case SHORT:
+				out.writeShort((int) primitives[i]);
+				break;
+			case INT:
+			case FLOAT:
+				out.writeInt((int) primitives[i]);
+				break;
+			case LONG:
+			case DOUBLE:
+				out.writeLong(primitives[i]);
+				break;
+			default:
+				out.writeObject(values[i]);
+			}
+		}
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException,
+			ClassNotFoundException {
+		in.defaultReadObject();
+		int count = in.readInt();
+		for (int i = 0; i < count; i++) {
+			String key = in.readUTF();
+			byte type = in.readByte();
+
+			switch (type) {
+			case BOOLEAN:
+				putEntry(key, type, in.readBoolean() ? 1 : 0, null);
+				break;
+			case SHORT:
+				putEntry(key, type, in.readShort(), null);
+				break;
+			case INT:
+			case FLOAT:
+				putEntry(key, type, in.readInt(), null);
+				break;
+			case LONG:
+			case DOUBLE:
+				putEntry(key, type, in.readLong(), null);
+				break;
+			default:
+				putEntry(key, type, 0, in.readObject());
+			}
+		}
+	}
 }
@@ -0,0 +1,154 @@
+package org.odlabs.wiquery.core.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.wicket.Component;
+import org.apache.wicket.Component.IVisitor;
+import org.apache.wicket.IClusterable;
+import org.apache.wicket.MetaDataKey;
+import org.apache.wicket.Page;
+import org.apache.wicket.RequestCycle;
+
+/**
+ * <p>
+ * Index of the components of a page by markup identifiant, to retrieve the
+ * Wicket components from the identifiants sent by the client without walking
+ * the whole page each time (see {@link MarkupIdVisitor}).
+ * </p>
+ * <p>
+ * The index is built lazily and kept with the page (not serialized). Only the
+ * components which already have a markup identifiant are indexed, the index
+ * doesn't generate one for the others. It is checked on each lookup: when the
+ * component found is no more on the page or has another identifiant, or when
+ * no component is found, the index is built again, but only once per request
+ * for a given identifiant.
+ * </p>
+ * 
+ * @since 1.2.5
+ */
+public class MarkupIdIndex implements IClusterable {
+	// Constants
+	/** Constant of serialization */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Meta data of the page holding its {@link MarkupIdIndex}
+	 */
+	private static final MetaDataKey<MarkupIdIndex> MARKUP_ID_INDEX_KEY = new MetaDataKey<MarkupIdIndex>() {
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * Meta data of the request holding the identifiants not found by the
+	 * indexes built during the request
+	 */
+	private static final MetaDataKey<Map<MarkupIdIndex, Set<String>>> MISSING_IDS_KEY = new MetaDataKey<Map<MarkupIdIndex, Set<String>>>() {
+		private static final long serialVersionUID = 1L;
+	};
+
+	/**
+	 * Retrieves the component of the page having the given markup
+	 * identifiant.
+	 * 
+	 * @param page
+	 *            the page
+	 * @param markupId
+	 *            the markup identifiant
+	 * @return the Wicket component, <code>null</code> if there is none
+	 */
+	public static Component findComponent(Page page, String markupId) {
+		if (page == null || markupId == null) {
+			return null;
+		}
+
+		MarkupIdIndex index = page.getMetaData(MARKUP_ID_INDEX_KEY);
+		if (index == null) {
+			index = new MarkupIdIndex();
+			page.setMetaData(MARKUP_ID_INDEX_KEY, index);
+		}
+
+		return index.get(page, markupId);
+	}
+
+	// Properties
+	private transient Map<String, Component> components;
+
+	/**
+	 * Constructor
+	 */
+	private MarkupIdIndex() {
+		super();
+	}
+
+	private Component get(Page page, String markupId) {
+		Component component = components == null ? null : components
+				.get(markupId);
+
+		if (component == null || component.findParent(Page.class) != page
+				|| !markupId.equals(component.getMarkupId(false))) {
+			Set<String> missingIds = getMissingIds();
+			if (missingIds != null && missingIds.contains(markupId)) {
+				// already built again for this identifiant in this request
+				return null;
+			}
+
+			// missing or stale entry: the page has changed since the index
+			// was built
+			build(page);
+			component = components.get(markupId);
+
+			if (component == null && missingIds != null) {
+				missingIds.add(markupId);
+			}
+		}
+
+		return component;
+	}
+
+	/**
+	 * @return the identifiants not found by this index during the current
+	 *         request, <code>null</code> outside of a request
+	 */
+	private Set<String> getMissingIds() {
+		RequestCycle requestCycle = RequestCycle.get();
+		if (requestCycle == null) {
+			return null;
+		}
+
+		Map<MarkupIdIndex, Set<String>> missingIds = requestCycle
+				.getMetaData(MISSING_IDS_KEY);
+		if (missingIds == null) {
+			missingIds = new HashMap<MarkupIdIndex, Set<String>>();
+			requestCycle.setMetaData(MISSING_IDS_KEY, missingIds);
+		}
+
+		Set<String> ids = missingIds.get(this);
+		if (ids == null) {
+			ids = new HashSet<String>();
+			missingIds.put(this, ids);
+		}
+		return ids;
+	}
+
+	private void build(Page page) {
+		final Map<String, Component> index = new HashMap<String, Component>();
+
+		page.visitChildren(new IVisitor<Component>() {
+			public Object component(Component component) {
+				// doesn't generate the markup id of the other components
+				String markupId = component.getMarkupId(false);
+
+				// keeps the first one, like the MarkupIdVisitor
+				if (markupId != null && !index.containsKey(markupId)) {
+					index.put(markupId, component);
+				}
+				return IVisitor.CONTINUE_TRAVERSAL;
+			}
+		});
+
+		components = index;
+	}
+}
@@ -21,7 +21,10 @@
  */
 package org.odlabs.wiquery.ui.accordion;
 
+import org.apache.wicket.ResourceReference;
+import org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference;
 import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.widget.WidgetJavascriptResourceReference;
 
 /**
  * $Id: AccordionJavaScriptResourceReference.java 457 2010-10-15 07:14:28Z hielke.hoeve@gmail.com $
@@ -32,7 +35,8 @@ import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
  * @since 1.0
  */
 public class AccordionJavaScriptResourceReference extends
-		WiQueryJavaScriptResourceReference {
+		WiQueryJavaScriptResourceReference implements
+		IWiQueryDependentResourceReference {
 	private static final long serialVersionUID = -4771815414204892357L;
 	
 	/**
@@ -53,4 +57,13 @@ public class AccordionJavaScriptResourceReference extends
 	public static AccordionJavaScriptResourceReference get() {
 		return instance;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference#getDependencies()
+	 */
+	public ResourceReference[] getDependencies() {
+		return new ResourceReference[] { WidgetJavascriptResourceReference.get() };
+	}
 }
@@ -35,6 +35,8 @@ import org.apache.wicket.model.IModel;
 import org.apache.wicket.model.Model;
 import org.apache.wicket.util.convert.IConverter;
 import org.apache.wicket.util.string.Strings;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.SerializationConfig;
 import org.odlabs.wiquery.core.commons.WiQueryResourceManager;
 import org.odlabs.wiquery.core.javascript.JsStatement;
 import org.odlabs.wiquery.core.javascript.JsUtils;
@@ -147,6 +149,14 @@ public abstract class AbstractAutocompleteComponent<T> extends FormComponentPane
 	/**	Constant of serialization */
 	private static final long serialVersionUID = -3377109382248062940L;
 
+	/**
+	 * Mapper shared by the autocomplete components (an {@link ObjectMapper} is
+	 * thread safe once configured, and caches the serializers it builds). The
+	 * generators are flushed by the callers.
+	 */
+	static final ObjectMapper JSON_MAPPER = new ObjectMapper().configure(
+			SerializationConfig.Feature.FLUSH_AFTER_WRITE_VALUE, false);
+
 	/** Constant of wiQuery Autocomplete resource */
 	public static final JavascriptResourceReference WIQUERY_AUTOCOMPLETE_JS =
 		new JavascriptResourceReference(
@@ -276,21 +286,10 @@ public abstract class AbstractAutocompleteComponent<T> extends FormComponentPane
 			setConvertedInput(getValueOnSearchFail(input));
 			
 		} else if (object == null || input.compareTo((String) renderer.getDisplayValue(object)) != 0) {
-			final List<? extends T> choices = getChoices();
-			boolean found = false;
-			for (int index = 0; index < choices.size(); index++)
-			{
-				// Get next choice
-				final T choice = choices.get(index);
-				final String idValue = renderer.getIdValue(choice, index + 1);
-				if (idValue.equals(valueId))
-				{
-					setConvertedInput(choice);
-					found = true;
-					break;
-				}
-			}
-			if(!found){
+			final T choice = resolveById(valueId);
+			if(choice != null){
+				setConvertedInput(choice);
+			} else {
 				//if it is still not entered, then it means this field was not touched
 				//so keep the original value
 				if(valueId.equals(NOT_ENTERED)){
@@ -307,6 +306,30 @@ public abstract class AbstractAutocompleteComponent<T> extends FormComponentPane
 	
 	protected abstract List<? extends T> getChoices();
 
+	/**
+	 * Method resolving the choice selected in the browser from its identifiant.
+	 * By default, scans the {@link #getChoices()}: override it to look the
+	 * object up directly (by primary key, ...).
+	 * @param valueId Identifiant of the selected choice, as rendered by the
+	 * {@link #getChoiceRenderer()}
+	 * @return the choice, or <code>null</code> if there is none
+	 */
+	protected T resolveById(String valueId) {
+		final IChoiceRenderer<? super T> renderer = getChoiceRenderer();
+		final List<? extends T> choices = getChoices();
+		for (int index = 0; index < choices.size(); index++)
+		{
+			// Get next choice
+			final T choice = choices.get(index);
+			final String idValue = renderer.getIdValue(choice, index + 1);
+			if (idValue.equals(valueId))
+			{
+				return choice;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * @return the autocomplete field
 	 */
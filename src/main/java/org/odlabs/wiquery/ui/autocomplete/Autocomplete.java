@@ -33,11 +33,9 @@ import org.odlabs.wiquery.core.options.IComplexOption;
 import org.odlabs.wiquery.core.options.Options;
 import org.odlabs.wiquery.ui.commons.WiQueryUIPlugin;
 import org.odlabs.wiquery.ui.core.JsScopeUiEvent;
-import org.odlabs.wiquery.ui.position.PositionJavascriptResourceReference;
 import org.odlabs.wiquery.ui.position.PositionOptions;
 import org.odlabs.wiquery.ui.position.PositionOptions.Collision;
 import org.odlabs.wiquery.ui.position.PositionOptions.Position;
-import org.odlabs.wiquery.ui.widget.WidgetJavascriptResourceReference;
 
 /**
  * $Id: Autocomplete.java 553 2010-11-15 08:30:58Z hielke.hoeve@gmail.com $
@@ -91,8 +89,6 @@ public class Autocomplete<T> extends TextField<T> implements IWiQueryPlugin {
 	 * @see org.odlabs.wiquery.core.commons.IWiQueryPlugin#contribute(org.odlabs.wiquery.core.commons.WiQueryResourceManager)
 	 */
 	public void contribute(WiQueryResourceManager wiQueryResourceManager) {
-		wiQueryResourceManager.addJavaScriptResource(WidgetJavascriptResourceReference.get());
-		wiQueryResourceManager.addJavaScriptResource(PositionJavascriptResourceReference.get());
 		wiQueryResourceManager.addJavaScriptResource(AutocompleteJavascriptResourceReference.get());
 	}
 	
@@ -22,20 +22,21 @@
 package org.odlabs.wiquery.ui.autocomplete;
 
 import java.io.IOException;
-import java.io.StringWriter;
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.wicket.IRequestTarget;
 import org.apache.wicket.RequestCycle;
+import org.apache.wicket.Response;
 import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.behavior.AbstractAjaxBehavior;
 import org.apache.wicket.markup.html.form.IChoiceRenderer;
 import org.apache.wicket.model.IModel;
-import org.apache.wicket.request.target.basic.StringRequestTarget;
 import org.apache.wicket.util.string.Strings;
-import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonEncoding;
 import org.codehaus.jackson.JsonGenerator;
-import org.codehaus.jackson.map.ObjectMapper;
 
 /**
  * $Id: AutocompleteAjaxComponent.java 463 2010-10-19 12:14:45Z richardjohnwilkinson@gmail.com $
@@ -67,28 +68,35 @@ public abstract class AutocompleteAjaxComponent<T> extends AbstractAutocompleteC
 			term = this.getComponent().getRequest().getParameter("term");
 
 			if(!Strings.isEmpty(term)){
-				StringWriter sw = new StringWriter();
-				try {
-					JsonGenerator gen = new JsonFactory().createJsonGenerator(sw);
-
-					AutocompleteJson value = null;
-					Integer index = 0;
-					List<Object> json = new ArrayList<Object>();
-
-					for(T obj : getValues(term)){
-						index++;
-						value = newAutocompleteJson(index, obj);
-						json.add(value);
-					}
+				RequestCycle.get().setRequestTarget(new IRequestTarget() {
+					/**
+					 * {@inheritDoc}
+					 * @see org.apache.wicket.IRequestTarget#respond(org.apache.wicket.RequestCycle)
+					 */
+					public void respond(RequestCycle requestCycle) {
+						Response response = requestCycle.getResponse();
+						response.setContentType("application/json;charset=utf-8");
 
-					new ObjectMapper().writeValue(gen, json);
+						try {
+							// The values are written one by one, straight to the
+							// response: the suggestions are never buffered
+							JsonGenerator gen = JSON_MAPPER.getJsonFactory().createJsonGenerator(
+									response.getOutputStream(), JsonEncoding.UTF8);
+							writeValues(gen, term);
+							gen.flush();
 
-				} catch (IOException e) {
-					throw new WicketRuntimeException(e);
-				}
+						} catch (IOException e) {
+							throw new WicketRuntimeException("Unable to render the values", e);
+						}
+					}
 
-				RequestCycle.get().setRequestTarget(
-						new StringRequestTarget("application/json", "utf-8", sw.toString()));
+					/**
+					 * {@inheritDoc}
+					 * @see org.apache.wicket.IRequestTarget#detach(org.apache.wicket.RequestCycle)
+					 */
+					public void detach(RequestCycle requestCycle) {
+					}
+				});
 			}
 		}
 	}
@@ -97,6 +105,12 @@ public abstract class AutocompleteAjaxComponent<T> extends AbstractAutocompleteC
 	/**	Constant of serialization */
 	private static final long serialVersionUID = -3377109382248062940L;
 
+	// Properties
+	private int maxResults = 0;
+	private boolean suggestionCacheEnabled = false;
+	/** Last served suggestions, by identifiant (not serialized with the page) */
+	private transient Map<String, T> suggestions;
+
 	// Wicket components
 	private final InnerAutocompleteAjaxBehavior innerAutcompleteAjaxBehavior;
 
@@ -124,13 +138,108 @@ public abstract class AutocompleteAjaxComponent<T> extends AbstractAutocompleteC
 	 * @return possible values
 	 */
 	public abstract List<T> getValues(String term);
-	
+
+	/**
+	 * Method called when the search is launched, to iterate over the possible
+	 * values. Override it to stream the values from a large data source
+	 * (a database cursor, ...): no more than {@link #getMaxResults()} values
+	 * are read. By default, iterates over {@link #getValues(String)}.
+	 * @param term Value typed
+	 * @return an iterator over the possible values
+	 */
+	protected Iterator<? extends T> getValuesIterator(String term) {
+		return getValues(term).iterator();
+	}
+
 	@Override
 	protected List<? extends T> getChoices() {
 		return getValues(term);
 	}
-	
-	
+
+	/**
+	 * @return the maximum number of values sent to the browser (0 means
+	 * no limit)
+	 */
+	public int getMaxResults() {
+		return maxResults;
+	}
+
+	/**
+	 * Sets the maximum number of values sent to the browser for a search
+	 * @param maxResults the maximum number of values (0 or less means no limit)
+	 */
+	public void setMaxResults(int maxResults) {
+		this.maxResults = maxResults;
+	}
+
+	/**
+	 * @return true if the last served suggestions are kept to resolve the
+	 * submitted value
+	 */
+	public boolean isSuggestionCacheEnabled() {
+		return suggestionCacheEnabled;
+	}
+
+	/**
+	 * Keeps the last served suggestions, so the submitted value is resolved
+	 * without searching again. The cache is not serialized with the page: when
+	 * it's lost, the value is resolved as usual.
+	 * @param suggestionCacheEnabled
+	 */
+	public void setSuggestionCacheEnabled(boolean suggestionCacheEnabled) {
+		this.suggestionCacheEnabled = suggestionCacheEnabled;
+
+		if(!suggestionCacheEnabled){
+			suggestions = null;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @see org.odlabs.wiquery.ui.autocomplete.AbstractAutocompleteComponent#resolveById(java.lang.String)
+	 */
+	@Override
+	protected T resolveById(String valueId) {
+		if(suggestions != null){
+			T choice = suggestions.get(valueId);
+
+			if(choice != null){
+				return choice;
+			}
+		}
+
+		return super.resolveById(valueId);
+	}
+
+	/**
+	 * Writes the JSON array of the possible values for the given term
+	 * @param gen Generator
+	 * @param term Value typed
+	 * @throws IOException
+	 */
+	void writeValues(JsonGenerator gen, String term) throws IOException {
+		Iterator<? extends T> values = getValuesIterator(term);
+		Map<String, T> served = suggestionCacheEnabled ? new HashMap<String, T>() : null;
+		AutocompleteJson value = null;
+		T obj = null;
+		int index = 0;
+
+		gen.writeStartArray();
+		while(values.hasNext() && (maxResults <= 0 || index < maxResults)){
+			index++;
+			obj = values.next();
+			value = newAutocompleteJson(index, obj);
+			JSON_MAPPER.writeValue(gen, value);
+
+			if(served != null){
+				served.put(value.getValueId(), obj);
+			}
+		}
+		gen.writeEndArray();
+
+		suggestions = served;
+	}
+
 
 	/**
 	 * {@inheritDoc}
@@ -29,9 +29,7 @@ import java.util.List;
 import org.apache.wicket.WicketRuntimeException;
 import org.apache.wicket.markup.html.form.IChoiceRenderer;
 import org.apache.wicket.model.IModel;
-import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonGenerator;
-import org.codehaus.jackson.map.ObjectMapper;
 
 /**
  * $Id: AutocompleteComponent.java 463 2010-10-19 12:14:45Z richardjohnwilkinson@gmail.com $
@@ -81,7 +79,7 @@ public abstract class AutocompleteComponent<T> extends AbstractAutocompleteCompo
 		StringWriter sw = new StringWriter();
 
 		try {
-			JsonGenerator gen = new JsonFactory().createJsonGenerator(sw);
+			JsonGenerator gen = JSON_MAPPER.getJsonFactory().createJsonGenerator(sw);
 
 			List<Object> json = new ArrayList<Object>();
 			T defaultValue = AutocompleteComponent.this.getModelObject();
@@ -99,7 +97,8 @@ public abstract class AutocompleteComponent<T> extends AbstractAutocompleteCompo
 				}
 			}
 
-			new ObjectMapper().writeValue(gen, json);
+			JSON_MAPPER.writeValue(gen, json);
+			gen.close();
 
 		} catch (IOException e) {
 			throw new WicketRuntimeException(e);
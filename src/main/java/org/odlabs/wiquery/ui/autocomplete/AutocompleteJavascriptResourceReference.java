@@ -21,7 +21,11 @@
  */
 package org.odlabs.wiquery.ui.autocomplete;
 
+import org.apache.wicket.ResourceReference;
+import org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference;
 import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.position.PositionJavascriptResourceReference;
+import org.odlabs.wiquery.ui.widget.WidgetJavascriptResourceReference;
 
 /**
  * $Id: AutocompleteJavascriptResourceReference.java 457 2010-10-15 07:14:28Z hielke.hoeve@gmail.com $
@@ -32,7 +36,8 @@ import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
  * @since 1.1
  */
 public class AutocompleteJavascriptResourceReference extends
-		WiQueryJavaScriptResourceReference {
+		WiQueryJavaScriptResourceReference implements
+		IWiQueryDependentResourceReference {
 	private static final long serialVersionUID = -4771815414204892357L;
 	
 	/**
@@ -53,4 +58,14 @@ public class AutocompleteJavascriptResourceReference extends
 	public static AutocompleteJavascriptResourceReference get() {
 		return instance;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference#getDependencies()
+	 */
+	public ResourceReference[] getDependencies() {
+		return new ResourceReference[] { WidgetJavascriptResourceReference.get(),
+				PositionJavascriptResourceReference.get() };
+	}
 }
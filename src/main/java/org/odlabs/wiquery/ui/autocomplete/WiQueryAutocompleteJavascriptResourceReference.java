@@ -21,6 +21,8 @@
  */
 package org.odlabs.wiquery.ui.autocomplete;
 
+import org.apache.wicket.ResourceReference;
+import org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference;
 import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
 
 /**
@@ -32,7 +34,8 @@ import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
  * @since 1.1
  */
 public class WiQueryAutocompleteJavascriptResourceReference extends
-		WiQueryJavaScriptResourceReference {
+		WiQueryJavaScriptResourceReference implements
+		IWiQueryDependentResourceReference {
 	private static final long serialVersionUID = 1L;
 	
 	/**
@@ -53,4 +56,13 @@ public class WiQueryAutocompleteJavascriptResourceReference extends
 	public static WiQueryAutocompleteJavascriptResourceReference get() {
 		return instance;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference#getDependencies()
+	 */
+	public ResourceReference[] getDependencies() {
+		return new ResourceReference[] { AutocompleteJavascriptResourceReference.get() };
+	}
 }
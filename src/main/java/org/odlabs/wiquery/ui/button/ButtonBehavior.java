@@ -33,7 +33,6 @@ import org.odlabs.wiquery.core.javascript.JsStatement;
 import org.odlabs.wiquery.core.options.Options;
 import org.odlabs.wiquery.ui.commons.WiQueryUIPlugin;
 import org.odlabs.wiquery.ui.themes.UiIcon;
-import org.odlabs.wiquery.ui.widget.WidgetJavascriptResourceReference;
 
 /**
  * $Id: ButtonBehavior.java 553 2010-11-15 08:30:58Z hielke.hoeve@gmail.com $
@@ -83,7 +82,6 @@ public class ButtonBehavior extends WiQueryAbstractBehavior {
 	 */
 	@Override
 	public void contribute(WiQueryResourceManager wiQueryResourceManager) {
-		wiQueryResourceManager.addJavaScriptResource(WidgetJavascriptResourceReference.get());
 		wiQueryResourceManager.addJavaScriptResource(ButtonJavascriptResourceReference.get());
 	}
 	
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.ui.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.wicket.ajax.AbstractDefaultAjaxBehavior;
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.markup.html.IHeaderResponse;
+import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
+
+/**
+ * $Id: AjaxEventBatchBehavior.java
+ * <p>
+ * Sends the AJAX events fired during one drag and drop gesture in a single
+ * request. A drop on a sortable list fires several callbacks (receive, remove
+ * and update on the lists, drop on the droppable, stop on the draggable),
+ * each of them locking and deserializing the page; once batched, they are
+ * queued by the client and posted together, and the server calls them back in
+ * order, with the same {@link AjaxRequestTarget}. Example:
+ * <pre>
+ * AjaxEventBatchBehavior batch = new AjaxEventBatchBehavior();
+ * page.add(batch);
+ * sortable1.setEventBatch(batch);
+ * sortable2.setEventBatch(batch);
+ * </pre>
+ * </p>
+ * 
+ * @since 1.2
+ */
+public class AjaxEventBatchBehavior extends AbstractDefaultAjaxBehavior {
+	// Constants
+	/** Constant of serialization */
+	private static final long serialVersionUID = 1L;
+	
+	/** Event into the request (listener index and parameters) */
+	protected static final String BATCHED_EVENT = "batchedEvent";
+	
+	/** ResourceReference for the wiQuery batch javascript */
+	public static final WiQueryJavaScriptResourceReference wiQueryAjaxBatchJs = 
+		new WiQueryJavaScriptResourceReference(
+				AjaxEventBatchBehavior.class, 
+				"wiquery-ajax-batch.js");
+	
+	// Properties
+	/**
+	 * Behaviors whose events are sent by this batch
+	 */
+	private List<IAjaxEventBatchListener> listeners = new ArrayList<IAjaxEventBatchListener>();
+	
+	/**
+	 * Default constructor
+	 */
+	public AjaxEventBatchBehavior() {
+		super();
+	}
+	
+	/**
+	 * Adds a behavior whose events are sent by this batch
+	 * @param listener
+	 */
+	public void addListener(IAjaxEventBatchListener listener) {
+		if(!listeners.contains(listener)){
+			listeners.add(listener);
+		}
+	}
+	
+	/**
+	 * Generates the script queuing an event, instead of calling back the
+	 * listener directly.
+	 * 
+	 * @param listener the listener of the event
+	 * @param parameters JavaScript expression giving the parameters of the 
+	 * event (query string)
+	 * @return the script
+	 */
+	public CharSequence getQueueScript(IAjaxEventBatchListener listener, 
+			CharSequence parameters) {
+		addListener(listener);
+		
+		return new StringBuilder()
+			.append("WiQueryAjaxBatch.queue('").append(getComponent().getMarkupId())
+			.append("', '").append(listeners.indexOf(listener)).append(":'+")
+			.append(parameters).append(", function(events) {")
+			.append(generateCallbackScript("wicketAjaxGet('" + getCallbackUrl(true) 
+					+ "&'+events"))
+			.append("}.bind(this));");
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see org.apache.wicket.ajax.AbstractDefaultAjaxBehavior#renderHead(org.apache.wicket.markup.html.IHeaderResponse)
+	 */
+	@Override
+	public void renderHead(IHeaderResponse response) {
+		super.renderHead(response);
+		response.renderJavascriptReference(wiQueryAjaxBatchJs);
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * @see org.apache.wicket.ajax.AbstractDefaultAjaxBehavior#respond(org.apache.wicket.ajax.AjaxRequestTarget)
+	 */
+	@Override
+	protected void respond(AjaxRequestTarget target) {
+		String[] events = getComponent().getRequest().getParameters(BATCHED_EVENT);
+		if(events == null){
+			return;
+		}
+		
+		for(String event : events){
+			int colon = event.indexOf(':');
+			int index;
+			try {
+				index = Integer.parseInt(event.substring(0, colon));
+			} catch (RuntimeException e) {
+				continue;
+			}
+			
+			if(index >= 0 && index < listeners.size()){
+				listeners.get(index).onBatchedEvent(
+						parseParameters(event.substring(colon + 1)), target);
+			}
+		}
+	}
+	
+	/**
+	 * @param query the parameters of an event (<code>a=1&b=2</code>)
+	 * @return the parameters
+	 */
+	static Map<String, String> parseParameters(String query) {
+		Map<String, String> parameters = new HashMap<String, String>();
+		
+		for(String parameter : query.split("&")){
+			int equals = parameter.indexOf('=');
+			if(equals > 0){
+				parameters.put(parameter.substring(0, equals), 
+						parameter.substring(equals + 1));
+			}
+		}
+		
+		return parameters;
+	}
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.ui.core;
+
+import java.util.Map;
+
+import org.apache.wicket.IClusterable;
+import org.apache.wicket.ajax.AjaxRequestTarget;
+
+/**
+ * $Id: IAjaxEventBatchListener.java
+ * <p>
+ * AJAX behavior whose events can be sent by an {@link AjaxEventBatchBehavior}.
+ * </p>
+ * 
+ * @since 1.2
+ */
+public interface IAjaxEventBatchListener extends IClusterable {
+	/**
+	 * Method called back for each event of the batch, in the order they were
+	 * fired.
+	 * 
+	 * @param parameters
+	 *            the parameters of the event (the ones the behavior puts into
+	 *            its own callback url)
+	 * @param ajaxRequestTarget
+	 *            the Ajax target, shared by the events of the batch
+	 */
+	public void onBatchedEvent(Map<String, String> parameters,
+			AjaxRequestTarget ajaxRequestTarget);
+}
@@ -53,7 +53,8 @@ public abstract class JsScopeUiEvent extends JsScope {
 	 *            the JavaScript statement to execute with the scope.
 	 * @return the created {@link JsScopeUiEvent}.
 	 */
-	public static JsScopeUiEvent quickScope(final CharSequence javascriptCode) {
+	public static JsScopeUiEvent quickScope(CharSequence javascriptCode) {
+		final String javascript = String.valueOf(javascriptCode);
 		return new JsScopeUiEvent() {
 			private static final long serialVersionUID = 1L;
 
@@ -62,7 +63,7 @@ public abstract class JsScopeUiEvent extends JsScope {
 			 */
 			@Override
 			protected void execute(JsScopeContext scopeContext) {
-				scopeContext.append(javascriptCode);
+				scopeContext.append(javascript);
 			}
 
 		};
@@ -23,6 +23,8 @@ package org.odlabs.wiquery.ui.datepicker;
 
 import java.util.Locale;
 
+import org.apache.wicket.ResourceReference;
+import org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference;
 import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
 
 /**
@@ -37,7 +39,8 @@ import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
  * @since 0.6
  */
 public class DatePickerLanguageResourceReference extends
-		WiQueryJavaScriptResourceReference {
+		WiQueryJavaScriptResourceReference implements
+		IWiQueryDependentResourceReference {
 	
 	/**
 	 * Enumeration of possibles alternatives languages for the DatePicker
@@ -271,4 +274,13 @@ public class DatePickerLanguageResourceReference extends
 		
 		return null;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference#getDependencies()
+	 */
+	public ResourceReference[] getDependencies() {
+		return new ResourceReference[] { DatePickerJavaScriptResourceReference.get() };
+	}
 }
@@ -53,7 +53,8 @@ public abstract class JsScopeUiDatePickerEvent extends JsScope {
 	 *            the JavaScript statement to execute with the scope.
 	 * @return the created {@link JsScopeUiDatePickerEvent}.
 	 */
-	public static JsScopeUiDatePickerEvent quickScope(final CharSequence javascriptCode) {
+	public static JsScopeUiDatePickerEvent quickScope(CharSequence javascriptCode) {
+		final String javascript = String.valueOf(javascriptCode);
 		return new JsScopeUiDatePickerEvent() {
 			private static final long serialVersionUID = 1L;
 
@@ -63,7 +64,7 @@ public abstract class JsScopeUiDatePickerEvent extends JsScope {
 			 */
 			@Override
 			protected void execute(JsScopeContext scopeContext) {
-				scopeContext.append(javascriptCode);
+				scopeContext.append(javascript);
 			}
 
 		};
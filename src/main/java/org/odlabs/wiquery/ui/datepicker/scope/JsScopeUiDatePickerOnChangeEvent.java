@@ -54,7 +54,8 @@ public abstract class JsScopeUiDatePickerOnChangeEvent extends JsScope {
 	 *            the JavaScript statement to execute with the scope.
 	 * @return the created {@link JsScopeUiDatePickerDateTextEvent}.
 	 */
-	public static JsScopeUiDatePickerOnChangeEvent quickScope(final CharSequence javascriptCode) {
+	public static JsScopeUiDatePickerOnChangeEvent quickScope(CharSequence javascriptCode) {
+		final String javascript = String.valueOf(javascriptCode);
 		return new JsScopeUiDatePickerOnChangeEvent() {
 			private static final long serialVersionUID = 1L;
 
@@ -64,7 +65,7 @@ public abstract class JsScopeUiDatePickerOnChangeEvent extends JsScope {
 			 */
 			@Override
 			protected void execute(JsScopeContext scopeContext) {
-				scopeContext.append(javascriptCode);
+				scopeContext.append(javascript);
 			}
 
 		};
@@ -21,7 +21,15 @@
  */
 package org.odlabs.wiquery.ui.dialog;
 
+import org.apache.wicket.ResourceReference;
+import org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference;
 import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.button.ButtonJavascriptResourceReference;
+import org.odlabs.wiquery.ui.draggable.DraggableJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.mouse.MouseJavascriptResourceReference;
+import org.odlabs.wiquery.ui.position.PositionJavascriptResourceReference;
+import org.odlabs.wiquery.ui.resizable.ResizableJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.widget.WidgetJavascriptResourceReference;
 
 /**
  * $Id: DialogJavaScriptResourceReference.java 457 2010-10-15 07:14:28Z hielke.hoeve@gmail.com $
@@ -32,7 +40,8 @@ import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
  * @since 1.0
  */
 public class DialogJavaScriptResourceReference extends
-		WiQueryJavaScriptResourceReference {
+		WiQueryJavaScriptResourceReference implements
+		IWiQueryDependentResourceReference {
 	private static final long serialVersionUID = -4771815414204892357L;
 	
 	/**
@@ -53,4 +62,18 @@ public class DialogJavaScriptResourceReference extends
 	public static DialogJavaScriptResourceReference get() {
 		return instance;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference#getDependencies()
+	 */
+	public ResourceReference[] getDependencies() {
+		return new ResourceReference[] { WidgetJavascriptResourceReference.get(),
+				ButtonJavascriptResourceReference.get(),
+				DraggableJavaScriptResourceReference.get(),
+				MouseJavascriptResourceReference.get(),
+				PositionJavascriptResourceReference.get(),
+				ResizableJavaScriptResourceReference.get() };
+	}
 }
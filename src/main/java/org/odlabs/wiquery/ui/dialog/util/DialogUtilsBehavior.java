@@ -31,15 +31,9 @@ import org.odlabs.wiquery.core.behavior.WiQueryAbstractBehavior;
 import org.odlabs.wiquery.core.commons.WiQueryResourceManager;
 import org.odlabs.wiquery.core.javascript.JsStatement;
 import org.odlabs.wiquery.core.javascript.JsUtils;
-import org.odlabs.wiquery.ui.button.ButtonJavascriptResourceReference;
 import org.odlabs.wiquery.ui.commons.WiQueryUIPlugin;
 import org.odlabs.wiquery.ui.dialog.Dialog;
 import org.odlabs.wiquery.ui.dialog.DialogJavaScriptResourceReference;
-import org.odlabs.wiquery.ui.draggable.DraggableJavaScriptResourceReference;
-import org.odlabs.wiquery.ui.mouse.MouseJavascriptResourceReference;
-import org.odlabs.wiquery.ui.position.PositionJavascriptResourceReference;
-import org.odlabs.wiquery.ui.resizable.ResizableJavaScriptResourceReference;
-import org.odlabs.wiquery.ui.widget.WidgetJavascriptResourceReference;
 
 /**
  * $Id: DialogResourcesBehavior.java
@@ -284,13 +278,7 @@ public class DialogUtilsBehavior extends WiQueryAbstractBehavior {
 	public void contribute(WiQueryResourceManager wiQueryResourceManager) {
 		super.contribute(wiQueryResourceManager);
 		
-		wiQueryResourceManager.addJavaScriptResource(WidgetJavascriptResourceReference.get());
-		wiQueryResourceManager.addJavaScriptResource(MouseJavascriptResourceReference.get());
-		wiQueryResourceManager.addJavaScriptResource(PositionJavascriptResourceReference.get());
 		wiQueryResourceManager.addJavaScriptResource(DialogJavaScriptResourceReference.get());
-		wiQueryResourceManager.addJavaScriptResource(ButtonJavascriptResourceReference.get());
-		wiQueryResourceManager.addJavaScriptResource(DraggableJavaScriptResourceReference.get());
-		wiQueryResourceManager.addJavaScriptResource(ResizableJavaScriptResourceReference.get());
 		
 		wiQueryResourceManager.addJavaScriptResource(WIQUERY_DIALOG_JS);
 		wiQueryResourceManager.addJavaScriptResource(
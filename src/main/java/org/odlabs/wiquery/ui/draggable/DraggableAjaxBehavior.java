@@ -23,6 +23,7 @@ package org.odlabs.wiquery.ui.draggable;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.wicket.Component;
@@ -30,6 +31,7 @@ import org.apache.wicket.Request;
 import org.apache.wicket.ajax.AbstractDefaultAjaxBehavior;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.markup.html.resources.JavascriptResourceReference;
+import org.apache.wicket.util.time.Duration;
 import org.odlabs.wiquery.core.commons.WiQueryResourceManager;
 import org.odlabs.wiquery.core.javascript.JsScope;
 import org.odlabs.wiquery.core.javascript.JsScopeContext;
@@ -37,6 +39,8 @@ import org.odlabs.wiquery.core.javascript.JsStatement;
 import org.odlabs.wiquery.core.options.ICollectionItemOptions;
 import org.odlabs.wiquery.core.options.ListItemOptions;
 import org.odlabs.wiquery.core.options.Options;
+import org.odlabs.wiquery.ui.core.AjaxEventBatchBehavior;
+import org.odlabs.wiquery.ui.core.IAjaxEventBatchListener;
 import org.odlabs.wiquery.ui.core.JsScopeUiEvent;
 import org.odlabs.wiquery.ui.draggable.DraggableBehavior.AxisEnum;
 import org.odlabs.wiquery.ui.draggable.DraggableBehavior.SnapModeEnum;
@@ -61,7 +65,8 @@ import org.odlabs.wiquery.ui.draggable.DraggableBehavior.SnapModeEnum;
  * @author Ernesto Reinaldo Barreiro
  * @since 1.0
  */
-public abstract class DraggableAjaxBehavior extends AbstractDefaultAjaxBehavior {
+public abstract class DraggableAjaxBehavior extends AbstractDefaultAjaxBehavior
+		implements IAjaxEventBatchListener {
 	public enum DraggableEvent {
 		DRAG,
 		START,
@@ -228,14 +233,24 @@ public abstract class DraggableAjaxBehavior extends AbstractDefaultAjaxBehavior
 					@Override
 					protected void execute(JsScopeContext scopeContext) {
 						StringBuffer javascript = new StringBuffer();
+						if(isDragThrottled()){
+							// the last drag event is sent before the stop event
+							javascript.append("wicketThrottler.execute('")
+								.append(getDragThrottleId()).append("');");
+						}
 						javascript.append("var isInvalid = $.ui.draggable._dragElementDroppedWasInvalid(this);");
 						
 						if(!enableAjaxOnInvalid){
 							// We must insert a test to detect the invalid state
 							javascript.append("if(!isInvalid){");
 						}
-						// use parent machinery for building call-back URL.
-						javascript.append(getCallbackStopEventScript(true));
+						if(eventBatch == null){
+							// use parent machinery for building call-back URL.
+							javascript.append(getCallbackStopEventScript(true));
+						} else {
+							javascript.append(eventBatch.getQueueScript(
+									DraggableAjaxBehavior.this, "'" + getStopEventParameters()));
+						}
 						
 						if(!enableAjaxOnInvalid){
 							javascript.append("}");
@@ -272,7 +287,12 @@ public abstract class DraggableAjaxBehavior extends AbstractDefaultAjaxBehavior
 					 */
 					@Override
 					protected void execute(JsScopeContext scopeContext) {
-						scopeContext.append(getCallbackScript(true, DraggableEvent.DRAG.toString().toLowerCase()));
+						CharSequence callbackScript = getCallbackScript(true, DraggableEvent.DRAG.toString().toLowerCase());
+						if(isDragThrottled()){
+							callbackScript = throttleScript(callbackScript, 
+									getDragThrottleId(), dragThrottleDelay);
+						}
+						scopeContext.append(callbackScript);
 					}
 				});
 			}
@@ -321,6 +341,16 @@ public abstract class DraggableAjaxBehavior extends AbstractDefaultAjaxBehavior
 	 */
 	private Set<DraggableEvent> callbacks;
 	
+	/**
+	 * Minimum delay between two drag events sent to the server
+	 */
+	private Duration dragThrottleDelay;
+	
+	/**
+	 * Batch sending the stop events, or null
+	 */
+	private AjaxEventBatchBehavior eventBatch;
+	
 	/**
 	 * Default constructor
 	 */
@@ -379,6 +409,66 @@ public abstract class DraggableAjaxBehavior extends AbstractDefaultAjaxBehavior
 		return draggableBehavior;
 	}
 	
+	/**
+	 * @return the batch sending the stop events, or null if each stop event
+	 * is sent in its own request
+	 */
+	public AjaxEventBatchBehavior getEventBatch() {
+		return eventBatch;
+	}
+	
+	/**
+	 * Sends the stop events ({@link DraggableEvent#STOP}) with the other 
+	 * events of the same gesture (drop, sort...), through the given batch
+	 * @param eventBatch the batch, or null to send each stop event in its own 
+	 * request
+	 * @return instance of the current behavior
+	 */
+	public DraggableAjaxBehavior setEventBatch(AjaxEventBatchBehavior eventBatch) {
+		this.eventBatch = eventBatch;
+		if(eventBatch != null){
+			eventBatch.addListener(this);
+		}
+		return this;
+	}
+	
+	/**
+	 * @return the minimum delay between two drag events sent to the server,
+	 * or <code>null</code> if every drag event is sent
+	 */
+	public Duration getDragThrottleDelay() {
+		return dragThrottleDelay;
+	}
+	
+	/**
+	 * Throttles the drag events ({@link DraggableEvent#DRAG}): at most one
+	 * request is sent per delay, with the latest position, and the last 
+	 * position is always sent before the stop event.
+	 * @param dragThrottleDelay the minimum delay between two drag events 
+	 * sent to the server, <code>null</code> to send every drag event
+	 * @return instance of the current behavior
+	 */
+	public DraggableAjaxBehavior setDragThrottleDelay(Duration dragThrottleDelay) {
+		this.dragThrottleDelay = dragThrottleDelay;
+		return this;
+	}
+	
+	/**
+	 * @return the identifier of the throttler of the drag events
+	 */
+	private String getDragThrottleId() {
+		return getComponent().getMarkupId() + "-" 
+			+ DraggableEvent.DRAG.toString().toLowerCase();
+	}
+	
+	/**
+	 * @return true if the drag events are throttled
+	 */
+	private boolean isDragThrottled() {
+		return callbacks.contains(DraggableEvent.DRAG) && dragThrottleDelay != null
+			&& dragThrottleDelay.getMilliseconds() > 0;
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 * @see org.apache.wicket.ajax.AbstractDefaultAjaxBehavior#onBind()
@@ -393,8 +483,28 @@ public abstract class DraggableAjaxBehavior extends AbstractDefaultAjaxBehavior
 	 */
 	public final void onDrag(AjaxRequestTarget target) {
 		Request request = this.getComponent().getRequest();
+		onDrag(request.getParameter(DRAG_TYPE), 
+				request.getParameter(DRAG_STATUS), target);
+	}
+	
+	/**
+	 * For framework internal use only.
+	 * @see org.odlabs.wiquery.ui.core.IAjaxEventBatchListener#onBatchedEvent(java.util.Map, org.apache.wicket.ajax.AjaxRequestTarget)
+	 */
+	public final void onBatchedEvent(Map<String, String> parameters,
+			AjaxRequestTarget ajaxRequestTarget) {
+		onDrag(parameters.get(DRAG_TYPE), parameters.get(DRAG_STATUS), 
+				ajaxRequestTarget);
+	}
+	
+	/**
+	 * @param dragType the drag type
+	 * @param dragStatus the drag status (stop event)
+	 * @param target
+	 */
+	private void onDrag(String dragType, String dragStatus, AjaxRequestTarget target) {
 		DraggableEvent dragEvent =  DraggableEvent.valueOf(
-				request.getParameter(DRAG_TYPE).toUpperCase());
+				dragType.toUpperCase());
 		
 		switch(dragEvent){
 			case DRAG:
@@ -408,7 +518,7 @@ public abstract class DraggableAjaxBehavior extends AbstractDefaultAjaxBehavior
 			case STOP:
 				onStop(getComponent(), target);
 				
-				if(Boolean.valueOf(request.getParameter(DRAG_STATUS)) 
+				if(Boolean.valueOf(dragStatus) 
 						&& enableAjaxOnInvalid){
 					onInvalid(getComponent(), target);
 					
@@ -519,8 +629,15 @@ public abstract class DraggableAjaxBehavior extends AbstractDefaultAjaxBehavior
 	protected CharSequence getCallbackStopEventScript(boolean onlyTargetActivePage)
 	{
 		return generateCallbackScript("wicketAjaxGet('" + getCallbackUrl(onlyTargetActivePage) 
-				+ "&" + DRAG_TYPE + "=" + DraggableEvent.STOP.toString().toLowerCase()
-				+"&" + DRAG_STATUS + "='+isInvalid");
+				+ "&" + getStopEventParameters());
+	}
+	
+	/**
+	 * @return the parameters of the stop event (the opening quote is left out)
+	 */
+	private String getStopEventParameters() {
+		return DRAG_TYPE + "=" + DraggableEvent.STOP.toString().toLowerCase()
+			+"&" + DRAG_STATUS + "='+isInvalid";
 	}
 	
 	/**
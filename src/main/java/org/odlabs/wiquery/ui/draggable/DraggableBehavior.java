@@ -36,8 +36,6 @@ import org.odlabs.wiquery.core.options.Options;
 import org.odlabs.wiquery.ui.commons.WiQueryUIPlugin;
 import org.odlabs.wiquery.ui.core.JsScopeUiEvent;
 import org.odlabs.wiquery.ui.draggable.DraggableHelper.HelperEnum;
-import org.odlabs.wiquery.ui.mouse.MouseJavascriptResourceReference;
-import org.odlabs.wiquery.ui.widget.WidgetJavascriptResourceReference;
 
 /**
  * $Id: DraggableBehavior.java 553 2010-11-15 08:30:58Z hielke.hoeve@gmail.com $
@@ -149,8 +147,6 @@ public class DraggableBehavior extends WiQueryAbstractBehavior {
 	 */
 	@Override
 	public void contribute(WiQueryResourceManager wiQueryResourceManager) {
-		wiQueryResourceManager.addJavaScriptResource(WidgetJavascriptResourceReference.get());
-		wiQueryResourceManager.addJavaScriptResource(MouseJavascriptResourceReference.get());
 		wiQueryResourceManager
 				.addJavaScriptResource(DraggableJavaScriptResourceReference.get());
 	}
@@ -21,7 +21,11 @@
  */
 package org.odlabs.wiquery.ui.draggable;
 
+import org.apache.wicket.ResourceReference;
+import org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference;
 import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.mouse.MouseJavascriptResourceReference;
+import org.odlabs.wiquery.ui.widget.WidgetJavascriptResourceReference;
 
 /**
  * $Id: DraggableJavaScriptResourceReference.java 81 2009-05-28 20:05:12Z
@@ -34,7 +38,8 @@ import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
  * @since 0.5
  */
 public class DraggableJavaScriptResourceReference extends
-		WiQueryJavaScriptResourceReference {
+		WiQueryJavaScriptResourceReference implements
+		IWiQueryDependentResourceReference {
 	// Constants
 	/** Constant of serialization */
 	private static final long serialVersionUID = 3704373328245392716L;
@@ -57,4 +62,14 @@ public class DraggableJavaScriptResourceReference extends
 	public static DraggableJavaScriptResourceReference get() {
 		return instance;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference#getDependencies()
+	 */
+	public ResourceReference[] getDependencies() {
+		return new ResourceReference[] { WidgetJavascriptResourceReference.get(),
+				MouseJavascriptResourceReference.get() };
+	}
 }
@@ -21,6 +21,8 @@
  */
 package org.odlabs.wiquery.ui.droppable;
 
+import java.util.Map;
+
 import org.apache.wicket.Component;
 import org.apache.wicket.ajax.AbstractDefaultAjaxBehavior;
 import org.apache.wicket.ajax.AjaxRequestTarget;
@@ -28,7 +30,9 @@ import org.odlabs.wiquery.core.commons.WiQueryResourceManager;
 import org.odlabs.wiquery.core.javascript.JsScopeContext;
 import org.odlabs.wiquery.core.javascript.JsStatement;
 import org.odlabs.wiquery.core.options.Options;
-import org.odlabs.wiquery.core.util.MarkupIdVisitor;
+import org.odlabs.wiquery.core.util.MarkupIdIndex;
+import org.odlabs.wiquery.ui.core.AjaxEventBatchBehavior;
+import org.odlabs.wiquery.ui.core.IAjaxEventBatchListener;
 import org.odlabs.wiquery.ui.core.JsScopeUiEvent;
 import org.odlabs.wiquery.ui.droppable.DroppableBehavior.ToleranceEnum;
 
@@ -63,7 +67,8 @@ import org.odlabs.wiquery.ui.droppable.DroppableBehavior.ToleranceEnum;
  * @author Lionel Armanet
  * @since 1.0
  */
-public abstract class DroppableAjaxBehavior<E extends Component> extends AbstractDefaultAjaxBehavior {
+public abstract class DroppableAjaxBehavior<E extends Component> extends AbstractDefaultAjaxBehavior
+		implements IAjaxEventBatchListener {
 	/**
 	 * We override the behavior to deny the access of critical methods (example,
 	 * we don't want that the end user specify a drop event, because the
@@ -132,7 +137,9 @@ public abstract class DroppableAjaxBehavior<E extends Component> extends Abstrac
 					// we delegate URL generation to outer behavior.
 					// that way all logic regarding AjaxCallDecorators will be added 
 					// by AbstractDefaultAjaxBehavior.generateCallbackScript method.
-					scopeContext.append(DroppableAjaxBehavior.this.getCallbackScript(true));
+					scopeContext.append(eventBatch == null
+							? DroppableAjaxBehavior.this.getCallbackScript(true)
+							: eventBatch.getQueueScript(DroppableAjaxBehavior.this, "'" + getDropParameters()));
 				}
 
 			});
@@ -144,12 +151,20 @@ public abstract class DroppableAjaxBehavior<E extends Component> extends Abstrac
 	// Constants
 	/** Constant of serialization */
 	private static final long serialVersionUID = 2L;
+	
+	/** Dropped identifiant into the request */
+	private static final String DROPPED_ID = "droppedId";
 
 	/**
 	 * Adding the standard droppable JavaScript behavior
 	 */
 	private InnerDroppableBehavior droppableBehavior;
 	
+	/**
+	 * Batch sending the drop events, or null
+	 */
+	private AjaxEventBatchBehavior eventBatch;
+	
 	/**
 	 * Default constructor
 	 */
@@ -180,8 +195,14 @@ public abstract class DroppableAjaxBehavior<E extends Component> extends Abstrac
 	protected CharSequence getCallbackScript(boolean onlyTargetActivePage)
 	{
 		return generateCallbackScript("wicketAjaxGet('" + getCallbackUrl(onlyTargetActivePage) 
-				+ "&droppedId='+" + DroppableBehavior.UI_DRAGGABLE
-				+ "[0].id");
+				+ "&" + getDropParameters());
+	}
+	
+	/**
+	 * @return the parameters of the drop event (the opening quote is left out)
+	 */
+	private String getDropParameters() {
+		return DROPPED_ID + "='+" + DroppableBehavior.UI_DRAGGABLE + "[0].id";
 	}
 
 	/**
@@ -191,6 +212,29 @@ public abstract class DroppableAjaxBehavior<E extends Component> extends Abstrac
 		return droppableBehavior;
 	}
 	
+	/**
+	 * @return the batch sending the drop events, or null if each drop event
+	 * is sent in its own request
+	 */
+	public AjaxEventBatchBehavior getEventBatch() {
+		return eventBatch;
+	}
+	
+	/**
+	 * Sends the drop events with the other events of the same gesture, 
+	 * through the given batch
+	 * @param eventBatch the batch, or null to send each drop event in its own 
+	 * request
+	 * @return instance of the current behavior
+	 */
+	public DroppableAjaxBehavior<E> setEventBatch(AjaxEventBatchBehavior eventBatch) {
+		this.eventBatch = eventBatch;
+		if(eventBatch != null){
+			eventBatch.addListener(this);
+		}
+		return this;
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 * @see org.apache.wicket.ajax.AbstractDefaultAjaxBehavior#onBind()
@@ -203,14 +247,28 @@ public abstract class DroppableAjaxBehavior<E extends Component> extends Abstrac
 	/**
 	 * For framework internal use only.
 	 */
-	@SuppressWarnings("unchecked")
 	public final void onDrop(AjaxRequestTarget target) {
 		// getting dropped element id to retrieve the Wicket component
-		String input = this.getComponent().getRequest().getParameter(
-				"droppedId");
-		MarkupIdVisitor visitor = new MarkupIdVisitor(input);
-		this.getComponent().getPage().visitChildren(visitor);
-		onDrop((E) visitor.getFoundComponent(), target);
+		onDrop(this.getComponent().getRequest().getParameter(DROPPED_ID), target);
+	}
+	
+	/**
+	 * For framework internal use only.
+	 * @see org.odlabs.wiquery.ui.core.IAjaxEventBatchListener#onBatchedEvent(java.util.Map, org.apache.wicket.ajax.AjaxRequestTarget)
+	 */
+	public final void onBatchedEvent(Map<String, String> parameters,
+			AjaxRequestTarget ajaxRequestTarget) {
+		onDrop(parameters.get(DROPPED_ID), ajaxRequestTarget);
+	}
+	
+	/**
+	 * @param input the markup id of the dropped component
+	 * @param target
+	 */
+	@SuppressWarnings("unchecked")
+	private void onDrop(String input, AjaxRequestTarget target) {
+		onDrop((E) MarkupIdIndex.findComponent(this.getComponent().getPage(),
+				input), target);
 	}
 
 	/**
@@ -21,7 +21,12 @@
  */
 package org.odlabs.wiquery.ui.droppable;
 
+import org.apache.wicket.ResourceReference;
+import org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference;
 import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.draggable.DraggableJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.mouse.MouseJavascriptResourceReference;
+import org.odlabs.wiquery.ui.widget.WidgetJavascriptResourceReference;
 
 /**
  * $Id: DroppableJavaScriptResourceReference.java 81 2009-05-28 20:05:12Z
@@ -36,7 +41,8 @@ import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
  * @since 0.5
  */
 public class DroppableJavaScriptResourceReference extends
-		WiQueryJavaScriptResourceReference {
+		WiQueryJavaScriptResourceReference implements
+		IWiQueryDependentResourceReference {
 	// Constants
 	/** Constant of serialization */
 	private static final long serialVersionUID = 3704373328245392715L;
@@ -59,4 +65,15 @@ public class DroppableJavaScriptResourceReference extends
 	public static DroppableJavaScriptResourceReference get() {
 		return instance;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference#getDependencies()
+	 */
+	public ResourceReference[] getDependencies() {
+		return new ResourceReference[] { WidgetJavascriptResourceReference.get(),
+				MouseJavascriptResourceReference.get(),
+				DraggableJavaScriptResourceReference.get() };
+	}
 }
@@ -21,6 +21,8 @@
  */
 package org.odlabs.wiquery.ui.effects;
 
+import org.apache.wicket.ResourceReference;
+import org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference;
 import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
 
 /**
@@ -31,7 +33,9 @@ import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
  * @author Julien Roche
  * @since 1.0
  */
-public class ClipEffectJavaScriptResourceReference extends WiQueryJavaScriptResourceReference {
+public class ClipEffectJavaScriptResourceReference extends
+		WiQueryJavaScriptResourceReference implements
+		IWiQueryDependentResourceReference {
 	// Constants
 	/**	Constant of serialization */
 	private static final long serialVersionUID = 4348767855865592967L;
@@ -54,4 +58,13 @@ public class ClipEffectJavaScriptResourceReference extends WiQueryJavaScriptReso
 	public static ClipEffectJavaScriptResourceReference get() {
 		return instance;
 	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see org.odlabs.wiquery.core.commons.IWiQueryDependentResourceReference#getDependencies()
+	 */
+	public ResourceReference[] getDependencies() {
+		return new ResourceReference[] { CoreEffectJavaScriptResourceReference.get() };
+	}
 }
@@ -39,7 +39,6 @@ public abstract class EffectsHelper {
 	 * @param manager
 	 */
 	public static void blind(WiQueryResourceManager manager) {
-		manager.addJavaScriptResource(CoreEffectJavaScriptResourceReference.get());
 		manager.addJavaScriptResource(BlindEffectJavaScriptResourceReference.get());
 	}
 	
@@ -48,7 +47,6 @@ public abstract class EffectsHelper {
 	 * @param manager
 	 */
 	public static void bounce(WiQueryResourceManager manager) {
-		manager.addJavaScriptResource(CoreEffectJavaScriptResourceReference.get());
 		manager.addJavaScriptResource(BounceEffectJavaScriptResourceReference.get());
 	}
 	
@@ -57,7 +55,6 @@ public abstract class EffectsHelper {
 	 * @param manager
 	 */
 	public static void clip(WiQueryResourceManager manager) {
-		manager.addJavaScriptResource(CoreEffectJavaScriptResourceReference.get());
 		manager.addJavaScriptResource(ClipEffectJavaScriptResourceReference.get());
 	}
 	
@@ -66,7 +63,6 @@ public abstract class EffectsHelper {
 	 * @param manager
 	 */
 	public static void drop(WiQueryResourceManager manager) {
-		manager.addJavaScriptResource(CoreEffectJavaScriptResourceReference.get());
 		manager.addJavaScriptResource(DropEffectJavaScriptResourceReference.get());
 	}
 	
@@ -75,7 +71,6 @@ public abstract class EffectsHelper {
 	 * @param manager
 	 */
 	public static void explode(WiQueryResourceManager manager) {
-		manager.addJavaScriptResource(CoreEffectJavaScriptResourceReference.get());
 		manager.addJavaScriptResource(ExplodeEffectJavaScriptResourceReference.get());
 	}
 	
@@ -84,7 +79,6 @@ public abstract class EffectsHelper {
 	 * @param manager
 	 */
 	public static void fold(WiQueryResourceManager manager) {
-		manager.addJavaScriptResource(CoreEffectJavaScriptResourceReference.get());
 		manager.addJavaScriptResource(FoldEffectJavaScriptResourceReference.get());
 	}
 	
@@ -93,7 +87,6 @@ public abstract class EffectsHelper {
 	 * @param manager
 	 */
 	public static void highlight(WiQueryResourceManager manager) {
-		manager.addJavaScriptResource(CoreEffectJavaScriptResourceReference.get());
 		manager.addJavaScriptResource(HighlightEffectJavaScriptResourceReference.get());
 	}
 	
@@ -102,7 +95,6 @@ public abstract class EffectsHelper {
 	 * @param manager
 	 */
 	public static void pulsate(WiQueryResourceManager manager) {
-		manager.addJavaScriptResource(CoreEffectJavaScriptResourceReference.get());
 		manager.addJavaScriptResource(PulsateEffectJavaScriptResourceReference.get());
 	}
 	
@@ -111,7 +103,6 @@ public abstract class EffectsHelper {
 	 * @param manager
 	 */
 	public static void scale(WiQueryResourceManager manager) {
-		manager.addJavaScriptResource(CoreEffectJavaScriptResourceReference.get());
 		manager.addJavaScriptResource(ScaleEffectJavaScriptResourceReference.get());
 	}
 	
@@ -120,7 +111,6 @@ public abstract class EffectsHelper {
 	 * @param manager
 	 */
 	public static void shake(WiQueryResourceManager manager) {
-		manager.addJavaScriptResource(CoreEffectJavaScriptResourceReference.get());
 		manager.addJavaScriptResource(ShakeEffectJavaScriptResourceReference.get());
 	}
 	
@@ -129,7 +119,6 @@ public abstract class EffectsHelper {
 	 * @param manager
 	 */
 	public static void slide(WiQueryResourceManager manager) {
-		manager.addJavaScriptResource(CoreEffectJavaScriptResourceReference.get());
 		manager.addJavaScriptResource(SlideEffectJavaScriptResourceReference.get());
 	}
 	
@@ -138,7 +127,6 @@ public abstract class EffectsHelper {
 	 * @param manager
 	 */
 	public static void transfer(WiQueryResourceManager manager) {
-		manager.addJavaScriptResource(CoreEffectJavaScriptResourceReference.get());
 		manager.addJavaScriptResource(TransferEffectJavaScriptResourceReference.get());
 	}
 }
@@ -55,7 +55,8 @@ public abstract class JsScopePositionEvent extends JsScope {
 	 *            the JavaScript statement to execute with the scope.
 	 * @return the created {@link JsScopeUiDatePickerDateTextEvent}.
 	 */
-	public static JsScopePositionEvent quickScope(final CharSequence javascriptCode) {
+	public static JsScopePositionEvent quickScope(CharSequence javascriptCode) {
+		final String javascript = String.valueOf(javascriptCode);
 		return new JsScopePositionEvent() {
 			private static final long serialVersionUID = 1L;
 
@@ -65,7 +66,7 @@ public abstract class JsScopePositionEvent extends JsScope {
 			 */
 			@Override
 			protected void execute(JsScopeContext scopeContext) {
-				scopeContext.append(javascriptCode);
+				scopeContext.append(javascript);
 			}
 
 		};
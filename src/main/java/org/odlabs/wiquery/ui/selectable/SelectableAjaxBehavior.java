@@ -24,12 +24,13 @@ package org.odlabs.wiquery.ui.selectable;
 import java.util.StringTokenizer;
 
 import org.apache.wicket.Component;
+import org.apache.wicket.Page;
 import org.apache.wicket.ajax.AbstractDefaultAjaxBehavior;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.odlabs.wiquery.core.javascript.JsScopeContext;
 import org.odlabs.wiquery.core.javascript.JsStatement;
 import org.odlabs.wiquery.core.options.Options;
-import org.odlabs.wiquery.core.util.MarkupIdVisitor;
+import org.odlabs.wiquery.core.util.MarkupIdIndex;
 import org.odlabs.wiquery.ui.core.JsScopeUiEvent;
 import org.odlabs.wiquery.ui.selectable.SelectableBehavior.ToleranceEnum;
 
@@ -188,13 +189,12 @@ public abstract class SelectableAjaxBehavior extends AbstractDefaultAjaxBehavior
 		StringTokenizer tokenized = new StringTokenizer(selected, ",");
 		Component[] components = new Component[tokenized.countTokens()];
 		
-		Integer index = 0;
-		MarkupIdVisitor visitorParent = null;
+		int index = 0;
+		Page page = this.getComponent().getPage();
 		
 		while(tokenized.hasMoreTokens()){
-			visitorParent = new MarkupIdVisitor(tokenized.nextToken().trim());
-			this.getComponent().getPage().visitChildren(visitorParent);
-			components[index] = visitorParent.getFoundComponent();
+			components[index] = MarkupIdIndex.findComponent(page, tokenized
+					.nextToken().trim());
 			index++;
 		}
 		
@@ -26,6 +26,7 @@ import java.util.StringTokenizer;
 import org.apache.wicket.ajax.AbstractDefaultAjaxBehavior;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.protocol.http.WebRequestCycle;
+import org.apache.wicket.util.time.Duration;
 import org.odlabs.wiquery.core.javascript.JsScopeContext;
 import org.odlabs.wiquery.ui.core.JsScopeUiEvent;
 
@@ -149,17 +150,31 @@ public class AjaxSlider extends Slider {
 		 */
 		@Override
 		protected void execute(JsScopeContext scopeContext) {
+			// delegating call-back generation to AJAX behavior
+			// so that we don't miss 'decorator' related functionality.
+			CharSequence callbackScript = slider.sliderContext.generateCallbackScript("wicketAjaxGet(url");
+			StringBuffer javascript = new StringBuffer();
+			
+			if(slider.isSlideThrottled()) {
+				if(event == SliderAjaxEvent.ajaxSlideEvent) {
+					callbackScript = AbstractDefaultAjaxBehavior.throttleScript(
+							callbackScript, slider.getSlideThrottleId(), slider.slideThrottleDelay);
+				} else if(event != SliderAjaxEvent.ajaxStartEvent) {
+					// the last slide event is sent before the stop and change events
+					javascript.append("wicketThrottler.execute('")
+						.append(slider.getSlideThrottleId()).append("');");
+				}
+			}
+			
 			scopeContext.append(
-					new StringBuffer()
+					javascript
 					.append("var values = $(this).slider('values');")
 					.append("var url = '").append(slider.sliderContext.getCallbackUrl(true))
 					.append("&").append(SLIDER_EVENT).append("=").append(event.name())
 					.append("&").append(SLIDER_VALUE).append("=").append("'+").append(Slider.UI_VALUE)
 					.append("+'&").append(SLIDER_VALUES).append("=").append("'+").append("values")
 					.append(";")
-					// delegating call-back generation to AJAX behavior
-					// so that we don't miss 'decorator' related functionality.
-					.append(slider.sliderContext.generateCallbackScript("wicketAjaxGet(url"))
+					.append(callbackScript)
 					.toString());
 			
 		}
@@ -171,6 +186,11 @@ public class AjaxSlider extends Slider {
 	 */
 	private Map<SliderAjaxEvent, ISliderAjaxEvent> ajaxEvents = new HashMap<SliderAjaxEvent, ISliderAjaxEvent>();
 	
+	/*
+	 * Minimum delay between two slide events sent to the server.
+	 */
+	private Duration slideThrottleDelay;
+	
 	
 	/** 
 	 * Constructor
@@ -245,6 +265,41 @@ public class AjaxSlider extends Slider {
 		}
 	}
 
+	/**
+	 * @return the minimum delay between two slide events sent to the server,
+	 * or <code>null</code> if every slide event is sent.
+	 */
+	public Duration getAjaxSlideThrottleDelay() {
+		return slideThrottleDelay;
+	}
+	
+	/**
+	 * Throttles the AJAX slide events: at most one request is sent per delay,
+	 * with the latest value, and the last value is always sent before the 
+	 * stop and change events.
+	 * 
+	 * @param slideThrottleDelay The minimum delay between two slide events 
+	 * sent to the server, <code>null</code> to send every slide event.
+	 */
+	public void setAjaxSlideThrottleDelay(Duration slideThrottleDelay) {
+		this.slideThrottleDelay = slideThrottleDelay;
+	}
+	
+	/**
+	 * @return the identifier of the throttler of the slide events.
+	 */
+	private String getSlideThrottleId() {
+		return getMarkupId() + "-" + SliderAjaxEvent.ajaxSlideEvent.name();
+	}
+	
+	/**
+	 * @return true if the AJAX slide events are throttled.
+	 */
+	private boolean isSlideThrottled() {
+		return ajaxEvents.containsKey(SliderAjaxEvent.ajaxSlideEvent)
+			&& slideThrottleDelay != null && slideThrottleDelay.getMilliseconds() > 0;
+	}
+	
 	/**
 	 * Sets the call-back for the AJAX stop event.
 	 * 
@@ -23,6 +23,7 @@ package org.odlabs.wiquery.ui.sortable;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.wicket.Component;
@@ -33,7 +34,9 @@ import org.odlabs.wiquery.core.javascript.JsScopeContext;
 import org.odlabs.wiquery.core.javascript.JsStatement;
 import org.odlabs.wiquery.core.options.ICollectionItemOptions;
 import org.odlabs.wiquery.core.options.Options;
-import org.odlabs.wiquery.core.util.MarkupIdVisitor;
+import org.odlabs.wiquery.core.util.MarkupIdIndex;
+import org.odlabs.wiquery.ui.core.AjaxEventBatchBehavior;
+import org.odlabs.wiquery.ui.core.IAjaxEventBatchListener;
 import org.odlabs.wiquery.ui.core.JsScopeUiEvent;
 import org.odlabs.wiquery.ui.sortable.SortableBehavior.AxisEnum;
 import org.odlabs.wiquery.ui.sortable.SortableBehavior.CursorAtEnum;
@@ -80,7 +83,8 @@ import org.odlabs.wiquery.ui.sortable.SortableBehavior.ToleranceEnum;
  * @author Ernesto Reinaldo Barreiro
  * @since 1.0
  */
-public abstract class SortableAjaxBehavior<E extends Component> extends AbstractDefaultAjaxBehavior {
+public abstract class SortableAjaxBehavior<E extends Component> extends AbstractDefaultAjaxBehavior
+		implements IAjaxEventBatchListener {
 	/**
 	 * We override the behavior to deny the access of critical methods
 	 * 
@@ -191,7 +195,9 @@ public abstract class SortableAjaxBehavior<E extends Component> extends Abstract
 					 */
 					@Override
 					protected void execute(JsScopeContext scopeContext) {				
-						scopeContext.append(SortableAjaxBehavior.this.getCallbackScriptReceive(true));	
+						scopeContext.append(eventBatch == null
+							? getCallbackScriptReceive(true)
+							: eventBatch.getQueueScript(SortableAjaxBehavior.this, "'" + getReceiveParameters()));	
 					}
 		
 				});
@@ -207,7 +213,9 @@ public abstract class SortableAjaxBehavior<E extends Component> extends Abstract
 					 */
 					@Override
 					protected void execute(JsScopeContext scopeContext) {
-						scopeContext.append(SortableAjaxBehavior.this.getCallbackScriptRemove(true));
+						scopeContext.append(eventBatch == null
+							? getCallbackScriptRemove(true)
+							: eventBatch.getQueueScript(SortableAjaxBehavior.this, "'" + getRemoveParameters()));
 					}
 		
 				});
@@ -223,7 +231,9 @@ public abstract class SortableAjaxBehavior<E extends Component> extends Abstract
 					 */
 					@Override
 					protected void execute(JsScopeContext scopeContext) {
-						scopeContext.append(SortableAjaxBehavior.this.getCallbackScriptUpdate(true));
+						scopeContext.append(eventBatch == null
+							? getCallbackScriptUpdate(true)
+							: eventBatch.getQueueScript(SortableAjaxBehavior.this, "'" + getUpdateParameters()));
 					}
 		
 				});
@@ -244,10 +254,17 @@ public abstract class SortableAjaxBehavior<E extends Component> extends Abstract
 	protected CharSequence getCallbackScriptReceive(boolean onlyTargetActivePage)
 	{
 		return generateCallbackScript("wicketAjaxGet('" + getCallbackUrl(onlyTargetActivePage) 
-				+ "&" + SORTED_TYPE + "=" + SortedEvent.RECEIVE.toString().toLowerCase() 
-				+ "&" + SORTED_INDEX + "='+$(this).find(':data(sortable-item)').index(" + SortableBehavior.UI_ITEM + ")+'"
-				+ "&" + SORTED_ID + "='+ $(" + SortableBehavior.UI_ITEM + ").attr('id')" 
-				+ "+'&" + SORTED_PARENT_ID + "='+ $(" + SortableBehavior.UI_SENDER + ").attr('id')");
+				+ "&" + getReceiveParameters());
+	}
+	
+	/**
+	 * @return the parameters of the receive event (the opening quote is left out)
+	 */
+	private String getReceiveParameters() {
+		return SORTED_TYPE + "=" + SortedEvent.RECEIVE.toString().toLowerCase() 
+			+ "&" + SORTED_INDEX + "='+$(this).find(':data(sortable-item)').index(" + SortableBehavior.UI_ITEM + ")+'"
+			+ "&" + SORTED_ID + "='+ $(" + SortableBehavior.UI_ITEM + ").attr('id')" 
+			+ "+'&" + SORTED_PARENT_ID + "='+ $(" + SortableBehavior.UI_SENDER + ").attr('id')";
 	}
 	
 	/**
@@ -261,8 +278,15 @@ public abstract class SortableAjaxBehavior<E extends Component> extends Abstract
 	protected CharSequence getCallbackScriptRemove(boolean onlyTargetActivePage)
 	{
 		return generateCallbackScript("wicketAjaxGet('" + getCallbackUrl(onlyTargetActivePage) 
-				+ "&" + SORTED_TYPE + "=" + SortedEvent.REMOVE.toString().toLowerCase() 
-				+ "&" + SORTED_ID + "='+ $(" + SortableBehavior.UI_ITEM + ").attr('id')");
+				+ "&" + getRemoveParameters());
+	}
+	
+	/**
+	 * @return the parameters of the remove event (the opening quote is left out)
+	 */
+	private String getRemoveParameters() {
+		return SORTED_TYPE + "=" + SortedEvent.REMOVE.toString().toLowerCase() 
+			+ "&" + SORTED_ID + "='+ $(" + SortableBehavior.UI_ITEM + ").attr('id')";
 	}
 	
 	/**
@@ -276,9 +300,16 @@ public abstract class SortableAjaxBehavior<E extends Component> extends Abstract
 	protected CharSequence getCallbackScriptUpdate(boolean onlyTargetActivePage)
 	{
 		return generateCallbackScript("wicketAjaxGet('" + getCallbackUrl(onlyTargetActivePage) 
-				+ "&" + SORTED_TYPE + "=" + SortedEvent.UPDATE.toString().toLowerCase() 
-				+ "&" + SORTED_INDEX + "='+$(this).find(':data(sortable-item)').index(" + SortableBehavior.UI_ITEM + ")+'"
-				+ "&" + SORTED_ID + "='+ $(" + SortableBehavior.UI_ITEM + ").attr('id')");
+				+ "&" + getUpdateParameters());
+	}
+	
+	/**
+	 * @return the parameters of the update event (the opening quote is left out)
+	 */
+	private String getUpdateParameters() {
+		return SORTED_TYPE + "=" + SortedEvent.UPDATE.toString().toLowerCase() 
+			+ "&" + SORTED_INDEX + "='+$(this).find(':data(sortable-item)').index(" + SortableBehavior.UI_ITEM + ")+'"
+			+ "&" + SORTED_ID + "='+ $(" + SortableBehavior.UI_ITEM + ").attr('id')";
 	}
 	
 	/**
@@ -319,6 +350,11 @@ public abstract class SortableAjaxBehavior<E extends Component> extends Abstract
 	 */
 	private Set<SortedEvent> callbacks;
 	
+	/**
+	 * Batch sending the events, or null
+	 */
+	private AjaxEventBatchBehavior eventBatch;
+	
 	/**
 	 * Default constructor
 	 */
@@ -352,6 +388,29 @@ public abstract class SortableAjaxBehavior<E extends Component> extends Abstract
 		return sortableBehavior;
 	}
 	
+	/**
+	 * @return the batch sending the events, or null if each event is sent
+	 * in its own request
+	 */
+	public AjaxEventBatchBehavior getEventBatch() {
+		return eventBatch;
+	}
+	
+	/**
+	 * Sends the events with the other events of the same gesture, through
+	 * the given batch
+	 * @param eventBatch the batch, or null to send each event in its own 
+	 * request
+	 * @return instance of the current behavior
+	 */
+	public SortableAjaxBehavior<E> setEventBatch(AjaxEventBatchBehavior eventBatch) {
+		this.eventBatch = eventBatch;
+		if(eventBatch != null){
+			eventBatch.addListener(this);
+		}
+		return this;
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 * @see org.apache.wicket.ajax.AbstractDefaultAjaxBehavior#onBind()
@@ -388,31 +447,42 @@ public abstract class SortableAjaxBehavior<E extends Component> extends Abstract
 	/**
 	 * For framework internal use only.
 	 */
-	@SuppressWarnings("unchecked")
 	public final void onSort(AjaxRequestTarget target) {
+		onSort(null, target);
+	}
+	
+	/**
+	 * For framework internal use only.
+	 * @see org.odlabs.wiquery.ui.core.IAjaxEventBatchListener#onBatchedEvent(java.util.Map, org.apache.wicket.ajax.AjaxRequestTarget)
+	 */
+	public final void onBatchedEvent(Map<String, String> parameters,
+			AjaxRequestTarget ajaxRequestTarget) {
+		onSort(parameters, ajaxRequestTarget);
+	}
+	
+	/**
+	 * @param parameters parameters of a batched event, or null to read them 
+	 * from the request
+	 * @param target
+	 */
+	@SuppressWarnings("unchecked")
+	private void onSort(Map<String, String> parameters, AjaxRequestTarget target) {
 		// getting sorted element id to retrieve the Wicket component
-		String input = this.getComponent().getRequest().getParameter(
-				SORTED_ID);
+		String input = getParameter(parameters, SORTED_ID);
 		
-		String indexStr = this.getComponent().getRequest().getParameter(
-				SORTED_INDEX);
+		String indexStr = getParameter(parameters, SORTED_INDEX);
 		int index = indexStr == null ? -1 : Integer.valueOf(indexStr);
 		
-		SortedEvent sortedEvent =  SortedEvent.valueOf(this.getComponent().getRequest().getParameter(
-				SORTED_TYPE).toUpperCase());
+		SortedEvent sortedEvent =  SortedEvent.valueOf(getParameter(parameters, SORTED_TYPE).toUpperCase());
 			
-		MarkupIdVisitor visitor = new MarkupIdVisitor(input);
-		this.getComponent().getPage().visitChildren(visitor);
-		E sortedComponent = (E) visitor.getFoundComponent();
+		E sortedComponent = (E) MarkupIdIndex.findComponent(this
+				.getComponent().getPage(), input);
 		
 		switch(sortedEvent){
 		case RECEIVE:
-			String parent = this.getComponent().getRequest().getParameter(
-					SORTED_PARENT_ID);
-			MarkupIdVisitor visitorParent = new MarkupIdVisitor(parent);
-			this.getComponent().getPage().visitChildren(visitorParent);
-			
-			onReceive(sortedComponent, index, visitorParent.getFoundComponent(), target);
+			String parent = getParameter(parameters, SORTED_PARENT_ID);
+			onReceive(sortedComponent, index, MarkupIdIndex.findComponent(this
+					.getComponent().getPage(), parent), target);
 			break;
 		case REMOVE:
 			onRemove(sortedComponent, target);
@@ -423,6 +493,15 @@ public abstract class SortableAjaxBehavior<E extends Component> extends Abstract
 		}
 	}
 	
+	/**
+	 * @return the parameter of the batched event, or of the request
+	 */
+	private String getParameter(Map<String, String> parameters, String name) {
+		return parameters == null 
+			? getComponent().getRequest().getParameter(name) 
+			: parameters.get(name);
+	}
+	
 	/**
 	 * onUpdate is called back when the user stopped sorting and the DOM 
 	 * position has changed.
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+/**
+ * Queue of the AJAX events fired by the drag and drop widgets during one
+ * gesture: jQuery UI fires the sortable, droppable and draggable callbacks of
+ * a drop in the same mouseup handler, so the events queued until the next
+ * turn of the event loop are sent together, in one request.
+ */
+var WiQueryAjaxBatch = {
+	queues: {},
+
+	/**
+	 * Queues an event
+	 * @param id Identifier of the batch
+	 * @param event The event (listener index and parameters)
+	 * @param send Function sending the queued events (query string)
+	 */
+	queue: function(id, event, send) {
+		var queue = WiQueryAjaxBatch.queues[id];
+
+		if (queue == undefined) {
+			queue = WiQueryAjaxBatch.queues[id] = [];
+			window.setTimeout(function() {
+				delete WiQueryAjaxBatch.queues[id];
+				send(queue.join('&'));
+			}, 0);
+		}
+
+		queue.push('batchedEvent=' + encodeURIComponent(event));
+	}
+};
@@ -0,0 +1 @@
+var WiQueryAjaxBatch={queues:{},queue:function(a,b,c){var d=WiQueryAjaxBatch.queues[a];if(d==undefined){d=WiQueryAjaxBatch.queues[a]=[];window.setTimeout(function(){delete WiQueryAjaxBatch.queues[a];c(d.join("&"))},0)}d.push("batchedEvent="+encodeURIComponent(b))}};
\ No newline at end of file
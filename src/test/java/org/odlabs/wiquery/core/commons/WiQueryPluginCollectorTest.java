@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+
+/**
+ * Test on {@link WiQueryPluginCollector}
+ */
+public class WiQueryPluginCollectorTest extends WiQueryTestCase {
+	/**
+	 * The plugins are rendered in the order of the page hierarchy, without the
+	 * plugins of the hidden components, on the first and the next renders.
+	 */
+	@Test
+	public void testPluginsOrder() {
+		WiQueryPluginCollectorTestPage page = new WiQueryPluginCollectorTestPage();
+		tester.startPage(page);
+		assertPluginsOrder();
+
+		tester.startPage(page);
+		assertPluginsOrder();
+	}
+
+	private void assertPluginsOrder() {
+		String document = tester.getServletResponse().getDocument();
+		int outer = document.indexOf("plugin('outer');");
+		int inner = document.indexOf("plugin('inner');");
+		int sibling = document.indexOf("plugin('sibling');");
+		int page = document.indexOf("plugin('page');");
+
+		assertTrue(outer >= 0);
+		assertTrue(outer < inner);
+		assertTrue(inner < sibling);
+		assertTrue(sibling < page);
+		assertEquals(-1, document.indexOf("plugin('hidden')"));
+	}
+}
@@ -0,0 +1,44 @@
+package org.odlabs.wiquery.core.commons;
+
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.WebPage;
+import org.odlabs.wiquery.core.behavior.WiQueryAbstractBehavior;
+import org.odlabs.wiquery.core.javascript.JsStatement;
+
+public class WiQueryPluginCollectorTestPage extends WebPage {
+	public static class TestPluginBehavior extends WiQueryAbstractBehavior {
+		private static final long serialVersionUID = 1L;
+
+		private final String name;
+
+		public TestPluginBehavior(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public JsStatement statement() {
+			return new JsStatement().append("plugin('" + name + "')");
+		}
+	}
+
+	public WiQueryPluginCollectorTestPage() {
+		WebMarkupContainer outer = new WebMarkupContainer("outer");
+		outer.add(new TestPluginBehavior("outer"));
+		add(outer);
+
+		WebMarkupContainer inner = new WebMarkupContainer("inner");
+		inner.add(new TestPluginBehavior("inner"));
+		outer.add(inner);
+
+		WebMarkupContainer hidden = new WebMarkupContainer("hidden");
+		hidden.add(new TestPluginBehavior("hidden"));
+		hidden.setVisible(false);
+		outer.add(hidden);
+
+		WebMarkupContainer sibling = new WebMarkupContainer("sibling");
+		sibling.add(new TestPluginBehavior("sibling"));
+		add(sibling);
+
+		add(new TestPluginBehavior("page"));
+	}
+}
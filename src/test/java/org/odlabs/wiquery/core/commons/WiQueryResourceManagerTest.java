@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.wicket.ResourceReference;
+import org.apache.wicket.WicketRuntimeException;
+import org.junit.Test;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+import org.odlabs.wiquery.ui.button.ButtonJavascriptResourceReference;
+import org.odlabs.wiquery.ui.dialog.DialogJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.draggable.DraggableJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.droppable.DroppableJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.mouse.MouseJavascriptResourceReference;
+import org.odlabs.wiquery.ui.position.PositionJavascriptResourceReference;
+import org.odlabs.wiquery.ui.resizable.ResizableJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.tabs.TabsJavaScriptResourceReference;
+import org.odlabs.wiquery.ui.widget.WidgetJavascriptResourceReference;
+
+/**
+ * Test on {@link WiQueryResourceManager}
+ */
+public class WiQueryResourceManagerTest extends WiQueryTestCase {
+	private static class CyclicResourceReference extends ResourceReference
+			implements IWiQueryDependentResourceReference {
+		private static final long serialVersionUID = 1L;
+
+		private ResourceReference dependency;
+
+		public CyclicResourceReference(String name) {
+			super(WiQueryResourceManagerTest.class, name);
+		}
+
+		public ResourceReference[] getDependencies() {
+			return new ResourceReference[] { dependency };
+		}
+	}
+
+	@Test
+	public void testDependenciesFirst() {
+		WiQueryResourceManager manager = new WiQueryResourceManager();
+		manager.addJavaScriptResource(DroppableJavaScriptResourceReference.get());
+
+		assertEquals(Arrays.<ResourceReference> asList(
+				WidgetJavascriptResourceReference.get(),
+				MouseJavascriptResourceReference.get(),
+				DraggableJavaScriptResourceReference.get(),
+				DroppableJavaScriptResourceReference.get()), manager
+				.getJavaScriptResources());
+	}
+
+	@Test
+	public void testNoDuplicates() {
+		WiQueryResourceManager manager = new WiQueryResourceManager();
+		manager.addJavaScriptResource(TabsJavaScriptResourceReference.get());
+		manager.addJavaScriptResource(WidgetJavascriptResourceReference.get());
+		manager.addJavaScriptResource(DialogJavaScriptResourceReference.get());
+		manager.addJavaScriptResource(TabsJavaScriptResourceReference.get());
+
+		List<ResourceReference> resources = manager.getJavaScriptResources();
+		assertEquals(Arrays.<ResourceReference> asList(
+				WidgetJavascriptResourceReference.get(),
+				TabsJavaScriptResourceReference.get(),
+				ButtonJavascriptResourceReference.get(),
+				MouseJavascriptResourceReference.get(),
+				DraggableJavaScriptResourceReference.get(),
+				PositionJavascriptResourceReference.get(),
+				ResizableJavaScriptResourceReference.get(),
+				DialogJavaScriptResourceReference.get()), resources);
+	}
+
+	@Test(expected = WicketRuntimeException.class)
+	public void testCyclicDependencies() {
+		CyclicResourceReference a = new CyclicResourceReference("a.js");
+		CyclicResourceReference b = new CyclicResourceReference("b.js");
+		a.dependency = b;
+		b.dependency = a;
+
+		WiQueryResourceManager manager = new WiQueryResourceManager();
+		manager.addJavaScriptResource(a);
+		manager.getJavaScriptResources();
+	}
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.ResourceReference;
+import org.apache.wicket.javascript.IJavascriptCompressor;
+import org.apache.wicket.util.lang.Packages;
+import org.junit.Test;
+import org.odlabs.wiquery.core.commons.compressed.CompressedResourceCache;
+import org.odlabs.wiquery.core.commons.compressed.JavaScriptCompressionCache;
+import org.odlabs.wiquery.core.commons.compressed.YUIJavaScriptCompressor;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+import org.odlabs.wiquery.ui.autocomplete.AbstractAutocompleteComponent;
+
+/**
+ * Test of the {@link WiQueryResourceWarmUp}
+ */
+public class WiQueryResourceWarmUpTest extends WiQueryTestCase {
+	/**
+	 * Test that the default references exist
+	 */
+	@Test
+	public void testGetDefaultReferences() {
+		List<ResourceReference> references = WiQueryResourceWarmUp.getDefaultReferences();
+		assertTrue(references.size() > 30);
+
+		for (ResourceReference reference : references) {
+			reference.bind(Application.get());
+			assertNotNull(reference.getResource());
+			assertNotNull(reference.toString(), Application.get()
+					.getResourceSettings().getResourceStreamLocator().locate(
+							reference.getScope(),
+							Packages.absolutePath(reference.getScope(),
+									reference.getName())));
+		}
+	}
+
+	/**
+	 * Test the warm-up of the resources
+	 */
+	@Test
+	public void testWarmUp() {
+		final List<String> compressed = Collections.synchronizedList(new ArrayList<String>());
+		Application application = Application.get();
+		application.getResourceSettings().setJavascriptCompressor(new IJavascriptCompressor() {
+			public String compress(String original) {
+				compressed.add(original);
+				return original;
+			}
+		});
+
+		WiQuerySettings settings = WiQuerySettings.get();
+		ResourceReference reference = AbstractAutocompleteComponent.WIQUERY_AUTOCOMPLETE_JS;
+		settings.addWarmUpReference(reference);
+		assertEquals(1, settings.getWarmUpReferences().size());
+
+		// Without merging, nothing is compressed
+		new WiQueryResourceWarmUp(application).warmUp();
+		assertTrue(compressed.isEmpty());
+		assertTrue(application.getSharedResources().get(
+				reference.getSharedResourceKey()) != null);
+
+		// the content and the gzipped variants are cached
+		int cached = CompressedResourceCache.get().size();
+		assertTrue(cached > 30);
+
+		// the results of another compressor wouldn't be kept
+		settings.setEnableResourcesMerging(true);
+		new WiQueryResourceWarmUp(application).warmUp();
+		assertTrue(compressed.isEmpty());
+		assertEquals(cached, CompressedResourceCache.get().size());
+		assertTrue(CompressedResourceCache.get().getHitCount() >= cached);
+
+		application.getResourceSettings().setJavascriptCompressor(
+				new YUIJavaScriptCompressor());
+		new WiQueryResourceWarmUp(application).warmUp();
+		assertFalse(JavaScriptCompressionCache.get().size() == 0);
+	}
+
+	/**
+	 * Test the interruption of the warm-up
+	 */
+	@Test
+	public void testInterrupted() {
+		Thread.currentThread().interrupt();
+		new WiQueryResourceWarmUp(Application.get()).warmUp();
+		assertFalse(Thread.interrupted());
+		assertEquals(0, CompressedResourceCache.get().size());
+	}
+}
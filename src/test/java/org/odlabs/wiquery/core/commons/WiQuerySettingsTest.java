@@ -141,6 +141,26 @@ public class WiQuerySettingsTest extends WiQueryTestCase {
 
 	}
 
+	@Test
+	public void testWiqueryResourceManagementDisabledUILibraryEnabled() {
+		WiQuerySettings.get().setEnableWiqueryResourceManagement(false);
+		WiQuerySettings.get().setAutoImportJQueryUIResource(true);
+		startTestPage();
+		assertNotContains(
+				"Resource Management is disabled. Reference shouldn't be rendered",
+				CoreJavaScriptResourceReference.class.getName());
+		tester
+				.assertContains(WiQueryCoreThemeResourceReference.class
+						.getName());
+		tester
+				.assertContains(CoreUIJavaScriptResourceReference.class
+						.getName());
+		assertNotContains(
+				"Resource Management is disabled. Reference shouldn't be rendered",
+				WidgetJavascriptResourceReference.class.getName());
+
+	}
+
 	private void startTestPage() {
 		WiQuerySettingsTestPage p = new WiQuerySettingsTestPage();
 		p.add(new TestEventBehavior(new TestEvent()));
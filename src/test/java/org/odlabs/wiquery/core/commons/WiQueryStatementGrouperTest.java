@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+
+/**
+ * Tests {@link WiQueryStatementGrouper}.
+ */
+public class WiQueryStatementGrouperTest extends WiQueryTestCase {
+	@Test
+	public void testGroup() {
+		WiQueryStatementGrouper grouper = new WiQueryStatementGrouper();
+		grouper.add("$('#a').datepicker({firstDay: 1});");
+		grouper.add("$('#b').button({disabled: true});");
+		grouper.add("$('#c').datepicker({firstDay: 1});");
+		grouper.add("$('#d').button({disabled: false});");
+		grouper.add("$('#e').datepicker({firstDay: 1});");
+
+		StringBuilder buffer = new StringBuilder();
+		grouper.render(buffer);
+		assertEquals("\t$('#a, #c, #e').datepicker({firstDay: 1});\n"
+				+ "\t$('#b').button({disabled: true});\n"
+				+ "\t$('#d').button({disabled: false});\n", buffer.toString());
+	}
+
+	@Test
+	public void testNotGrouped() {
+		WiQueryStatementGrouper grouper = new WiQueryStatementGrouper();
+		grouper.add("alert('a');");
+		grouper.add("alert('a');");
+		grouper.add("$('#a').tabs({select: $('#b')});");
+		grouper.add("$('#c').tabs({select: $('#b')});");
+		grouper.add("$('#a:b').button();");
+		grouper.add("$('#c:b').button();");
+
+		StringBuilder buffer = new StringBuilder();
+		grouper.render(buffer);
+		assertEquals("\talert('a');\n\talert('a');\n"
+				+ "\t$('#a').tabs({select: $('#b')});\n"
+				+ "\t$('#c').tabs({select: $('#b')});\n"
+				+ "\t$('#a:b').button();\n\t$('#c:b').button();\n", buffer
+				.toString());
+	}
+
+	@Test
+	public void testNotSingleChain() {
+		WiQueryStatementGrouper grouper = new WiQueryStatementGrouper();
+		grouper.add("$('#a').button();foo();");
+		grouper.add("$('#b').button();foo();");
+		grouper.add("$('#c').button({label: ';'}).show();");
+		grouper.add("$('#d').button({label: ';'}).show();");
+		grouper.add("$('#e').button()\nfoo()");
+		grouper.add("$('#f').button()\nfoo()");
+
+		StringBuilder buffer = new StringBuilder();
+		grouper.render(buffer);
+		assertEquals("\t$('#a').button();foo();\n"
+				+ "\t$('#b').button();foo();\n"
+				+ "\t$('#c, #d').button({label: ';'}).show();\n"
+				+ "\t$('#e').button()\nfoo()\n"
+				+ "\t$('#f').button()\nfoo()\n", buffer.toString());
+	}
+
+	@Test
+	public void testGroupedPage() {
+		WiQuerySettings.get().setEmbedGeneratedStatements(true);
+		WiQuerySettings.get().setGroupIdenticalStatements(true);
+		tester.startPage(new WiQueryStatementGrouperTestPage());
+
+		tester.assertContains("\\$\\('#first, #third'\\)\\.button\\(\\{disabled: false\\}\\);");
+		tester.assertContains("\\$\\('#second'\\)\\.button\\(\\{disabled: true\\}\\);");
+	}
+}
@@ -0,0 +1,122 @@
+package org.odlabs.wiquery.core.commons.compressed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.wicket.RequestCycle;
+import org.apache.wicket.protocol.http.WebRequestCycle;
+import org.apache.wicket.util.io.Streams;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.junit.Test;
+import org.odlabs.wiquery.core.commons.CoreJavaScriptResourceReference;
+import org.odlabs.wiquery.core.commons.WiQueryJavaScriptResourceReference;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+import org.odlabs.wiquery.ui.themes.WiQueryCoreThemeResourceReference;
+
+/**
+ * Test of the {@link AcceptEncoding}
+ */
+public class AcceptEncodingTest extends WiQueryTestCase {
+	/**
+	 * Test the parsing of the header
+	 */
+	@Test
+	public void testAcceptsGzip() {
+		assertTrue(AcceptEncoding.acceptsGzip("gzip, deflate"));
+		assertTrue(AcceptEncoding.acceptsGzip("deflate, x-gzip;q=0.5"));
+		assertTrue(AcceptEncoding.acceptsGzip("br;q=1.0, *;q=0.1"));
+		assertFalse(AcceptEncoding.acceptsGzip(null));
+		assertFalse(AcceptEncoding.acceptsGzip("deflate, br"));
+		assertFalse(AcceptEncoding.acceptsGzip("gzip;q=0, *"));
+		assertFalse(AcceptEncoding.acceptsGzip("identity"));
+	}
+
+	/**
+	 * Test the gzipped variant of a package resource, selected by the header
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testPackageResource() throws Exception {
+		PrecompressedPackageResource resource = (PrecompressedPackageResource) PrecompressedPackageResource
+				.newPackageResource(WiQueryCoreThemeResourceReference.class,
+						"base/jquery.ui.accordion.css", null, null);
+		tester.setupRequestAndResponse();
+		String original = Streams.readString(resource.getResourceStream()
+				.getInputStream(), "UTF-8");
+
+		tester.setupRequestAndResponse();
+		tester.getServletRequest().addHeader("Accept-Encoding", "gzip");
+		IResourceStream stream = resource.getResourceStream();
+		assertEquals(original, Streams.readString(new GZIPInputStream(stream
+				.getInputStream()), "UTF-8"));
+		assertEquals(1, CompressedResourceCache.get().size());
+
+		resource.setHeaders(tester.getWicketResponse());
+		assertEquals("gzip", tester.getServletResponse().getHeader(
+				"Content-Encoding"));
+		assertEquals("Accept-Encoding", tester.getServletResponse()
+				.getHeader("Vary"));
+
+		tester.setupRequestAndResponse();
+		tester.getServletRequest().addHeader("Accept-Encoding", "gzip;q=0");
+		assertEquals(original, Streams.readString(resource.getResourceStream()
+				.getInputStream(), "UTF-8"));
+
+		resource.setHeaders(tester.getWicketResponse());
+		assertEquals("identity", tester.getServletResponse().getHeader(
+				"Content-Encoding"));
+
+		tester.setupRequestAndResponse();
+		assertEquals(original, Streams.readString(resource.getResourceStream()
+				.getInputStream(), "UTF-8"));
+
+		resource.setHeaders(tester.getWicketResponse());
+		assertNull(tester.getServletResponse().getHeader("Content-Encoding"));
+		assertEquals("Accept-Encoding", tester.getServletResponse()
+				.getHeader("Vary"));
+	}
+
+	/**
+	 * Test the <i>Content-Encoding</i> header of a gzipped resource requested
+	 * with headers which don't contain the "gzip" string
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testResourceRequest() throws Exception {
+		// a new reference, the shared one may be bound to another application
+		WiQueryJavaScriptResourceReference reference = new WiQueryJavaScriptResourceReference(
+				CoreJavaScriptResourceReference.class, "jquery/jquery-1.5.2.js");
+		reference.bind(tester.getApplication());
+		tester.setupRequestAndResponse();
+		String url = RequestCycle.get().urlFor(reference).toString();
+		String original = new String(request(url, null), "UTF-8");
+		assertNull(tester.getServletResponse().getHeader("Content-Encoding"));
+
+		for (String header : new String[] { "*", "GZIP" }) {
+			byte[] content = request(url, header);
+			assertEquals(header, "gzip", tester.getServletResponse()
+					.getHeader("Content-Encoding"));
+			assertEquals(header, original, Streams.readString(
+					new GZIPInputStream(new ByteArrayInputStream(content)),
+					"UTF-8"));
+		}
+	}
+
+	private byte[] request(String url, String acceptEncoding) {
+		WebRequestCycle cycle = tester.setupRequestAndResponse(false);
+		tester.getServletRequest().setRequestToRedirectString(url);
+		if (acceptEncoding != null) {
+			tester.getServletRequest().addHeader("Accept-Encoding",
+					acceptEncoding);
+		}
+		tester.processRequestCycle(cycle);
+		return tester.getServletResponse().getBinaryContent();
+	}
+}
@@ -0,0 +1,88 @@
+package org.odlabs.wiquery.core.commons.compressed;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.zip.GZIPInputStream;
+
+import org.apache.wicket.util.io.Streams;
+import org.apache.wicket.util.time.Time;
+import org.junit.Test;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+
+/**
+ * Test of the {@link CompressedResourceCache}
+ */
+public class CompressedResourceCacheTest extends WiQueryTestCase {
+	/**
+	 * Test the eviction of the least recently used entries to fit the budget
+	 */
+	@Test
+	public void testEviction() {
+		// an entry holds the content and its gzipped variant
+		int entrySize = 4 + CompressedResourceCache.gzip(new byte[4]).length;
+		CompressedResourceCache cache = new CompressedResourceCache(
+				2 * entrySize + 2, false);
+		Time time = Time.now();
+		cache.put("a", new byte[4], time);
+		cache.put("b", new byte[4], time);
+		cache.get("a");
+		cache.put("c", new byte[4], time);
+
+		assertEquals(2, cache.size());
+		assertEquals(2 * entrySize, cache.getSize());
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(1, cache.getHitCount());
+		assertNull(cache.get("b"));
+		assertEquals(1, cache.getMissCount());
+
+		// larger than the budget, not kept
+		CompressedResourceCache.Entry large = cache.put("a",
+				new byte[2 * entrySize], time);
+		assertFalse(cache.contains("a", large));
+		assertNull(cache.get("a"));
+		assertEquals(entrySize, cache.getSize());
+		assertTrue(cache.contains("c", cache.get("c")));
+		assertEquals(CompressedResourceCache.gzip(new byte[2 * entrySize]).length,
+				large.getGzippedLength());
+		assertFalse(new CompressedResourceCache(0, false).isEnabled());
+	}
+
+	/**
+	 * Test the content kept in direct buffers
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testOffHeap() throws Exception {
+		CompressedResourceCache cache = new CompressedResourceCache(1024, true);
+		Time time = Time.now();
+		byte[] content = "a{color:red}".getBytes("UTF-8");
+		cache.put("a", content, time);
+
+		CompressedResourceCache.Entry entry = cache.get("a");
+		assertArrayEquals(content, entry.getContent());
+		assertArrayEquals(content, Streams.readString(entry.getInputStream(),
+				"UTF-8").getBytes("UTF-8"));
+		assertEquals(content.length, entry.getLength());
+		assertEquals("a{color:red}", Streams.readString(new GZIPInputStream(
+				entry.getGzippedInputStream()), "UTF-8"));
+		assertTrue(entry.isUpToDate(time));
+		assertFalse(entry.isUpToDate(null));
+	}
+
+	/**
+	 * Test the cache of the application
+	 */
+	@Test
+	public void testGet() {
+		assertSame(CompressedResourceCache.get(), CompressedResourceCache
+				.get());
+		assertEquals(8 * 1024 * 1024, CompressedResourceCache.get()
+				.getMaxSize());
+	}
+}
@@ -0,0 +1,106 @@
+package org.odlabs.wiquery.core.commons.compressed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Test;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+
+/**
+ * Test of the {@link JavaScriptCompressionCache}
+ */
+public class JavaScriptCompressionCacheTest extends WiQueryTestCase {
+	/**
+	 * Test the counters of the cache
+	 */
+	@Test
+	public void testCounters() {
+		JavaScriptCompressionCache cache = new JavaScriptCompressionCache(2,
+				null);
+		assertNull(cache.get("a"));
+
+		cache.put("a", "alert(1);", 40);
+		assertEquals("alert(1);", cache.get("a"));
+		assertEquals("alert(1);", cache.get("a"));
+
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(80, cache.getTimeSaved());
+		assertEquals(2d / 3, cache.getHitRate(), 0.001);
+	}
+
+	/**
+	 * Test the eviction of the least recently used entry
+	 */
+	@Test
+	public void testEviction() {
+		JavaScriptCompressionCache cache = new JavaScriptCompressionCache(2,
+				null);
+		cache.put("a", "a", 0);
+		cache.put("b", "b", 0);
+		cache.get("a");
+		cache.put("c", "c", 0);
+
+		assertEquals(2, cache.size());
+		assertEquals("a", cache.get("a"));
+		assertNull(cache.get("b"));
+		assertEquals("c", cache.get("c"));
+		assertFalse(new JavaScriptCompressionCache(0, null).isEnabled());
+	}
+
+	/**
+	 * Test the entries written in the cache directory
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testDirectory() throws Exception {
+		File directory = File.createTempFile("wiquery", "cache");
+		directory.delete();
+
+		try {
+			new JavaScriptCompressionCache(2, directory).put("a",
+					"alert('\u00e9');\nalert(2);", 25);
+
+			// a new cache, as after a restart
+			JavaScriptCompressionCache cache = new JavaScriptCompressionCache(
+					0, directory);
+			assertTrue(cache.isEnabled());
+			assertEquals("alert('\u00e9');\nalert(2);", cache.get("a"));
+			assertNull(cache.get("b"));
+			assertEquals(1, cache.getDiskHitCount());
+			assertEquals(25, cache.getTimeSaved());
+
+		} finally {
+			for (File file : directory.listFiles()) {
+				file.delete();
+			}
+			directory.delete();
+		}
+	}
+
+	/**
+	 * Test the cache used by the {@link YUIJavaScriptCompressor}
+	 */
+	@Test
+	public void testCompressor() {
+		JavaScriptCompressionCache cache = JavaScriptCompressionCache.get();
+		assertSame(cache, JavaScriptCompressionCache.get());
+		cache.clear();
+
+		String source = "function test(value) {\n\treturn value + 1;\n}";
+		YUIJavaScriptCompressor compressor = new YUIJavaScriptCompressor();
+		String compressed = compressor.compress(source);
+		long hits = cache.getHitCount();
+
+		assertTrue(compressed.length() < source.length());
+		assertEquals(compressed, compressor.compress(source));
+		assertEquals(hits + 1, cache.getHitCount());
+		assertEquals(40, JavaScriptCompressionCache.digest(source).length());
+	}
+}
@@ -0,0 +1,137 @@
+package org.odlabs.wiquery.core.commons.compressed;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.wicket.util.io.Streams;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+
+/**
+ * Test of the {@link PrecompressedPackageResource}
+ */
+public class PrecompressedPackageResourceTest extends WiQueryTestCase {
+	private File gzippedFile;
+
+	private byte[] content;
+
+	private byte[] gzippedContent;
+
+	/**
+	 * Writes the precompressed version of the test resource, stored without
+	 * compression to tell it from the one gzipped on the fly
+	 *
+	 * @throws Exception
+	 */
+	@Before
+	public void writePrecompressed() throws Exception {
+		URL url = getClass().getResource("precompressed.js");
+		File file = new File(url.toURI());
+		content = read(url.openStream());
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		GZIPOutputStream out = new GZIPOutputStream(bytes) {
+			{
+				def.setLevel(Deflater.NO_COMPRESSION);
+			}
+		};
+		out.write(content);
+		out.close();
+		gzippedContent = bytes.toByteArray();
+
+		gzippedFile = new File(file.getPath()
+				+ YUIResourcePrecompressor.GZIP_SUFFIX);
+		OutputStream fileOut = new FileOutputStream(gzippedFile);
+		try {
+			fileOut.write(gzippedContent);
+		} finally {
+			fileOut.close();
+		}
+		gzippedFile.setLastModified(file.lastModified());
+	}
+
+	@After
+	public void deletePrecompressed() {
+		gzippedFile.delete();
+	}
+
+	/**
+	 * The stream of the resource is shared: a request closing it mustn't
+	 * close the content read by another one
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testConcurrentRequests() throws Exception {
+		PrecompressedPackageResource resource = (PrecompressedPackageResource) PrecompressedPackageResource
+				.newPackageResource(PrecompressedPackageResourceTest.class,
+						"precompressed.js", null, null);
+		IResourceStream stream = resource.getResourceStream();
+
+		tester.setupRequestAndResponse();
+		tester.getServletRequest().addHeader("Accept-Encoding", "gzip");
+		InputStream first = stream.getInputStream();
+		InputStream second = stream.getInputStream();
+		stream.close();
+
+		assertArrayEquals(gzippedContent, read(second));
+		assertArrayEquals(gzippedContent, read(first));
+		assertEquals(gzippedContent.length, stream.length());
+		assertEquals(1, CompressedResourceCache.get().size());
+
+		tester.setupRequestAndResponse();
+		assertArrayEquals(content, read(stream.getInputStream()));
+		stream.close();
+	}
+
+	/**
+	 * Without gzip, the content is served from the cache too
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testIdentityRequest() throws Exception {
+		PrecompressedPackageResource resource = (PrecompressedPackageResource) PrecompressedPackageResource
+				.newPackageResource(PrecompressedPackageResourceTest.class,
+						"precompressed.js", null, null);
+		IResourceStream stream = resource.getResourceStream();
+		CompressedResourceCache cache = CompressedResourceCache.get();
+
+		tester.setupRequestAndResponse();
+		tester.getServletRequest().addHeader("Accept-Encoding", "gzip");
+		assertArrayEquals(gzippedContent, read(stream.getInputStream()));
+		stream.close();
+		long hits = cache.getHitCount();
+
+		tester.setupRequestAndResponse();
+		assertEquals(content.length, stream.length());
+		InputStream in = stream.getInputStream();
+		stream.close();
+		assertArrayEquals(content, read(in));
+		assertTrue(cache.getHitCount() > hits);
+		assertEquals(1, cache.size());
+	}
+
+	private static byte[] read(InputStream in) throws Exception {
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			Streams.copy(in, out);
+			return out.toByteArray();
+		} finally {
+			in.close();
+		}
+	}
+}
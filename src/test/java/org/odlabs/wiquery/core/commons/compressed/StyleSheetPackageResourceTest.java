@@ -0,0 +1,147 @@
+package org.odlabs.wiquery.core.commons.compressed;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.util.io.Streams;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.resource.StringResourceStream;
+import org.apache.wicket.util.time.Time;
+import org.junit.Test;
+import org.odlabs.wiquery.core.commons.WiQuerySettings;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+import org.odlabs.wiquery.ui.themes.WiQueryCoreThemeResourceReference;
+
+/**
+ * Test of the {@link StyleSheetPackageResource}
+ */
+public class StyleSheetPackageResourceTest extends WiQueryTestCase {
+	/**
+	 * Test the content is filtered once by the concurrent requests
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testFilterOnce() throws Exception {
+		StyleSheetPackageResource resource = (StyleSheetPackageResource) StyleSheetPackageResource
+				.newPackageResource(WiQueryCoreThemeResourceReference.class,
+						"base/jquery.ui.accordion.css", null, null);
+		final StringResourceStream original = new StringResourceStream(
+				"a { color: red; }", "text/css");
+		original.setLastModified(Time.now());
+		final AtomicInteger filtered = new AtomicInteger();
+
+		final StyleSheetPackageResource.FilteringResourceStream stream = resource.new FilteringResourceStream() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected byte[] filterContent(byte[] input) {
+				filtered.incrementAndGet();
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "a{color:red}".getBytes();
+			}
+
+			@Override
+			protected IResourceStream getOriginalResourceStream() {
+				return original;
+			}
+		};
+
+		final Application application = tester.getApplication();
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<String> contents = new ArrayList<String>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 8; i++) {
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					Application.set(application);
+					try {
+						start.await();
+						String content = Streams.readString(stream
+								.getInputStream());
+						synchronized (contents) {
+							contents.add(content);
+						}
+					} catch (Exception e) {
+						throw new RuntimeException(e);
+					} finally {
+						Application.unset();
+					}
+				}
+			};
+			thread.start();
+			threads.add(thread);
+		}
+
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(1, filtered.get());
+		assertEquals(8, contents.size());
+		for (String content : contents) {
+			assertEquals("a{color:red}", content);
+		}
+		assertEquals(12, stream.length());
+		assertEquals(1, filtered.get());
+		assertEquals(1, CompressedResourceCache.get().size());
+	}
+
+	/**
+	 * Test the content is filtered once when the cache doesn't keep it
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testFilterOnceUncached() throws Exception {
+		WiQuerySettings.get().setCompressedResourceCacheSize(0);
+		StyleSheetPackageResource resource = (StyleSheetPackageResource) StyleSheetPackageResource
+				.newPackageResource(WiQueryCoreThemeResourceReference.class,
+						"base/jquery.ui.accordion.css", null, null);
+		final StringResourceStream original = new StringResourceStream(
+				"a { color: red; }", "text/css");
+		original.setLastModified(Time.valueOf(1000));
+		final AtomicInteger filtered = new AtomicInteger();
+
+		StyleSheetPackageResource.FilteringResourceStream stream = resource.new FilteringResourceStream() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected byte[] filterContent(byte[] input) {
+				filtered.incrementAndGet();
+				return "a{color:red}".getBytes();
+			}
+
+			@Override
+			protected IResourceStream getOriginalResourceStream() {
+				return original;
+			}
+		};
+
+		assertEquals(12, stream.length());
+		assertEquals("a{color:red}", Streams.readString(stream
+				.getInputStream()));
+		assertEquals("a{color:red}", Streams.readString(new GZIPInputStream(
+				stream.getGzippedInputStream())));
+		assertEquals(1, filtered.get());
+		assertEquals(0, CompressedResourceCache.get().size());
+
+		// filtered again once modified
+		original.setLastModified(Time.valueOf(2000));
+		assertEquals(12, stream.length());
+		assertEquals(12, stream.length());
+		assertEquals(2, filtered.get());
+	}
+}
@@ -0,0 +1,42 @@
+package org.odlabs.wiquery.core.commons.compressed;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Test of the {@link YUIJavaScriptCompressor}
+ */
+public class YUIJavaScriptCompressorTest {
+	private final YUIJavaScriptCompressor compressor = new YUIJavaScriptCompressor();
+
+	/**
+	 * Test the munging of the local symbols, in declaration order
+	 */
+	@Test
+	public void testCompress() {
+		assertEquals("function foo(a,b){var c=a+b;return c*window.x;}",
+				compressor.compress("function foo(first, second) {\n"
+						+ "\tvar sum = first + second;\n"
+						+ "\treturn sum * window['x'];\n}\n"));
+	}
+
+	/**
+	 * Test the string literals and the operators needing a space
+	 */
+	@Test
+	public void testCompressLiterals() {
+		assertEquals("var s='say \"hi\"'+a,t=\"it's\",u=x- -y,v=typeof z;",
+				compressor.compress("var s = 'say \"hi\"' + a, t = \"it's\",\n"
+						+ "\tu = x - -y, v = typeof z;\n"));
+	}
+
+	/**
+	 * Test the concatenation of the string literals
+	 */
+	@Test
+	public void testCompressConcatenation() {
+		assertEquals("var a={b:\"<\\/script>\"};", compressor
+				.compress("var a = {'b': '</scr' + 'ipt>'};"));
+	}
+}
@@ -0,0 +1,44 @@
+package org.odlabs.wiquery.core.commons.compressed;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Test of the {@link YUIStyleSheetCompressor}
+ */
+public class YUIStyleSheetCompressorTest {
+	private final YUIStyleSheetCompressor compressor = new YUIStyleSheetCompressor();
+
+	/**
+	 * Test the comments, colors and units
+	 */
+	@Test
+	public void testCompress() {
+		assertEquals("a{color:#369;margin:0}", compressor
+				.compress("/* comment */\na {\n\tcolor : rgb(51, 102, 153);\n"
+						+ "\tmargin: 0px 0px;\n}\n"));
+	}
+
+	/**
+	 * Test the pseudo classes and the shorthand properties
+	 */
+	@Test
+	public void testCompressProperties() {
+		assertEquals(
+				"p :link{background-position:0 0;border:0}.ui-x{filter:alpha(opacity=30)}",
+				compressor.compress("p :link { background-position: 0; border: none; }\n"
+						+ ".ui-x { filter: progid:DXImageTransform.Microsoft.Alpha(Opacity=30); }\n"));
+	}
+
+	/**
+	 * Test the preserved comments and strings
+	 */
+	@Test
+	public void testCompressPreserved() {
+		assertEquals(
+				"/*! license */a{content:\"/* kept */\";opacity:.5}",
+				compressor.compress("/*! license */\na { content: \"/* kept */\"; "
+						+ "opacity: 0.5; }\nb { }\n"));
+	}
+}
@@ -0,0 +1,6 @@
+/* Test resource of the PrecompressedPackageResourceTest */
+(function($) {
+	$.fn.precompressed = function() {
+		return this.addClass('precompressed');
+	};
+})(jQuery);
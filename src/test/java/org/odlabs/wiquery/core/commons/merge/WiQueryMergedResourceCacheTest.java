@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons.merge;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.wicket.util.io.Streams;
+import org.apache.wicket.util.time.Time;
+import org.junit.Test;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+
+public class WiQueryMergedResourceCacheTest extends WiQueryTestCase {
+	/**
+	 * Test the hit and miss counters of the
+	 * {@link WiQueryMergedResourceCache}
+	 */
+	@Test
+	public void testCounters() {
+		WiQueryMergedResourceCache cache = new WiQueryMergedResourceCache(2);
+		assertNull(cache.get("a"));
+
+		WiQueryMergedResourceCache.Entry entry = cache.put("a",
+				"alert('a');".getBytes(), Time.now());
+		assertSame(entry, cache.get("a"));
+		assertSame(entry, cache.get("a"));
+
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	/**
+	 * Test the eviction of the least recently used bundle
+	 */
+	@Test
+	public void testEviction() {
+		WiQueryMergedResourceCache cache = new WiQueryMergedResourceCache(2);
+		cache.put("a", new byte[0], Time.now());
+		cache.put("b", new byte[0], Time.now());
+		cache.get("a");
+		cache.put("c", new byte[0], Time.now());
+
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+	}
+
+	/**
+	 * Test the gzipped variant of an entry
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testGzippedContent() throws Exception {
+		byte[] content = "$(document).ready(function(){});".getBytes("UTF-8");
+		WiQueryMergedResourceCache.Entry entry = new WiQueryMergedResourceCache(
+				1).put("a", content, Time.now());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Streams.copy(new GZIPInputStream(new ByteArrayInputStream(entry
+				.getGzippedContent())), out);
+		assertArrayEquals(content, out.toByteArray());
+	}
+
+	/**
+	 * Test the digest used to name the merged resources
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testDigest() throws Exception {
+		WiQueryMergedResourceCache cache = new WiQueryMergedResourceCache(2);
+		String a = cache.put("a", "alert('a');".getBytes("UTF-8"), Time.now())
+				.getDigest();
+		String b = cache.put("b", "alert('b');".getBytes("UTF-8"), Time.now())
+				.getDigest();
+
+		assertEquals(16, a.length());
+		assertTrue(a.matches("[0-9a-f]+"));
+		assertFalse(a.equals(b));
+		assertEquals(a, WiQueryMergedResourceCache.digest("alert('a');"
+				.getBytes("UTF-8")));
+	}
+
+	/**
+	 * Test the rewritten stylesheets kept for the bundles sharing them
+	 */
+	@Test
+	public void testStyleSheets() {
+		WiQueryMergedResourceCache cache = new WiQueryMergedResourceCache(1);
+		assertNull(cache.getStyleSheet("a"));
+
+		cache.putStyleSheet("a", ".a{}");
+		assertEquals(".a{}", cache.getStyleSheet("a"));
+
+		cache.clear();
+		assertNull(cache.getStyleSheet("a"));
+	}
+
+	/**
+	 * Test the application scoped instance
+	 */
+	@Test
+	public void testGet() {
+		assertNotNull(WiQueryMergedResourceCache.get());
+		assertSame(WiQueryMergedResourceCache.get(), WiQueryMergedResourceCache
+				.get());
+	}
+}
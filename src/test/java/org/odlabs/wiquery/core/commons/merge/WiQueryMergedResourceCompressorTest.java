@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons.merge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.wicket.Application;
+import org.apache.wicket.javascript.IJavascriptCompressor;
+import org.junit.Test;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+
+/**
+ * Test of the {@link WiQueryMergedResourceCompressor}
+ */
+public class WiQueryMergedResourceCompressorTest extends WiQueryTestCase {
+	/**
+	 * Compressor upper casing the sources, and recording its threads
+	 */
+	private static class RecordingCompressor implements IJavascriptCompressor {
+		private final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+
+		public String compress(String original) {
+			assertNotNull(Application.get());
+			threads.add(Thread.currentThread());
+			return original.toUpperCase();
+		}
+	}
+
+	/**
+	 * Test the compression of the members in parallel
+	 */
+	@Test
+	public void testCompress() {
+		WiQueryMergedResourceCompressor pool = new WiQueryMergedResourceCompressor(
+				Application.get(), 4);
+		RecordingCompressor compressor = new RecordingCompressor();
+
+		List<String> compressed = pool.compress(
+				Arrays.asList("a", null, "b", "c"), compressor);
+		assertEquals(Arrays.asList("A", null, "B", "C"), compressed);
+		assertTrue(!compressor.threads.contains(Thread.currentThread()));
+	}
+
+	/**
+	 * Test the compression by the calling thread
+	 */
+	@Test
+	public void testCompressSequential() {
+		WiQueryMergedResourceCompressor pool = new WiQueryMergedResourceCompressor(
+				Application.get(), 1);
+		RecordingCompressor compressor = new RecordingCompressor();
+
+		assertEquals(Arrays.asList("A", "B"),
+				pool.compress(Arrays.asList("a", "b"), compressor));
+		assertEquals(Collections.singleton(Thread.currentThread()),
+				compressor.threads);
+	}
+
+	/**
+	 * Test the application scoped instance
+	 */
+	@Test
+	public void testGet() {
+		assertNull(Application.get().getMetaData(
+				WiQueryMergedResourceCompressor.WIQUERY_MERGED_COMPRESSOR_KEY));
+		assertSame(WiQueryMergedResourceCompressor.get(),
+				WiQueryMergedResourceCompressor.get());
+		WiQueryMergedResourceCompressor.shutdown(Application.get());
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.core.commons.merge;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.wicket.Resource;
+import org.apache.wicket.protocol.http.servlet.AbortWithWebErrorCodeException;
+import org.apache.wicket.util.io.Streams;
+import org.apache.wicket.util.resource.IResourceStream;
+import org.apache.wicket.util.time.Time;
+import org.junit.Test;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+
+/**
+ * Test of the {@link WiQueryMergedResourceReference}
+ */
+public class WiQueryMergedResourceReferenceTest extends WiQueryTestCase {
+	private static class TestMergedResourceReference extends
+			WiQueryMergedResourceReference {
+		private static final long serialVersionUID = 1L;
+
+		private WiQueryMergedResourceCache.Entry entry;
+
+		private TestMergedResourceReference(
+				WiQueryMergedResourceCache.Entry entry) {
+			super(WiQueryMergedResourceReferenceTest.class, "test-merged",
+					"js", entry);
+			this.entry = entry;
+		}
+
+		@Override
+		protected String getContentType() {
+			return "text/javascript";
+		}
+
+		@Override
+		protected WiQueryMergedResourceCache.Entry getMergedContent() {
+			return entry;
+		}
+	}
+
+	/**
+	 * The name of a merged resource is only served with the content of its
+	 * digest
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testChangedMember() throws Exception {
+		byte[] content = "alert('a');".getBytes("UTF-8");
+		TestMergedResourceReference reference = new TestMergedResourceReference(
+				new WiQueryMergedResourceCache.Entry(content, Time.now()));
+		reference.bind(tester.getApplication());
+		Resource resource = reference.getResource();
+
+		tester.setupRequestAndResponse();
+		IResourceStream stream = resource.getResourceStream();
+		assertEquals("alert('a');", Streams.readString(stream
+				.getInputStream(), "UTF-8"));
+
+		reference.entry = new WiQueryMergedResourceCache.Entry("alert('b');"
+				.getBytes("UTF-8"), Time.now());
+		try {
+			resource.getResourceStream();
+			fail("the content of another digest is served");
+		} catch (AbortWithWebErrorCodeException e) {
+			assertEquals(HttpServletResponse.SC_NOT_FOUND, e.getErrorCode());
+		}
+	}
+}
@@ -22,6 +22,7 @@
 package org.odlabs.wiquery.core.commons.merge;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 import org.odlabs.wiquery.tester.WiQueryTestCase;
@@ -155,4 +156,26 @@ public class WiQueryMergedStyleSheetResourceReferenceTest extends
 				"url     (\"file://img.png\")", baseUrl),
 				"url(\"file://img.png\")");
 	}
+
+	/**
+	 * Test the
+	 * {@link WiQueryMergedStyleSheetResourceReference#rewriteUrls(String, String) }
+	 */
+	@Test
+	public void testRewriteUrls() {
+		String baseUrl = "../org.odlabs.Test/";
+
+		assertEquals(".a{background:url(\"../org.odlabs.Test/images/a.png\")}"
+				+ ".b{background:url(\"http://www.a.com/b.png\") no-repeat}"
+				+ ".c{background:url(\"../org.odlabs.Test/images/a.png\")}",
+				WiQueryMergedStyleSheetResourceReference.rewriteUrls(
+						".a{background:url(images/a.png)}"
+								+ ".b{background:url('http://www.a.com/b.png') no-repeat}"
+								+ ".c{background:url( \"images/a.png\" )}",
+						baseUrl));
+
+		String noUrl = ".a{color:red}";
+		assertSame(noUrl, WiQueryMergedStyleSheetResourceReference.rewriteUrls(
+				noUrl, baseUrl));
+	}
 }
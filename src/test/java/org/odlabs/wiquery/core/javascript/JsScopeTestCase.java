@@ -1,6 +1,12 @@
 package org.odlabs.wiquery.core.javascript;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 
 import org.junit.Test;
 import org.odlabs.wiquery.tester.WiQueryTestCase;
@@ -101,4 +107,26 @@ public class JsScopeTestCase extends WiQueryTestCase {
 		assertEquals(generatedJavascript, expectedJavascript);
 	}
 
+	/**
+	 * Check the rendered scope isn't serialized, and is rendered again after
+	 * the deserialization
+	 */
+	@Test
+	public void testSerialization() throws Exception {
+		String expectedJavascript = "function() {\n\t$(this).hide();\n}";
+		JsScope scope = JsScope.quickScope(new JsStatement().self().chain("hide"));
+		assertEquals(expectedJavascript, scope.render().toString());
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(scope);
+		out.close();
+		assertFalse(new String(bytes.toByteArray(), "ISO-8859-1")
+				.contains("function("));
+
+		JsScope copy = (JsScope) new ObjectInputStream(
+				new ByteArrayInputStream(bytes.toByteArray())).readObject();
+		assertEquals(expectedJavascript, copy.render().toString());
+	}
+
 }
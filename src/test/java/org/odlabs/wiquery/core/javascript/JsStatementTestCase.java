@@ -306,6 +306,20 @@ public class JsStatementTestCase extends WiQueryTestCase {
 		assertAndLog("$", jsStatement.$().render(false));
 	}
 
+	/**
+	 * Test method for
+	 * {@link org.odlabs.wiquery.core.javascript.JsStatement#render(java.lang.StringBuilder)}.
+	 */
+	@Test public void testRenderStringBuilder() {
+		StringBuilder buffer = new StringBuilder("\t");
+		jsStatement.$().render(buffer);
+		assertAndLog("\t$;", buffer.toString());
+
+		new JsStatement().append("function() {}  ").render(buffer);
+		new JsStatement().append("  ").render(buffer);
+		assertAndLog("\t$;function() {}    ", buffer.toString());
+	}
+
 	/**
 	 * Test method for
 	 * {@link org.odlabs.wiquery.core.javascript.JsStatement#self()}.
@@ -5,6 +5,11 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
@@ -306,6 +311,36 @@ public class OptionsTestCase extends WiQueryTestCase {
 		assertTrue(options.containsKey("keyInt"));
 	}
 
+	@Test
+	public void testAppendJavaScriptOptions() {
+		Options options = new Options();
+		options.put("keyInt", 5);
+		options.put("keyComplex", new DefaultComplexOptionImpl());
+		options.putLiteral("keyLiteral", "literal");
+
+		StringBuilder sb = new StringBuilder("$('#id').test(");
+		options.appendJavaScriptOptions(sb);
+		assertEquals("$('#id').test({keyInt: 5, keyComplex: alert('complex option');, "
+				+ "keyLiteral: 'literal'}", sb.toString());
+		assertEquals("{keyInt: 5, keyComplex: alert('complex option');, "
+				+ "keyLiteral: 'literal'}", options.getJavaScriptOptions()
+				.toString());
+	}
+
+	@Test
+	public void testOptionsWrappedBeforeOwner() {
+		// the owner is set after the IComponentAssignedModel is put
+		OptionsTestPanel panel = new OptionsTestPanel("panel");
+		Options options = new Options();
+		options.putString("test", new ResourceModel("key"));
+		options.setOwner(panel);
+		tester.startPage(new OptionsTestPage(panel));
+
+		assertEquals("Test", options.get("test"));
+		assertEquals("{test: Test}", options.getJavaScriptOptions()
+				.toString());
+	}
+
 	@Test
 	public void testPutLiterral() {
 		Options options = new Options();
@@ -324,6 +359,78 @@ public class OptionsTestCase extends WiQueryTestCase {
 		assertTrue(options.containsKey("keyString"));
 	}
 
+	@Test
+	public void testRemoveOption() {
+		Options options = new Options();
+		options.put("first", 1);
+		options.put("second", 2);
+		options.put("third", 3);
+		options.put("second", 4);
+		options.removeOption("first");
+
+		assertEquals("{second: 4, third: 3}", options.getJavaScriptOptions()
+				.toString());
+		options.removeOption("second");
+		options.removeOption("third");
+		assertTrue(options.isEmpty());
+	}
+
+	/**
+	 * Check the options are rendered the same after the serialization, and
+	 * compares their size with the options held in models
+	 */
+	@Test
+	public void testSerialization() throws Exception {
+		Options options = new Options();
+		fillOptions(options);
+		Options models = new Options();
+		models.putBoolean("keyBoolean", Model.of(true));
+		models.putShort("keyShort", Model.of((short) 2));
+		models.putInteger("keyInt", Model.of(3));
+		models.putLong("keyLong", Model.of(4L));
+		models.putFloat("keyFloat", Model.of(5.5f));
+		models.putDouble("keyDouble", Model.of(6.25));
+		models.putString("keyString", Model.of("'string'"));
+		models.putLiteral("keyLiteral", Model.of("literal"));
+
+		String expected = "{keyBoolean: true, keyShort: 2, keyInt: 3, "
+				+ "keyLong: 4, keyFloat: 5.5, keyDouble: 6.25, "
+				+ "keyString: 'string', keyLiteral: 'literal'}";
+		assertEquals(expected, options.getJavaScriptOptions().toString());
+		assertEquals(expected, models.getJavaScriptOptions().toString());
+
+		byte[] bytes = serialize(options);
+		int modelsSize = serialize(models).length;
+		log.info("Serialized options: " + bytes.length
+				+ " bytes, in models: " + modelsSize + " bytes");
+		assertTrue(bytes.length * 2 < modelsSize);
+
+		Options copy = (Options) new ObjectInputStream(
+				new ByteArrayInputStream(bytes)).readObject();
+		assertEquals(expected, copy.getJavaScriptOptions().toString());
+		assertEquals(Double.valueOf(6.25), copy.getDouble("keyDouble"));
+		assertEquals("literal", copy.getLiteral("keyLiteral"));
+	}
+
+	private void fillOptions(Options options) {
+		options.put("keyBoolean", true);
+		options.put("keyShort", (short) 2);
+		options.put("keyInt", 3);
+		options.put("keyLong", 4L);
+		options.put("keyFloat", 5.5f);
+		options.put("keyDouble", 6.25);
+		options.put("keyString", "'string'");
+		options.putLiteral("keyLiteral", "literal");
+	}
+
+	private byte[] serialize(Object object) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(object);
+		out.close();
+		return bytes.toByteArray();
+	}
+
 	private class DefaultComplexOptionImpl implements IComplexOption {
 		private static final long serialVersionUID = 1L;
 
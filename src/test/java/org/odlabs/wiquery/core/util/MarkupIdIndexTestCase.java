@@ -0,0 +1,63 @@
+package org.odlabs.wiquery.core.util;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.WebPage;
+import org.junit.Test;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+
+/**
+ * Unit test on the {@link MarkupIdIndex}
+ */
+public class MarkupIdIndexTestCase extends WiQueryTestCase {
+	@Test
+	public void testFindComponent() {
+		WebPage page = new WebPage() {
+		};
+		WebMarkupContainer container = new WebMarkupContainer("container");
+		WebMarkupContainer child = new WebMarkupContainer("child");
+		child.setMarkupId("childId");
+		container.add(child);
+		page.add(container);
+
+		assertSame(child, MarkupIdIndex.findComponent(page, "childId"));
+		assertSame(container, MarkupIdIndex.findComponent(page, container
+				.getMarkupId()));
+		assertNull(MarkupIdIndex.findComponent(page, "unknown"));
+		assertNull(MarkupIdIndex.findComponent(page, null));
+
+		// the index follows the changes of the page
+		tester.setupRequestAndResponse();
+		container.remove(child);
+		assertNull(MarkupIdIndex.findComponent(page, "childId"));
+
+		WebMarkupContainer other = new WebMarkupContainer("other");
+		other.setMarkupId("childId");
+		page.add(other);
+		// not built again for an identifiant missing in this request
+		assertNull(MarkupIdIndex.findComponent(page, "childId"));
+		tester.setupRequestAndResponse();
+		assertSame(other, MarkupIdIndex.findComponent(page, "childId"));
+
+		tester.setupRequestAndResponse();
+		other.setMarkupId("otherId");
+		assertNull(MarkupIdIndex.findComponent(page, "childId"));
+		assertSame(other, MarkupIdIndex.findComponent(page, "otherId"));
+	}
+
+	@Test
+	public void testMarkupIdNotGenerated() {
+		WebPage page = new WebPage() {
+		};
+		WebMarkupContainer container = new WebMarkupContainer("container");
+		WebMarkupContainer child = new WebMarkupContainer("child");
+		child.setMarkupId("childId");
+		container.add(child);
+		page.add(container);
+
+		assertSame(child, MarkupIdIndex.findComponent(page, "childId"));
+		assertNull(container.getMarkupId(false));
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.ui.autocomplete;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.wicket.model.Model;
+import org.codehaus.jackson.JsonGenerator;
+import org.junit.Before;
+import org.junit.Test;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+
+/**
+ * Test of {@link AutocompleteAjaxComponent}
+ */
+public class AutocompleteAjaxComponentTestCase extends WiQueryTestCase {
+	// Properties
+	private AutocompleteAjaxComponent<String> autocomplete;
+
+	private int read;
+
+	private int searches;
+
+	@Override
+	@Before
+	public void setUp() {
+		super.setUp();
+
+		read = 0;
+		searches = 0;
+		autocomplete = new AutocompleteAjaxComponent<String>("anId",
+				new Model<String>()) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public List<String> getValues(String term) {
+				searches++;
+				return Arrays.asList(term + "1", term + "2", term + "3");
+			}
+
+			@Override
+			protected Iterator<? extends String> getValuesIterator(String term) {
+				final Iterator<? extends String> values = super
+						.getValuesIterator(term);
+
+				return new Iterator<String>() {
+					public boolean hasNext() {
+						return values.hasNext();
+					}
+
+					public String next() {
+						read++;
+						return values.next();
+					}
+
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+
+			@Override
+			public String getValueOnSearchFail(String input) {
+				return null;
+			}
+		};
+	}
+
+	private String writeValues(String term) throws IOException {
+		StringWriter sw = new StringWriter();
+		JsonGenerator gen = AbstractAutocompleteComponent.JSON_MAPPER
+				.getJsonFactory().createJsonGenerator(sw);
+		autocomplete.writeValues(gen, term);
+		gen.close();
+		return sw.toString();
+	}
+
+	/**
+	 * Test method for
+	 * {@link AutocompleteAjaxComponent#getMaxResults()}.
+	 */
+	@Test
+	public void testGetMaxResults() {
+		assertEquals(autocomplete.getMaxResults(), 0);
+		autocomplete.setMaxResults(10);
+		assertEquals(autocomplete.getMaxResults(), 10);
+	}
+
+	/**
+	 * Test of the JSON array written for a search
+	 */
+	@Test
+	public void testWriteValues() throws IOException {
+		assertEquals(writeValues("a"), "[{\"valueId\":\"1\",\"label\":\"a1\"},"
+				+ "{\"valueId\":\"2\",\"label\":\"a2\"},"
+				+ "{\"valueId\":\"3\",\"label\":\"a3\"}]");
+		assertEquals(read, 3);
+	}
+
+	/**
+	 * Test of the JSON array written for a search with a limit
+	 */
+	@Test
+	public void testWriteValuesMaxResults() throws IOException {
+		autocomplete.setMaxResults(2);
+		String json = writeValues("a");
+
+		assertEquals(json, "[{\"valueId\":\"1\",\"label\":\"a1\"},"
+				+ "{\"valueId\":\"2\",\"label\":\"a2\"}]");
+		assertFalse(json.contains("a3"));
+		assertEquals(read, 2);
+	}
+
+	/**
+	 * Test method for
+	 * {@link AutocompleteAjaxComponent#resolveById(String)}.
+	 */
+	@Test
+	public void testResolveById() throws IOException {
+		assertFalse(autocomplete.isSuggestionCacheEnabled());
+		writeValues("a");
+		searches = 0;
+		assertNull(autocomplete.resolveById("4"));
+		assertEquals(searches, 1);
+	}
+
+	/**
+	 * Test method for
+	 * {@link AutocompleteAjaxComponent#resolveById(String)} with the
+	 * suggestion cache.
+	 */
+	@Test
+	public void testResolveByIdSuggestionCache() throws IOException {
+		autocomplete.setSuggestionCacheEnabled(true);
+		assertTrue(autocomplete.isSuggestionCacheEnabled());
+		writeValues("a");
+		searches = 0;
+		assertEquals(autocomplete.resolveById("2"), "a2");
+		assertEquals(autocomplete.resolveById("3"), "a3");
+		assertEquals(searches, 0);
+
+		autocomplete.setSuggestionCacheEnabled(false);
+		assertNull(autocomplete.resolveById("4"));
+		assertEquals(searches, 1);
+	}
+}
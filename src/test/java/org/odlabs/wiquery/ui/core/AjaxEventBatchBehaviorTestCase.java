@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.ui.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.protocol.http.WebRequestCycle;
+import org.junit.Test;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+
+/**
+ * Test on {@link AjaxEventBatchBehavior}
+ */
+public class AjaxEventBatchBehaviorTestCase extends WiQueryTestCase {
+	/**
+	 * Test method for
+	 * {@link AjaxEventBatchBehavior#getQueueScript(IAjaxEventBatchListener, CharSequence)}
+	 */
+	@Test
+	public void testGetQueueScript() {
+		tester.startPage(AjaxEventBatchTestPage.class);
+		AjaxEventBatchTestPage page = (AjaxEventBatchTestPage) tester.getLastRenderedPage();
+		tester.assertContains("wiquery-ajax-batch");
+		
+		IAjaxEventBatchListener listener = new IAjaxEventBatchListener() {
+			private static final long serialVersionUID = 1L;
+
+			public void onBatchedEvent(Map<String, String> parameters,
+					AjaxRequestTarget ajaxRequestTarget) {
+			}
+		};
+		String script = page.getBatch().getQueueScript(listener, "'a='+ui.value").toString();
+		assertTrue(script, script.startsWith("WiQueryAjaxBatch.queue('batched"));
+		assertTrue(script, script.contains("', '2:'+'a='+ui.value, function(events) {"));
+		assertTrue(script, script.contains(page.getBatch().getCallbackUrl(true) + "&'+events"));
+	}
+
+	/**
+	 * Test method for
+	 * {@link AjaxEventBatchBehavior#respond(AjaxRequestTarget)}
+	 */
+	@Test
+	public void testRespond() throws Exception {
+		tester.startPage(AjaxEventBatchTestPage.class);
+		AjaxEventBatchTestPage page = (AjaxEventBatchTestPage) tester.getLastRenderedPage();
+		
+		CharSequence url = page.getBatch().getCallbackUrl(false);
+		WebRequestCycle cycle = tester.setupRequestAndResponse(true);
+		tester.getServletRequest().setRequestToRedirectString(url 
+				+ "&batchedEvent=" + URLEncoder.encode("1:sortedType=update&sortedId=item3", "UTF-8")
+				+ "&batchedEvent=" + URLEncoder.encode("0:droppedId=item3", "UTF-8")
+				+ "&batchedEvent=" + URLEncoder.encode("5:unknown=listener", "UTF-8"));
+		tester.processRequestCycle(cycle);
+		
+		page = (AjaxEventBatchTestPage) tester.getLastRenderedPage();
+		assertEquals(Arrays.asList("second{sortedId=item3, sortedType=update}", 
+				"first{droppedId=item3}"), 
+				page.getEvents());
+		assertEquals(2, page.getTargets().size());
+		assertSame(page.getTargets().get(0), page.getTargets().get(1));
+	}
+	
+	/**
+	 * Test method for {@link AjaxEventBatchBehavior#parseParameters(String)}
+	 */
+	@Test
+	public void testParseParameters() {
+		Map<String, String> parameters = AjaxEventBatchBehavior.parseParameters(
+				"sortedType=receive&sortedIndex=2&sortedId=item&sortedParentId=list");
+		assertEquals(4, parameters.size());
+		assertEquals("receive", parameters.get("sortedType"));
+		assertEquals("2", parameters.get("sortedIndex"));
+		assertEquals("list", parameters.get("sortedParentId"));
+	}
+}
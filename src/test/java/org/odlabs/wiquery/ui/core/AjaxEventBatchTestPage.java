@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.ui.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.markup.html.WebMarkupContainer;
+import org.apache.wicket.markup.html.WebPage;
+
+/**
+ * Page used by {@link AjaxEventBatchBehaviorTestCase}
+ */
+public class AjaxEventBatchTestPage extends WebPage {
+	private class RecordingListener implements IAjaxEventBatchListener {
+		private static final long serialVersionUID = 1L;
+		
+		private final String name;
+		
+		public RecordingListener(String name) {
+			this.name = name;
+		}
+		
+		public void onBatchedEvent(Map<String, String> parameters,
+				AjaxRequestTarget ajaxRequestTarget) {
+			events.add(name + new TreeMap<String, String>(parameters));
+			targets.add(ajaxRequestTarget);
+		}
+	}
+	
+	private AjaxEventBatchBehavior batch;
+	
+	private List<String> events = new ArrayList<String>();
+	
+	private transient List<AjaxRequestTarget> targets = new ArrayList<AjaxRequestTarget>();
+
+	public AjaxEventBatchTestPage() {
+		WebMarkupContainer batched = new WebMarkupContainer("batched");
+		batch = new AjaxEventBatchBehavior();
+		batched.add(batch);
+		add(batched);
+		
+		batch.addListener(new RecordingListener("first"));
+		batch.addListener(new RecordingListener("second"));
+	}
+	
+	public AjaxEventBatchBehavior getBatch() {
+		return batch;
+	}
+	
+	public List<String> getEvents() {
+		return events;
+	}
+	
+	public List<AjaxRequestTarget> getTargets() {
+		return targets;
+	}
+}
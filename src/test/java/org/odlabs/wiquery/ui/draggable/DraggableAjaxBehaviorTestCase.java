@@ -23,11 +23,13 @@ package org.odlabs.wiquery.ui.draggable;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import org.apache.wicket.Component;
 import org.apache.wicket.ajax.AjaxRequestTarget;
 import org.apache.wicket.markup.html.WebMarkupContainer;
 import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.util.time.Duration;
 import org.junit.Before;
 import org.junit.Test;
 import org.odlabs.wiquery.tester.WiQueryTestCase;
@@ -74,6 +76,31 @@ public class DraggableAjaxBehaviorTestCase extends WiQueryTestCase {
 		assertEquals(genrateAjaxStatment, expectedAjaxStatement);
 	}
 
+	/**
+	 * Test method for
+	 * {@link org.odlabs.wiquery.ui.draggaable.DraggableAjaxBehavior#setDragThrottleDelay(Duration)}
+	 * .
+	 */
+	@Test
+	public void testStatementDragThrottled() {
+		InnerDraggableAjaxBehavior draggableAjaxBehavior = new InnerDraggableAjaxBehavior();
+		draggableAjaxBehavior.setDragThrottleDelay(Duration.milliseconds(100));
+		WebMarkupContainer component = new WebMarkupContainer("anId");
+		component.setMarkupId("anId");
+		component.add(draggableAjaxBehavior);
+
+		WebPage webPage = new InnerPage();
+		webPage.add(component);
+		String genrateAjaxStatment = draggableAjaxBehavior.statement().render()
+				.toString();
+		assertTrue(genrateAjaxStatment.contains("stop: function(event, ui) {\n\t"
+				+ "wicketThrottler.execute('anId-drag');var isInvalid"));
+		assertTrue(genrateAjaxStatment.contains("drag: function(event, ui) {\n\t"
+				+ "wicketThrottler.throttle( 'anId-drag', 100, function() { "
+				+ "var wcall=wicketAjaxGet('?wicket:interface=:0:anId::IActivePageBehaviorListener:0:&wicket:ignoreIfNotActive=true&dragType=drag'"));
+		assertEquals(Duration.milliseconds(100), draggableAjaxBehavior.getDragThrottleDelay());
+	}
+
 	private class InnerDraggableAjaxBehavior extends DraggableAjaxBehavior {
 		private static final long serialVersionUID = 1L;
 
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2009 WiQuery team
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.odlabs.wiquery.ui.slider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.wicket.ajax.AjaxRequestTarget;
+import org.apache.wicket.markup.html.WebPage;
+import org.apache.wicket.util.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.odlabs.wiquery.tester.WiQueryTestCase;
+
+/**
+ * Test on {@link AjaxSlider}
+ */
+public class AjaxSliderTestCase extends WiQueryTestCase {
+	// Properties
+	private AjaxSlider slider;
+
+	@Override
+	@Before
+	public void setUp() {
+		super.setUp();
+
+		slider = new AjaxSlider("anId", 5, 10);
+		slider.setMarkupId(slider.getId());
+		slider.setAjaxSlideEvent(new EmptySliderAjaxEvent());
+		slider.setAjaxStopEvent(new EmptySliderAjaxEvent());
+
+		WebPage webPage = new InnerPage();
+		webPage.add(slider);
+	}
+
+	/**
+	 * Test method for {@link AjaxSlider#statement()}, without throttling.
+	 */
+	@Test
+	public void testStatement() {
+		String statement = slider.statement().render().toString();
+		assertNull(slider.getAjaxSlideThrottleDelay());
+		assertFalse(statement.contains("wicketThrottler"));
+		assertTrue(statement.contains("sliderEvent=ajaxSlideEvent"));
+	}
+
+	/**
+	 * Test method for {@link AjaxSlider#setAjaxSlideThrottleDelay(Duration)}.
+	 */
+	@Test
+	public void testSetAjaxSlideThrottleDelay() {
+		slider.setAjaxSlideThrottleDelay(Duration.milliseconds(250));
+		assertEquals(Duration.milliseconds(250), slider.getAjaxSlideThrottleDelay());
+
+		String statement = slider.statement().render().toString();
+		assertTrue(statement.contains("wicketThrottler.throttle( 'anId-ajaxSlideEvent', 250, function() { "));
+		assertTrue(statement.contains("stop: function(event, ui) {\n\t"
+				+ "wicketThrottler.execute('anId-ajaxSlideEvent');var values"));
+	}
+
+	private static class EmptySliderAjaxEvent implements AjaxSlider.ISliderAjaxEvent {
+		private static final long serialVersionUID = 1L;
+
+		public void onEvent(AjaxRequestTarget target, AjaxSlider slider,
+				int value, int[] values) {
+		}
+	}
+
+	private class InnerPage extends WebPage {
+
+	}
+}
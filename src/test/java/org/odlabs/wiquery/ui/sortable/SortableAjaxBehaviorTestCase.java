@@ -22,7 +22,9 @@
 package org.odlabs.wiquery.ui.sortable;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import org.apache.wicket.Component;
 import org.apache.wicket.ajax.AjaxRequestTarget;
@@ -30,6 +32,7 @@ import org.apache.wicket.markup.html.WebMarkupContainer;
 import org.apache.wicket.markup.html.WebPage;
 import org.junit.Test;
 import org.odlabs.wiquery.tester.WiQueryTestCase;
+import org.odlabs.wiquery.ui.core.AjaxEventBatchBehavior;
 
 /**
  * Test on {@link SortableAjaxBehavior}
@@ -65,6 +68,32 @@ public class SortableAjaxBehaviorTestCase extends WiQueryTestCase {
 		assertEquals(genrateAjaxStatment, expectedAjaxStatement);
 	}
 
+	/**
+	 * Test method for
+	 * {@link org.odlabs.wiquery.ui.sortable.SortableAjaxBehavior#setEventBatch(AjaxEventBatchBehavior)}
+	 * .
+	 */
+	@Test
+	public void testStatementBatched() {
+		InnerSortableAjaxBehavior sortableAjaxBehavior = new InnerSortableAjaxBehavior();
+		WebMarkupContainer component = new WebMarkupContainer("anId");
+		component.setMarkupId("anId");
+		component.add(sortableAjaxBehavior);
+		
+		AjaxEventBatchBehavior batch = new AjaxEventBatchBehavior();
+		WebPage webPage = new InnerPage();
+		webPage.add(component);
+		webPage.add(batch);
+		sortableAjaxBehavior.setEventBatch(batch);
+		
+		String genrateAjaxStatment = sortableAjaxBehavior.statement().render()
+				.toString();
+		assertEquals(batch, sortableAjaxBehavior.getEventBatch());
+		assertTrue(genrateAjaxStatment.contains("update: function(event, ui) {\n\t"
+				+ "WiQueryAjaxBatch.queue('" + webPage.getMarkupId() + "', '0:'+'sortedType=update&sortedIndex='+$(this).find(':data(sortable-item)').index(ui.item)+'&sortedId='+ $(ui.item).attr('id'), function(events) {"));
+		assertFalse(genrateAjaxStatment.contains("sortedType=update',"));
+	}
+
 	private class InnerSortableAjaxBehavior extends
 			SortableAjaxBehavior<Component> {
 		private static final long serialVersionUID = 1L;